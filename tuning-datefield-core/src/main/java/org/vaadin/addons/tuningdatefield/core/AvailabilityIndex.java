@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2013 Frederic Dreyfus
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vaadin.addons.tuningdatefield.core;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The number of enabled days of each month and year according to a {@link CalendarPageEngine} : range, week-ends,
+ * disabled dates and holidays. It lets the month and year pages disable the periods without any enabled day, or show
+ * their number of enabled days, without evaluating each of their days.<br>
+ * The counts of a year are computed once, when one of its months or the year itself is first asked, so that a change
+ * of the rules only costs the years displayed afterwards. The years out of the range are not computed at all. The
+ * index is thread-safe.
+ *
+ * @author Frederic.Dreyfus
+ *
+ */
+public final class AvailabilityIndex {
+
+    private static final int[] NO_ENABLED_DAYS = new int[13];
+
+    private final CalendarPageEngine engine;
+
+    // The enabled days of each month of a year, followed by the enabled days of the year
+    private final ConcurrentMap<Integer, int[]> years = new ConcurrentHashMap<>();
+
+    public AvailabilityIndex(CalendarPageEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * @return the number of enabled days of the month
+     */
+    public int getEnabledDays(YearMonth yearMonth) {
+        return getEnabledDays(yearMonth.getYear(), yearMonth.getMonthValue());
+    }
+
+    /**
+     * @param year
+     *            the year
+     * @param month
+     *            the month (1-12)
+     * @return the number of enabled days of the month
+     */
+    public int getEnabledDays(int year, int month) {
+        if (month < 1 || month > 12) {
+            throw new IllegalArgumentException("Invalid month " + month);
+        }
+        return getYear(year)[month - 1];
+    }
+
+    /**
+     * @return the number of enabled days of the year
+     */
+    public int getEnabledDays(int year) {
+        return getYear(year)[12];
+    }
+
+    private int[] getYear(int year) {
+        CalendarConfig config = engine.getConfig();
+        if (LocalDate.of(year, 12, 31).toEpochDay() < config.getRangeStartEpochDay()
+                || LocalDate.of(year, 1, 1).toEpochDay() > config.getRangeEndEpochDay()) {
+            return NO_ENABLED_DAYS;
+        }
+        int[] counts = years.get(year);
+        if (counts == null) {
+            // Counts are immutable once computed, concurrent computations are harmless
+            counts = computeYear(year);
+            int[] previous = years.putIfAbsent(year, counts);
+            if (previous != null) {
+                counts = previous;
+            }
+        }
+        return counts;
+    }
+
+    private int[] computeYear(int year) {
+        CalendarConfig config = engine.getConfig();
+        Holidays holidays = config.isHolidaysDisabled() ? config.getHolidays(year) : null;
+        DateSet disabledDates = config.getDisabledDates();
+        int disabledDaysOfWeek = config.isWeekendDisabled() ? config.getWeekendDaysMask() : 0;
+        long rangeStart = config.getRangeStartEpochDay();
+        long rangeEnd = config.getRangeEndEpochDay();
+
+        int[] counts = new int[13];
+        long epochDay = LocalDate.of(year, 1, 1).toEpochDay();
+        // 1970-01-01 is a thursday
+        int dayOfWeek = (int) Math.floorMod(epochDay + 3, 7L);
+        for (int month = 0; month < 12; month++) {
+            int lengthOfMonth = YearMonth.of(year, month + 1).lengthOfMonth();
+            for (int day = 0; day < lengthOfMonth; day++, epochDay++, dayOfWeek = dayOfWeek == 6 ? 0 : dayOfWeek + 1) {
+                if (epochDay < rangeStart || epochDay > rangeEnd || (disabledDaysOfWeek & (1 << dayOfWeek)) != 0
+                        || disabledDates.contains(epochDay) || (holidays != null && holidays.isHoliday(epochDay))) {
+                    continue;
+                }
+                counts[month]++;
+            }
+            counts[12] += counts[month];
+        }
+        return counts;
+    }
+
+}
@@ -0,0 +1,422 @@
+/*
+ * Copyright (C) 2013 Frederic Dreyfus
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vaadin.addons.tuningdatefield.core;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Business-day arithmetic following the rules of a {@link CalendarConfig} : a business day is neither a week-end, nor
+ * a holiday of the {@link HolidayProvider}, nor one of the disabled dates. The range and the customizers of a field
+ * are not taken into account.<br>
+ * The business days are kept as bitmaps of {@value #BLOCK_DAYS} days, computed once per block, so that the arithmetic
+ * skips whole blocks and words instead of testing each day. The bitmaps are shared by all the calculators having the
+ * same week-ends, disabled dates and holidays, so that they survive the changes of the other settings of a field.<br>
+ * The business days are searched between the years 1 and 9999. The calculator is thread-safe and the bulk methods
+ * spread the dates over the common fork-join pool.
+ *
+ * <pre>
+ * BusinessDayCalculator calculator = tuningDateField.getBusinessDayCalculator();
+ * LocalDate dueDate = calculator.addBusinessDays(tuningDateField.getValue(), 5);
+ * </pre>
+ *
+ * @author Frederic.Dreyfus
+ *
+ */
+public final class BusinessDayCalculator {
+
+    /**
+     * The number of days of a bitmap
+     */
+    public static final int BLOCK_DAYS = 512;
+
+    private static final int BLOCK_SHIFT = 9;
+    private static final int WORDS_PER_BLOCK = BLOCK_DAYS / 64;
+
+    // The days searched : 0001-01-01 to 9999-12-31
+    private static final long MIN_SEARCH_EPOCH_DAY = -719162;
+    private static final long MAX_SEARCH_EPOCH_DAY = 2932896;
+
+    // The maximum number of rules whose blocks are kept, arbitrary rules are evicted beyond
+    private static final int MAX_SHARED_RULES = 64;
+
+    private static final ConcurrentMap<Rules, ConcurrentMap<Long, long[]>> SHARED_BLOCKS = new ConcurrentHashMap<>();
+
+    private final CalendarConfig config;
+
+    // The business days of each block, followed by their number
+    private final ConcurrentMap<Long, long[]> blocks;
+
+    public BusinessDayCalculator(CalendarConfig config) {
+        this.config = config;
+        this.blocks = getSharedBlocks(new Rules(config));
+    }
+
+    /**
+     * @return the config
+     */
+    public CalendarConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * @return <code>true</code> if the date is a business day
+     */
+    public boolean isBusinessDay(LocalDate date) {
+        return isBusinessDay(date.toEpochDay());
+    }
+
+    /**
+     * @return <code>true</code> if the epoch day is a business day
+     */
+    public boolean isBusinessDay(long epochDay) {
+        long[] block = getBlock(epochDay >> BLOCK_SHIFT);
+        int offset = (int) epochDay & (BLOCK_DAYS - 1);
+        return (block[offset >> 6] & (1L << offset)) != 0;
+    }
+
+    /**
+     * @return the first business day after the date
+     */
+    public LocalDate nextBusinessDay(LocalDate date) {
+        return addBusinessDays(date, 1);
+    }
+
+    /**
+     * @return the last business day before the date
+     */
+    public LocalDate previousBusinessDay(LocalDate date) {
+        return addBusinessDays(date, -1);
+    }
+
+    /**
+     * Returns the date a number of business days after another one. The start date does not need to be a business
+     * day, e.g. 1 business day after a saturday is the next monday.
+     *
+     * @param date
+     *            the start date
+     * @param businessDays
+     *            the number of business days, backwards if negative
+     * @return the date, <code>date</code> itself if <code>businessDays</code> is 0
+     * @throws IllegalStateException
+     *             if there are not enough business days between the date and the year 1 or 9999
+     */
+    public LocalDate addBusinessDays(LocalDate date, int businessDays) {
+        return LocalDate.ofEpochDay(addBusinessDays(date.toEpochDay(), businessDays));
+    }
+
+    /**
+     * Same as {@link #addBusinessDays(LocalDate, int)} with epoch days.
+     */
+    public long addBusinessDays(long epochDay, int businessDays) {
+        if (businessDays == 0) {
+            return epochDay;
+        }
+        checkBusinessDaysExist();
+        return businessDays > 0 ? forward(epochDay + 1, businessDays) : backward(epochDay - 1, -(long) businessDays);
+    }
+
+    /**
+     * Returns the number of business days from a date (included) to another one (excluded).
+     *
+     * @param startDate
+     *            the start date (included)
+     * @param endDate
+     *            the end date (excluded)
+     * @return the number of business days, negative if the end date is before the start date
+     */
+    public long businessDaysBetween(LocalDate startDate, LocalDate endDate) {
+        return businessDaysBetween(startDate.toEpochDay(), endDate.toEpochDay());
+    }
+
+    /**
+     * Same as {@link #businessDaysBetween(LocalDate, LocalDate)} with epoch days.
+     */
+    public long businessDaysBetween(long startEpochDay, long endEpochDay) {
+        if (endEpochDay < startEpochDay) {
+            return -count(endEpochDay, startEpochDay);
+        }
+        return count(startEpochDay, endEpochDay);
+    }
+
+    /**
+     * Adds the same number of business days to many dates, e.g. in a batch job.
+     *
+     * @param epochDays
+     *            the start dates as epoch days
+     * @param businessDays
+     *            the number of business days, backwards if negative
+     * @return the dates as epoch days, in the same order
+     */
+    public long[] addBusinessDays(long[] epochDays, int businessDays) {
+        long[] results = new long[epochDays.length];
+        Arrays.parallelSetAll(results, i -> addBusinessDays(epochDays[i], businessDays));
+        return results;
+    }
+
+    /**
+     * Counts the business days of many periods, e.g. in a batch job.
+     *
+     * @param startEpochDays
+     *            the start dates (included) as epoch days
+     * @param endEpochDays
+     *            the end dates (excluded) as epoch days
+     * @return the number of business days of each period, in the same order
+     */
+    public long[] businessDaysBetween(long[] startEpochDays, long[] endEpochDays) {
+        if (startEpochDays.length != endEpochDays.length) {
+            throw new IllegalArgumentException("Expected as many start dates as end dates");
+        }
+        long[] results = new long[startEpochDays.length];
+        Arrays.parallelSetAll(results, i -> businessDaysBetween(startEpochDays[i], endEpochDays[i]));
+        return results;
+    }
+
+    /**
+     * @return the epoch day of the n-th business day from <code>from</code> (included)
+     */
+    private long forward(long from, long n) {
+        long businessDays = n;
+        long position = from;
+        while (true) {
+            if (position > MAX_SEARCH_EPOCH_DAY || position < MIN_SEARCH_EPOCH_DAY) {
+                throw notEnoughBusinessDays(from - 1, businessDays, MAX_SEARCH_EPOCH_DAY);
+            }
+            long blockIndex = position >> BLOCK_SHIFT;
+            long[] block = getBlock(blockIndex);
+            int offset = (int) position & (BLOCK_DAYS - 1);
+            if (offset == 0 && block[WORDS_PER_BLOCK] < n) {
+                n -= block[WORDS_PER_BLOCK];
+                position += BLOCK_DAYS;
+                continue;
+            }
+            int word = offset >> 6;
+            long bits = block[word] & (-1L << offset);
+            int count = Long.bitCount(bits);
+            if (count >= n) {
+                for (long i = 1; i < n; i++) {
+                    bits &= bits - 1;
+                }
+                long epochDay = (blockIndex << BLOCK_SHIFT) + (word << 6) + Long.numberOfTrailingZeros(bits);
+                if (epochDay > MAX_SEARCH_EPOCH_DAY) {
+                    throw notEnoughBusinessDays(from - 1, businessDays, MAX_SEARCH_EPOCH_DAY);
+                }
+                return epochDay;
+            }
+            n -= count;
+            position = (blockIndex << BLOCK_SHIFT) + ((word + 1) << 6);
+        }
+    }
+
+    /**
+     * @return the epoch day of the n-th business day from <code>from</code> (included) backwards
+     */
+    private long backward(long from, long n) {
+        long businessDays = n;
+        long position = from;
+        while (true) {
+            if (position < MIN_SEARCH_EPOCH_DAY || position > MAX_SEARCH_EPOCH_DAY) {
+                throw notEnoughBusinessDays(from + 1, -businessDays, MIN_SEARCH_EPOCH_DAY);
+            }
+            long blockIndex = position >> BLOCK_SHIFT;
+            long[] block = getBlock(blockIndex);
+            int offset = (int) position & (BLOCK_DAYS - 1);
+            if (offset == BLOCK_DAYS - 1 && block[WORDS_PER_BLOCK] < n) {
+                n -= block[WORDS_PER_BLOCK];
+                position -= BLOCK_DAYS;
+                continue;
+            }
+            int word = offset >> 6;
+            long bits = block[word] & (-1L >>> (63 - (offset & 63)));
+            int count = Long.bitCount(bits);
+            if (count >= n) {
+                for (long i = 1; i < n; i++) {
+                    bits &= ~Long.highestOneBit(bits);
+                }
+                long epochDay = (blockIndex << BLOCK_SHIFT) + (word << 6) + 63 - Long.numberOfLeadingZeros(bits);
+                if (epochDay < MIN_SEARCH_EPOCH_DAY) {
+                    throw notEnoughBusinessDays(from + 1, -businessDays, MIN_SEARCH_EPOCH_DAY);
+                }
+                return epochDay;
+            }
+            n -= count;
+            position = (blockIndex << BLOCK_SHIFT) + (word << 6) - 1;
+        }
+    }
+
+    /**
+     * @return the number of business days from <code>start</code> (included) to <code>end</code> (excluded)
+     */
+    private long count(long start, long end) {
+        long count = 0;
+        long position = start;
+        while (position < end) {
+            long blockIndex = position >> BLOCK_SHIFT;
+            long[] block = getBlock(blockIndex);
+            int offset = (int) position & (BLOCK_DAYS - 1);
+            if (offset == 0 && end - position >= BLOCK_DAYS) {
+                count += block[WORDS_PER_BLOCK];
+                position += BLOCK_DAYS;
+                continue;
+            }
+            int word = offset >> 6;
+            long bits = block[word] & (-1L << offset);
+            long wordEnd = (blockIndex << BLOCK_SHIFT) + ((word + 1) << 6);
+            if (end < wordEnd) {
+                // Keep the bits before the end
+                bits &= (1L << (end - wordEnd + 64)) - 1;
+            }
+            count += Long.bitCount(bits);
+            position = wordEnd;
+        }
+        return count;
+    }
+
+    private static IllegalStateException notEnoughBusinessDays(long epochDay, long businessDays, long boundEpochDay) {
+        String date = epochDay < MIN_SEARCH_EPOCH_DAY || epochDay > MAX_SEARCH_EPOCH_DAY ? "epoch day " + epochDay
+                : LocalDate.ofEpochDay(epochDay).toString();
+        return new IllegalStateException("Cannot find " + Math.abs(businessDays) + " business days "
+                + (businessDays > 0 ? "after " : "before ") + date + " up to " + LocalDate.ofEpochDay(boundEpochDay));
+    }
+
+    private void checkBusinessDaysExist() {
+        if (config.getWeekendDaysMask() == 0x7F) {
+            throw new IllegalStateException("Every day of the week is a week-end");
+        }
+    }
+
+    private long[] getBlock(long blockIndex) {
+        long[] block = blocks.get(blockIndex);
+        if (block == null) {
+            // Blocks are immutable, concurrent initializations are harmless
+            block = computeBlock(blockIndex);
+            long[] previous = blocks.putIfAbsent(blockIndex, block);
+            if (previous != null) {
+                block = previous;
+            }
+        }
+        return block;
+    }
+
+    /**
+     * Forgets the blocks computed with the holidays of a provider, see {@link Holidays#evict(HolidayProvider)}.
+     */
+    static void evict(HolidayProvider provider) {
+        SHARED_BLOCKS.keySet().removeIf(rules -> provider.equals(rules.holidayProvider));
+    }
+
+    private static ConcurrentMap<Long, long[]> getSharedBlocks(Rules rules) {
+        ConcurrentMap<Long, long[]> blocks = SHARED_BLOCKS.get(rules);
+        if (blocks != null) {
+            return blocks;
+        }
+        blocks = new ConcurrentHashMap<>();
+        ConcurrentMap<Long, long[]> previous = SHARED_BLOCKS.putIfAbsent(rules, blocks);
+        if (previous != null) {
+            return previous;
+        }
+        // The calculators of evicted rules keep their blocks
+        Iterator<Rules> keys = SHARED_BLOCKS.keySet().iterator();
+        while (SHARED_BLOCKS.size() > MAX_SHARED_RULES && keys.hasNext()) {
+            if (!keys.next().equals(rules)) {
+                keys.remove();
+            }
+        }
+        return blocks;
+    }
+
+    private long[] computeBlock(long blockIndex) {
+        long firstEpochDay = blockIndex << BLOCK_SHIFT;
+        int firstYear = LocalDate.ofEpochDay(firstEpochDay).getYear();
+        int lastYear = LocalDate.ofEpochDay(firstEpochDay + BLOCK_DAYS - 1).getYear();
+        Holidays[] holidays = new Holidays[config.getHolidayProvider() == null ? 0 : lastYear - firstYear + 1];
+        for (int i = 0; i < holidays.length; i++) {
+            holidays[i] = config.getHolidays(firstYear + i);
+        }
+        DateSet disabledDates = config.getDisabledDates();
+        int weekendDaysMask = config.getWeekendDaysMask();
+
+        long[] block = new long[WORDS_PER_BLOCK + 1];
+        // 1970-01-01 is a thursday
+        int dayOfWeek = (int) Math.floorMod(firstEpochDay + 3, 7L);
+        for (int i = 0; i < BLOCK_DAYS; i++, dayOfWeek = dayOfWeek == 6 ? 0 : dayOfWeek + 1) {
+            long epochDay = firstEpochDay + i;
+            if ((weekendDaysMask & (1 << dayOfWeek)) != 0 || disabledDates.contains(epochDay)
+                    || isHoliday(holidays, epochDay)) {
+                continue;
+            }
+            block[i >> 6] |= 1L << i;
+            block[WORDS_PER_BLOCK]++;
+        }
+        return block;
+    }
+
+    private static boolean isHoliday(Holidays[] holidays, long epochDay) {
+        for (Holidays yearHolidays : holidays) {
+            if (yearHolidays.isHoliday(epochDay)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The settings a block depends on
+     */
+    private static final class Rules {
+
+        private final int weekendDaysMask;
+        private final DateSet disabledDates;
+        private final HolidayProvider holidayProvider;
+        private final String holidayRegion;
+        private final Locale holidayLocale;
+        private final int hashCode;
+
+        private Rules(CalendarConfig config) {
+            this.weekendDaysMask = config.getWeekendDaysMask();
+            this.disabledDates = config.getDisabledDates();
+            this.holidayProvider = config.getHolidayProvider();
+            this.holidayRegion = holidayProvider == null ? null : config.getHolidayRegion();
+            this.holidayLocale = holidayProvider == null ? null : config.getHolidayLocale();
+            this.hashCode = Objects.hash(weekendDaysMask, disabledDates, holidayProvider, holidayRegion,
+                    holidayLocale);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Rules)) {
+                return false;
+            }
+            Rules other = (Rules) obj;
+            return weekendDaysMask == other.weekendDaysMask && disabledDates.equals(other.disabledDates)
+                    && Objects.equals(holidayProvider, other.holidayProvider)
+                    && Objects.equals(holidayRegion, other.holidayRegion)
+                    && Objects.equals(holidayLocale, other.holidayLocale);
+        }
+    }
+
+}
@@ -0,0 +1,581 @@
+/*
+ * Copyright (C) 2013 Frederic Dreyfus
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vaadin.addons.tuningdatefield.core;
+
+import java.text.DateFormatSymbols;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The immutable settings of a {@link CalendarPageEngine} : week layout, week-ends, disabled days, date range,
+ * highlighted days and holidays.<br>
+ *
+ * <pre>
+ * CalendarConfig config = CalendarConfig.builder().withFirstDayOfWeek(7).withLastDayOfWeek(6)
+ *         .withDateRange(LocalDate.of(2013, 5, 10), LocalDate.of(2013, 6, 5)).build();
+ * </pre>
+ *
+ * @author Frederic.Dreyfus
+ *
+ */
+public final class CalendarConfig {
+
+    /**
+     * Saturday and sunday, bit <code>n</code> being set for the day of week <code>n+1</code>
+     */
+    public static final int DEFAULT_WEEKEND_DAYS_MASK = 0x60;
+
+    private static final String[] DEFAULT_SHORT_MONTH_TEXTS = Arrays.copyOf(
+            DateFormatSymbols.getInstance(Locale.ROOT).getShortMonths(), 12);
+
+    private final int firstDayOfWeek;
+    private final int lastDayOfWeek;
+    private final boolean fixedNumberOfDayRows;
+    private final int weekendDaysMask;
+    private final boolean weekendDisabled;
+    private final boolean previousMonthDisabled;
+    private final boolean nextMonthDisabled;
+    private final LocalDate rangeStart;
+    private final LocalDate rangeEnd;
+    private final String[] shortMonthTexts;
+    private final DateSet disabledDates;
+    private final String[] highlightStyles;
+    private final DateSet[] highlightedDates;
+    private final HolidayProvider holidayProvider;
+    private final String holidayRegion;
+    private final Locale holidayLocale;
+    private final boolean holidaysDisabled;
+    private final String holidayStyle;
+    private final boolean holidayTooltipsEnabled;
+    private final boolean emptyPeriodsDisabled;
+
+    private CalendarConfig(Builder builder) {
+        this.firstDayOfWeek = builder.firstDayOfWeek;
+        this.lastDayOfWeek = builder.lastDayOfWeek;
+        this.fixedNumberOfDayRows = builder.fixedNumberOfDayRows;
+        this.weekendDaysMask = builder.weekendDaysMask;
+        this.weekendDisabled = builder.weekendDisabled;
+        this.previousMonthDisabled = builder.previousMonthDisabled;
+        this.nextMonthDisabled = builder.nextMonthDisabled;
+        this.rangeStart = builder.rangeStart;
+        this.rangeEnd = builder.rangeEnd;
+        this.shortMonthTexts = builder.shortMonthTexts;
+        this.disabledDates = builder.disabledDates;
+        this.highlightStyles = builder.highlightedDates.keySet().toArray(new String[0]);
+        this.highlightedDates = builder.highlightedDates.values().toArray(new DateSet[0]);
+        this.holidayProvider = builder.holidayProvider;
+        this.holidayRegion = builder.holidayRegion;
+        this.holidayLocale = builder.holidayLocale;
+        this.holidaysDisabled = builder.holidaysDisabled;
+        this.holidayStyle = builder.holidayStyle;
+        this.holidayTooltipsEnabled = builder.holidayTooltipsEnabled;
+        this.emptyPeriodsDisabled = builder.emptyPeriodsDisabled;
+    }
+
+    /**
+     * @return a builder initialized with the defaults of the field : monday to sunday weeks, saturday and sunday
+     *         week-ends which are disabled, previous and next month days disabled, no date range and no holidays
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the first day of week (1=Monday,...,7=Sunday)
+     */
+    public int getFirstDayOfWeek() {
+        return firstDayOfWeek;
+    }
+
+    /**
+     * @return the last day of week (1=Monday,...,7=Sunday)
+     */
+    public int getLastDayOfWeek() {
+        return lastDayOfWeek;
+    }
+
+    /**
+     * @return <code>true</code> if the day pages always display 6 rows
+     */
+    public boolean isFixedNumberOfDayRows() {
+        return fixedNumberOfDayRows;
+    }
+
+    /**
+     * @return the days of week which are week-ends, bit <code>n</code> being set for the day of week <code>n+1</code>
+     */
+    public int getWeekendDaysMask() {
+        return weekendDaysMask;
+    }
+
+    /**
+     * @return the weekendDisabled
+     */
+    public boolean isWeekendDisabled() {
+        return weekendDisabled;
+    }
+
+    /**
+     * @return the previousMonthDisabled
+     */
+    public boolean isPreviousMonthDisabled() {
+        return previousMonthDisabled;
+    }
+
+    /**
+     * @return the nextMonthDisabled
+     */
+    public boolean isNextMonthDisabled() {
+        return nextMonthDisabled;
+    }
+
+    /**
+     * @return the start of the date range (included), <code>null</code> if unlimited
+     */
+    public LocalDate getRangeStart() {
+        return rangeStart;
+    }
+
+    /**
+     * @return the end of the date range (included), <code>null</code> if unlimited
+     */
+    public LocalDate getRangeEnd() {
+        return rangeEnd;
+    }
+
+    /**
+     * @return the start of the date range as an epoch day, {@link Long#MIN_VALUE} if unlimited
+     */
+    public long getRangeStartEpochDay() {
+        return rangeStart == null ? Long.MIN_VALUE : rangeStart.toEpochDay();
+    }
+
+    /**
+     * @return the end of the date range as an epoch day, {@link Long#MAX_VALUE} if unlimited
+     */
+    public long getRangeEndEpochDay() {
+        return rangeEnd == null ? Long.MAX_VALUE : rangeEnd.toEpochDay();
+    }
+
+    /**
+     * @return the short month texts (Jan, Feb, ...) of the month pages
+     */
+    public String[] getShortMonthTexts() {
+        return shortMonthTexts.clone();
+    }
+
+    String getShortMonthText(int monthIndex) {
+        return shortMonthTexts[monthIndex];
+    }
+
+    /**
+     * @return the disabled dates, empty if none
+     */
+    public DateSet getDisabledDates() {
+        return disabledDates;
+    }
+
+    /**
+     * @param style
+     *            the style of the highlighted dates
+     * @return the dates highlighted with the style, empty if none
+     */
+    public DateSet getHighlightedDates(String style) {
+        for (int i = 0; i < highlightStyles.length; i++) {
+            if (highlightStyles[i].equals(style)) {
+                return highlightedDates[i];
+            }
+        }
+        return DateSet.EMPTY;
+    }
+
+    /**
+     * @return the style added to the day, each style name being followed by a space, empty if not highlighted
+     */
+    String getHighlightStyle(long epochDay) {
+        String style = "";
+        for (int i = 0; i < highlightStyles.length; i++) {
+            if (highlightedDates[i].contains(epochDay)) {
+                style = style + highlightStyles[i] + " ";
+            }
+        }
+        return style;
+    }
+
+    /**
+     * @return the holiday provider, <code>null</code> if none
+     */
+    public HolidayProvider getHolidayProvider() {
+        return holidayProvider;
+    }
+
+    /**
+     * @return the region of the holidays
+     */
+    public String getHolidayRegion() {
+        return holidayRegion;
+    }
+
+    /**
+     * @return the locale of the holiday names
+     */
+    public Locale getHolidayLocale() {
+        return holidayLocale;
+    }
+
+    /**
+     * @return the holidaysDisabled
+     */
+    public boolean isHolidaysDisabled() {
+        return holidaysDisabled;
+    }
+
+    /**
+     * @return the style of the holidays, <code>null</code> if none
+     */
+    public String getHolidayStyle() {
+        return holidayStyle;
+    }
+
+    /**
+     * @return <code>true</code> if the holiday names are the tooltips of the holidays
+     */
+    public boolean isHolidayTooltipsEnabled() {
+        return holidayTooltipsEnabled;
+    }
+
+    /**
+     * @return <code>true</code> if the months and years without any enabled day are disabled in the month and year
+     *         pages
+     */
+    public boolean isEmptyPeriodsDisabled() {
+        return emptyPeriodsDisabled;
+    }
+
+    /**
+     * @param year
+     *            the year
+     * @return the holidays of the year, <code>null</code> if there is no holiday provider
+     */
+    public Holidays getHolidays(int year) {
+        return holidayProvider == null ? null : Holidays.get(holidayProvider, holidayRegion, year, holidayLocale);
+    }
+
+    /**
+     * @return <code>true</code> if some dates are disabled or highlighted
+     */
+    public boolean hasDateSets() {
+        return !disabledDates.isEmpty() || highlightStyles.length > 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = firstDayOfWeek;
+        result = 31 * result + lastDayOfWeek;
+        result = 31 * result + (fixedNumberOfDayRows ? 1 : 0);
+        result = 31 * result + weekendDaysMask;
+        result = 31 * result + (weekendDisabled ? 1 : 0);
+        result = 31 * result + (previousMonthDisabled ? 1 : 0);
+        result = 31 * result + (nextMonthDisabled ? 1 : 0);
+        result = 31 * result + (rangeStart == null ? 0 : rangeStart.hashCode());
+        result = 31 * result + (rangeEnd == null ? 0 : rangeEnd.hashCode());
+        result = 31 * result + Arrays.hashCode(shortMonthTexts);
+        result = 31 * result + disabledDates.hashCode();
+        result = 31 * result + Arrays.hashCode(highlightStyles);
+        result = 31 * result + Arrays.hashCode(highlightedDates);
+        result = 31 * result + Objects.hash(holidayProvider, holidayRegion, holidayLocale, holidaysDisabled,
+                holidayStyle, holidayTooltipsEnabled);
+        result = 31 * result + (emptyPeriodsDisabled ? 1 : 0);
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof CalendarConfig)) {
+            return false;
+        }
+        CalendarConfig other = (CalendarConfig) obj;
+        return firstDayOfWeek == other.firstDayOfWeek && lastDayOfWeek == other.lastDayOfWeek
+                && fixedNumberOfDayRows == other.fixedNumberOfDayRows && weekendDaysMask == other.weekendDaysMask
+                && weekendDisabled == other.weekendDisabled && previousMonthDisabled == other.previousMonthDisabled
+                && nextMonthDisabled == other.nextMonthDisabled
+                && (rangeStart == null ? other.rangeStart == null : rangeStart.equals(other.rangeStart))
+                && (rangeEnd == null ? other.rangeEnd == null : rangeEnd.equals(other.rangeEnd))
+                && Arrays.equals(shortMonthTexts, other.shortMonthTexts) && disabledDates.equals(other.disabledDates)
+                && Arrays.equals(highlightStyles, other.highlightStyles)
+                && Arrays.equals(highlightedDates, other.highlightedDates)
+                && Objects.equals(holidayProvider, other.holidayProvider)
+                && Objects.equals(holidayRegion, other.holidayRegion)
+                && Objects.equals(holidayLocale, other.holidayLocale) && holidaysDisabled == other.holidaysDisabled
+                && Objects.equals(holidayStyle, other.holidayStyle)
+                && holidayTooltipsEnabled == other.holidayTooltipsEnabled
+                && emptyPeriodsDisabled == other.emptyPeriodsDisabled;
+    }
+
+    @Override
+    public String toString() {
+        return "CalendarConfig [firstDayOfWeek=" + firstDayOfWeek + ", lastDayOfWeek=" + lastDayOfWeek
+                + ", fixedNumberOfDayRows=" + fixedNumberOfDayRows + ", weekendDaysMask=" + weekendDaysMask
+                + ", weekendDisabled=" + weekendDisabled + ", previousMonthDisabled=" + previousMonthDisabled
+                + ", nextMonthDisabled=" + nextMonthDisabled + ", rangeStart=" + rangeStart + ", rangeEnd="
+                + rangeEnd + ", disabledDates=" + disabledDates + ", highlightStyles="
+                + Arrays.toString(highlightStyles) + ", holidayProvider=" + holidayProvider + ", holidayRegion="
+                + holidayRegion + "]";
+    }
+
+    /**
+     * The builder of a {@link CalendarConfig}. It is not thread-safe, unlike the configs it builds.
+     */
+    public static final class Builder {
+
+        private int firstDayOfWeek = 1;
+        private int lastDayOfWeek = 7;
+        private boolean fixedNumberOfDayRows;
+        private int weekendDaysMask = DEFAULT_WEEKEND_DAYS_MASK;
+        private boolean weekendDisabled = true;
+        private boolean previousMonthDisabled = true;
+        private boolean nextMonthDisabled = true;
+        private LocalDate rangeStart;
+        private LocalDate rangeEnd;
+        private String[] shortMonthTexts = DEFAULT_SHORT_MONTH_TEXTS;
+        private DateSet disabledDates = DateSet.EMPTY;
+        private final Map<String, DateSet> highlightedDates = new LinkedHashMap<>();
+        private HolidayProvider holidayProvider;
+        private String holidayRegion;
+        private Locale holidayLocale = Locale.ROOT;
+        private boolean holidaysDisabled = true;
+        private String holidayStyle = "holiday";
+        private boolean holidayTooltipsEnabled = true;
+        private boolean emptyPeriodsDisabled;
+
+        private Builder() {
+
+        }
+
+        /**
+         * @param firstDayOfWeek
+         *            the first day of week (1=Monday,...,7=Sunday)
+         * @return this builder
+         */
+        public Builder withFirstDayOfWeek(int firstDayOfWeek) {
+            checkDayOfWeek(firstDayOfWeek);
+            this.firstDayOfWeek = firstDayOfWeek;
+            return this;
+        }
+
+        /**
+         * @param lastDayOfWeek
+         *            the last day of week (1=Monday,...,7=Sunday)
+         * @return this builder
+         */
+        public Builder withLastDayOfWeek(int lastDayOfWeek) {
+            checkDayOfWeek(lastDayOfWeek);
+            this.lastDayOfWeek = lastDayOfWeek;
+            return this;
+        }
+
+        /**
+         * @param fixedNumberOfDayRows
+         *            <code>true</code> to always display 6 rows in the day pages
+         * @return this builder
+         */
+        public Builder withFixedNumberOfDayRows(boolean fixedNumberOfDayRows) {
+            this.fixedNumberOfDayRows = fixedNumberOfDayRows;
+            return this;
+        }
+
+        /**
+         * @param weekendDaysMask
+         *            the days of week which are week-ends, bit <code>n</code> being set for the day of week
+         *            <code>n+1</code>
+         * @return this builder
+         */
+        public Builder withWeekendDaysMask(int weekendDaysMask) {
+            if ((weekendDaysMask & ~0x7F) != 0) {
+                throw new IllegalArgumentException("Invalid week-end days mask " + weekendDaysMask);
+            }
+            this.weekendDaysMask = weekendDaysMask;
+            return this;
+        }
+
+        /**
+         * @param weekendDisabled
+         *            <code>true</code> to disable the week-ends
+         * @return this builder
+         */
+        public Builder withWeekendDisabled(boolean weekendDisabled) {
+            this.weekendDisabled = weekendDisabled;
+            return this;
+        }
+
+        /**
+         * @param previousMonthDisabled
+         *            <code>true</code> to disable the days of the previous month displayed in a day page
+         * @return this builder
+         */
+        public Builder withPreviousMonthDisabled(boolean previousMonthDisabled) {
+            this.previousMonthDisabled = previousMonthDisabled;
+            return this;
+        }
+
+        /**
+         * @param nextMonthDisabled
+         *            <code>true</code> to disable the days of the next month displayed in a day page
+         * @return this builder
+         */
+        public Builder withNextMonthDisabled(boolean nextMonthDisabled) {
+            this.nextMonthDisabled = nextMonthDisabled;
+            return this;
+        }
+
+        /**
+         * @param rangeStart
+         *            the start date (included). <code>null</code> for unlimited
+         * @param rangeEnd
+         *            the end date (included). <code>null</code> for unlimited
+         * @return this builder
+         */
+        public Builder withDateRange(LocalDate rangeStart, LocalDate rangeEnd) {
+            if (rangeStart != null && rangeEnd != null && rangeEnd.isBefore(rangeStart)) {
+                throw new IllegalArgumentException("Cannot have a date range with end date " + rangeEnd
+                        + " before start date " + rangeStart);
+            }
+            this.rangeStart = rangeStart;
+            this.rangeEnd = rangeEnd;
+            return this;
+        }
+
+        /**
+         * @param shortMonthTexts
+         *            the short month texts (Jan, Feb, ...) of the month pages. Only the first 12 are used, as
+         *            {@link DateFormatSymbols#getShortMonths()} has a 13th empty month
+         * @return this builder
+         */
+        public Builder withShortMonthTexts(String[] shortMonthTexts) {
+            if (shortMonthTexts.length < 12) {
+                throw new IllegalArgumentException("Expected 12 short month texts, got " + shortMonthTexts.length);
+            }
+            this.shortMonthTexts = Arrays.copyOf(shortMonthTexts, 12);
+            return this;
+        }
+
+        /**
+         * @param disabledDates
+         *            the disabled dates, <code>null</code> for none
+         * @return this builder
+         */
+        public Builder withDisabledDates(DateSet disabledDates) {
+            this.disabledDates = disabledDates == null ? DateSet.EMPTY : disabledDates;
+            return this;
+        }
+
+        /**
+         * Adds a style to the day cells of some dates. The styles are added in the order they were first set.
+         *
+         * @param highlightedDates
+         *            the highlighted dates, <code>null</code> to remove the style
+         * @param style
+         *            the style
+         * @return this builder
+         */
+        public Builder withHighlightedDates(DateSet highlightedDates, String style) {
+            if (highlightedDates == null || highlightedDates.isEmpty()) {
+                this.highlightedDates.remove(style);
+            } else {
+                this.highlightedDates.put(style, highlightedDates);
+            }
+            return this;
+        }
+
+        /**
+         * @param holidayProvider
+         *            the holiday provider, <code>null</code> for none
+         * @param holidayRegion
+         *            the region of the holidays
+         * @param holidayLocale
+         *            the locale of the holiday names
+         * @return this builder
+         */
+        public Builder withHolidays(HolidayProvider holidayProvider, String holidayRegion, Locale holidayLocale) {
+            this.holidayProvider = holidayProvider;
+            this.holidayRegion = holidayRegion;
+            this.holidayLocale = holidayLocale;
+            return this;
+        }
+
+        /**
+         * @param holidaysDisabled
+         *            <code>true</code> to disable the holidays
+         * @return this builder
+         */
+        public Builder withHolidaysDisabled(boolean holidaysDisabled) {
+            this.holidaysDisabled = holidaysDisabled;
+            return this;
+        }
+
+        /**
+         * @param holidayStyle
+         *            the style of the holidays, <code>null</code> for none
+         * @return this builder
+         */
+        public Builder withHolidayStyle(String holidayStyle) {
+            this.holidayStyle = holidayStyle;
+            return this;
+        }
+
+        /**
+         * @param holidayTooltipsEnabled
+         *            <code>true</code> to show the holiday names as tooltips
+         * @return this builder
+         */
+        public Builder withHolidayTooltipsEnabled(boolean holidayTooltipsEnabled) {
+            this.holidayTooltipsEnabled = holidayTooltipsEnabled;
+            return this;
+        }
+
+        /**
+         * @param emptyPeriodsDisabled
+         *            <code>true</code> to disable the months and years without any enabled day (default to false)
+         * @return this builder
+         */
+        public Builder withEmptyPeriodsDisabled(boolean emptyPeriodsDisabled) {
+            this.emptyPeriodsDisabled = emptyPeriodsDisabled;
+            return this;
+        }
+
+        /**
+         * @return the config
+         */
+        public CalendarConfig build() {
+            return new CalendarConfig(this);
+        }
+
+        private static void checkDayOfWeek(int dayOfWeek) {
+            if (dayOfWeek < 1 || dayOfWeek > 7) {
+                throw new IllegalArgumentException("Invalid day of week " + dayOfWeek);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,433 @@
+/*
+ * Copyright (C) 2013 Frederic Dreyfus
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vaadin.addons.tuningdatefield.core;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import org.vaadin.addons.tuningdatefield.core.CalendarPageModel.Resolution;
+
+/**
+ * Builds the calendar pages of a {@link CalendarConfig} : the days of a month, the months of a year and the years of a
+ * decade, with their default text, style and enablement.<br>
+ * The engine is immutable and thread-safe, so it can be shared, used outside of any UI (e.g. to check dates in a
+ * backend or to build pages in bulk) and called concurrently.
+ *
+ * <pre>
+ * CalendarPageEngine engine = new CalendarPageEngine(CalendarConfig.builder().withWeekendDisabled(false).build());
+ * CalendarPageModel page = engine.buildDayPage(YearMonth.of(2013, 5), LocalDate.now(), null);
+ * </pre>
+ *
+ * @author Frederic.Dreyfus
+ *
+ */
+public final class CalendarPageEngine {
+
+    private static final String[] MONTH_STYLES = { "", "currentmonth ", "selected ", "currentmonth selected " };
+    private static final String[] YEAR_STYLES = { "", "currentyear ", "selected ", "currentyear selected " };
+
+    // The days searched when the range is unlimited : 0001-01-01 to 9999-12-31
+    private static final long MIN_SEARCH_EPOCH_DAY = -719162;
+    private static final long MAX_SEARCH_EPOCH_DAY = 2932896;
+
+    private final CalendarConfig config;
+
+    // The week-end columns of the day pages, bit n being set for column n
+    private final int weekendColumnMask;
+
+    private final BusinessDayCalculator businessDayCalculator;
+
+    private final AvailabilityIndex availabilityIndex;
+
+    public CalendarPageEngine(CalendarConfig config) {
+        this.config = config;
+        int columnMask = 0;
+        for (int column = 0; column < 7; column++) {
+            if ((config.getWeekendDaysMask() & (1 << ((config.getFirstDayOfWeek() - 1 + column) % 7))) != 0) {
+                columnMask |= 1 << column;
+            }
+        }
+        this.weekendColumnMask = columnMask;
+        this.businessDayCalculator = new BusinessDayCalculator(config);
+        this.availabilityIndex = new AvailabilityIndex(this);
+    }
+
+    /**
+     * @return the config
+     */
+    public CalendarConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * @return the business-day calculator following the week-ends, holidays and disabled dates of the config, its
+     *         bitmaps being kept as long as this engine
+     */
+    public BusinessDayCalculator getBusinessDayCalculator() {
+        return businessDayCalculator;
+    }
+
+    /**
+     * @return the number of enabled days of each month and year, its counts being kept as long as this engine
+     */
+    public AvailabilityIndex getAvailabilityIndex() {
+        return availabilityIndex;
+    }
+
+    /**
+     * Builds the day page of a month, with the days of the previous and next months completing the weeks.
+     *
+     * @param yearMonth
+     *            the month
+     * @param today
+     *            the current day, styled <code>today</code>
+     * @param selectedDate
+     *            the selected day, styled <code>selected</code>. <code>null</code> for none
+     * @return the page
+     */
+    public CalendarPageModel buildDayPage(YearMonth yearMonth, LocalDate today, LocalDate selectedDate) {
+        DayGridShape shape = getDayGridShape(yearMonth);
+        int numberOfDays = shape.getNumberOfDays();
+        long calendarFirstEpochDay = yearMonth.atDay(1).toEpochDay() - shape.getLeadingDays();
+        int todayIndex = getDayIndex(today, calendarFirstEpochDay, numberOfDays);
+        int selectedIndex = getDayIndex(selectedDate, calendarFirstEpochDay, numberOfDays);
+        boolean previousMonthEnabled = !config.isPreviousMonthDisabled();
+        boolean nextMonthEnabled = !config.isNextMonthDisabled();
+        DateSet disabledDates = config.getDisabledDates();
+        boolean highlighted = config.hasDateSets();
+        LocalDate calendarFirstDay = LocalDate.ofEpochDay(calendarFirstEpochDay);
+        LocalDate calendarLastDay = LocalDate.ofEpochDay(calendarFirstEpochDay + numberOfDays - 1);
+        // A page spans at most two years
+        Holidays firstYearHolidays = config.getHolidays(calendarFirstDay.getYear());
+        Holidays lastYearHolidays = config.getHolidays(calendarLastDay.getYear());
+        String holidayStyle = config.getHolidayStyle() == null ? "" : config.getHolidayStyle() + " ";
+
+        int[] relativeDateIndexes = new int[numberOfDays];
+        String[] texts = new String[numberOfDays];
+        String[] styles = new String[numberOfDays];
+        boolean[] enabled = new boolean[numberOfDays];
+        boolean[] inDisplayedPeriod = new boolean[numberOfDays];
+        String[] tooltips = null;
+        for (int i = 0; i < numberOfDays; i++) {
+            relativeDateIndexes[i] = shape.getRelativeDateIndex(i);
+            texts[i] = shape.getText(i);
+            styles[i] = shape.getStyle(i, i == todayIndex, i == selectedIndex);
+            long epochDay = calendarFirstEpochDay + i;
+            int monthPart = shape.getMonthPart(i);
+            if (monthPart == DayGridShape.PREVIOUS_MONTH) {
+                enabled[i] = previousMonthEnabled;
+            } else if (monthPart == DayGridShape.NEXT_MONTH) {
+                enabled[i] = nextMonthEnabled;
+            } else {
+                inDisplayedPeriod[i] = true;
+                enabled[i] = isDateInRange(epochDay) && !(shape.isWeekend(i) && config.isWeekendDisabled());
+            }
+            if (highlighted) {
+                // The disabled dates also apply to the days of the previous and next months
+                enabled[i] &= !disabledDates.contains(epochDay);
+                styles[i] = styles[i] + config.getHighlightStyle(epochDay);
+            }
+            if (firstYearHolidays != null) {
+                Holidays holidays = firstYearHolidays.isHoliday(epochDay) ? firstYearHolidays : lastYearHolidays;
+                if (holidays.isHoliday(epochDay)) {
+                    enabled[i] &= !config.isHolidaysDisabled();
+                    styles[i] = styles[i] + holidayStyle;
+                    if (config.isHolidayTooltipsEnabled()) {
+                        if (tooltips == null) {
+                            tooltips = new String[numberOfDays];
+                        }
+                        tooltips[i] = holidays.getName(epochDay);
+                    }
+                }
+            }
+        }
+        return new CalendarPageModel(Resolution.DAY, calendarFirstDay, calendarLastDay, relativeDateIndexes, texts,
+                styles, enabled, inDisplayedPeriod, tooltips);
+    }
+
+    /**
+     * Builds the month page of a year. The months are enabled, unless they have no enabled day and
+     * {@link CalendarConfig#isEmptyPeriodsDisabled()}.
+     *
+     * @param year
+     *            the year
+     * @param currentMonth
+     *            the current month, styled <code>currentmonth</code>
+     * @param selectedDate
+     *            the selected day, its month being styled <code>selected</code>. <code>null</code> for none
+     * @return the page
+     */
+    public CalendarPageModel buildMonthPage(int year, YearMonth currentMonth, LocalDate selectedDate) {
+        int[] relativeDateIndexes = new int[12];
+        String[] texts = new String[12];
+        String[] styles = new String[12];
+        boolean[] enabled = new boolean[12];
+        boolean[] inDisplayedPeriod = new boolean[12];
+        for (int i = 0; i < 12; i++) {
+            int month = i + 1;
+            relativeDateIndexes[i] = month;
+            texts[i] = config.getShortMonthText(i);
+            int style = 0;
+            if (currentMonth != null && currentMonth.getYear() == year && currentMonth.getMonthValue() == month) {
+                style |= 1;
+            }
+            if (selectedDate != null && selectedDate.getYear() == year && selectedDate.getMonthValue() == month) {
+                style |= 2;
+            }
+            styles[i] = MONTH_STYLES[style];
+            enabled[i] = !config.isEmptyPeriodsDisabled() || availabilityIndex.getEnabledDays(year, month) > 0;
+            inDisplayedPeriod[i] = true;
+        }
+        return new CalendarPageModel(Resolution.MONTH, LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31),
+                relativeDateIndexes, texts, styles, enabled, inDisplayedPeriod, null);
+    }
+
+    /**
+     * Builds the year page of a range of years. The years are enabled, unless they have no enabled day and
+     * {@link CalendarConfig#isEmptyPeriodsDisabled()}.
+     *
+     * @param firstYear
+     *            the first year of the page, see {@link #getCalendarFirstYear(int)}
+     * @param lastYear
+     *            the last year of the page, see {@link #getCalendarLastYear(int)}
+     * @param currentYear
+     *            the current year, styled <code>currentyear</code>
+     * @param selectedDate
+     *            the selected day, its year being styled <code>selected</code>. <code>null</code> for none
+     * @return the page
+     */
+    public CalendarPageModel buildYearPage(int firstYear, int lastYear, int currentYear, LocalDate selectedDate) {
+        int numberOfYears = lastYear - firstYear + 1;
+        int[] relativeDateIndexes = new int[numberOfYears];
+        String[] texts = new String[numberOfYears];
+        String[] styles = new String[numberOfYears];
+        boolean[] enabled = new boolean[numberOfYears];
+        boolean[] inDisplayedPeriod = new boolean[numberOfYears];
+        for (int i = 0; i < numberOfYears; i++) {
+            int year = firstYear + i;
+            relativeDateIndexes[i] = year;
+            texts[i] = Integer.toString(year);
+            int style = 0;
+            if (year == currentYear) {
+                style |= 1;
+            }
+            if (selectedDate != null && selectedDate.getYear() == year) {
+                style |= 2;
+            }
+            styles[i] = YEAR_STYLES[style];
+            enabled[i] = !config.isEmptyPeriodsDisabled() || availabilityIndex.getEnabledDays(year) > 0;
+            inDisplayedPeriod[i] = true;
+        }
+        return new CalendarPageModel(Resolution.YEAR, LocalDate.of(firstYear, 1, 1), LocalDate.of(lastYear, 12, 31),
+                relativeDateIndexes, texts, styles, enabled, inDisplayedPeriod, null);
+    }
+
+    /**
+     * @return the first day displayed in the day page of the month, which may belong to the previous month
+     */
+    public LocalDate getCalendarFirstDay(YearMonth yearMonth) {
+        return yearMonth.atDay(1).minusDays(getDayGridShape(yearMonth).getLeadingDays());
+    }
+
+    /**
+     * @return the last day displayed in the day page of the month, which may belong to the next month
+     */
+    public LocalDate getCalendarLastDay(YearMonth yearMonth) {
+        DayGridShape shape = getDayGridShape(yearMonth);
+        return yearMonth.atDay(1).plusDays(shape.getNumberOfDays() - shape.getLeadingDays() - 1);
+    }
+
+    /**
+     * If the year displayed is 1954, the range is 1949-1960.
+     *
+     * @return the first year of the year page displaying the year
+     */
+    public int getCalendarFirstYear(int yearDisplayed) {
+        return yearDisplayed - yearDisplayed % 10 - 1;
+    }
+
+    /**
+     * If the year displayed is 1954, the range is 1949-1960.
+     *
+     * @return the last year of the year page displaying the year
+     */
+    public int getCalendarLastYear(int yearDisplayed) {
+        return yearDisplayed - yearDisplayed % 10 + 10;
+    }
+
+    /**
+     * Returns <code>true</code> if the date is in range, is not a disabled week-end, is not one of the disabled dates
+     * and is not a disabled holiday.
+     *
+     * @param date
+     *            the date
+     * @return <code>true</code> if the date is enabled
+     */
+    public boolean isDateEnabled(LocalDate date) {
+        return isDateInRange(date) && !(isWeekend(date) && config.isWeekendDisabled())
+                && !config.getDisabledDates().contains(date) && !(config.isHolidaysDisabled() && isHoliday(date));
+    }
+
+    /**
+     * Returns the first enabled day after a date. The years and months without any enabled day are skipped with the
+     * {@link AvailabilityIndex}, so that only the days of a month having some enabled days are tested.<br>
+     * The search stops at the end of the range, or at the end of year 9999 if the range is unlimited.
+     *
+     * @param from
+     *            the date (excluded)
+     * @return the first enabled day after the date, <code>null</code> if there is none
+     */
+    public LocalDate findNextEnabledDate(LocalDate from) {
+        return findNextEnabledDate(from, null);
+    }
+
+    /**
+     * Same as {@link #findNextEnabledDate(LocalDate)}, the search also stopping at a limit. As each year searched
+     * costs the count of its enabled days, interactive searches should be limited to a few years.
+     *
+     * @param from
+     *            the date (excluded)
+     * @param limit
+     *            the last date searched (included), <code>null</code> for no limit
+     * @return the first enabled day after the date up to the limit, <code>null</code> if there is none
+     */
+    public LocalDate findNextEnabledDate(LocalDate from, LocalDate limit) {
+        long start = Math.max(from.toEpochDay() + 1, Math.max(config.getRangeStartEpochDay(), MIN_SEARCH_EPOCH_DAY));
+        long end = Math.min(config.getRangeEndEpochDay(), MAX_SEARCH_EPOCH_DAY);
+        if (limit != null) {
+            end = Math.min(end, limit.toEpochDay());
+        }
+        if (start > end) {
+            return null;
+        }
+        LocalDate date = LocalDate.ofEpochDay(start);
+        while (date.toEpochDay() <= end) {
+            if (availabilityIndex.getEnabledDays(date.getYear()) == 0) {
+                date = LocalDate.of(date.getYear() + 1, 1, 1);
+            } else if (availabilityIndex.getEnabledDays(date.getYear(), date.getMonthValue()) == 0) {
+                date = date.withDayOfMonth(1).plusMonths(1);
+            } else if (isDateEnabled(date)) {
+                return date;
+            } else {
+                date = date.plusDays(1);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the last enabled day before a date, see {@link #findNextEnabledDate(LocalDate)}.<br>
+     * The search stops at the start of the range, or at the start of year 1 if the range is unlimited.
+     *
+     * @param from
+     *            the date (excluded)
+     * @return the last enabled day before the date, <code>null</code> if there is none
+     */
+    public LocalDate findPreviousEnabledDate(LocalDate from) {
+        return findPreviousEnabledDate(from, null);
+    }
+
+    /**
+     * Same as {@link #findPreviousEnabledDate(LocalDate)}, the search also stopping at a limit, see
+     * {@link #findNextEnabledDate(LocalDate, LocalDate)}.
+     *
+     * @param from
+     *            the date (excluded)
+     * @param limit
+     *            the first date searched (included), <code>null</code> for no limit
+     * @return the last enabled day before the date down to the limit, <code>null</code> if there is none
+     */
+    public LocalDate findPreviousEnabledDate(LocalDate from, LocalDate limit) {
+        long start = Math.max(config.getRangeStartEpochDay(), MIN_SEARCH_EPOCH_DAY);
+        if (limit != null) {
+            start = Math.max(start, limit.toEpochDay());
+        }
+        long end = Math.min(from.toEpochDay() - 1, Math.min(config.getRangeEndEpochDay(), MAX_SEARCH_EPOCH_DAY));
+        if (start > end) {
+            return null;
+        }
+        LocalDate date = LocalDate.ofEpochDay(end);
+        while (date.toEpochDay() >= start) {
+            if (availabilityIndex.getEnabledDays(date.getYear()) == 0) {
+                date = LocalDate.of(date.getYear() - 1, 12, 31);
+            } else if (availabilityIndex.getEnabledDays(date.getYear(), date.getMonthValue()) == 0) {
+                date = date.withDayOfMonth(1).minusDays(1);
+            } else if (isDateEnabled(date)) {
+                return date;
+            } else {
+                date = date.minusDays(1);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return <code>true</code> if the date is a holiday of the {@link HolidayProvider}
+     */
+    public boolean isHoliday(LocalDate date) {
+        Holidays holidays = config.getHolidays(date.getYear());
+        return holidays != null && holidays.isHoliday(date);
+    }
+
+    /**
+     * @return the name of the holiday, <code>null</code> if the date is not a holiday
+     */
+    public String getHolidayName(LocalDate date) {
+        Holidays holidays = config.getHolidays(date.getYear());
+        return holidays == null ? null : holidays.getName(date);
+    }
+
+    /**
+     * @return <code>true</code> if the date is in the date range
+     */
+    public boolean isDateInRange(LocalDate date) {
+        return isDateInRange(date.toEpochDay());
+    }
+
+    /**
+     * @return <code>true</code> if the epoch day is in the date range
+     */
+    public boolean isDateInRange(long epochDay) {
+        return epochDay >= config.getRangeStartEpochDay() && epochDay <= config.getRangeEndEpochDay();
+    }
+
+    /**
+     * @return <code>true</code> if the date is a week-end
+     */
+    public boolean isWeekend(LocalDate date) {
+        return (config.getWeekendDaysMask() & (1 << (date.getDayOfWeek().getValue() - 1))) != 0;
+    }
+
+    private DayGridShape getDayGridShape(YearMonth yearMonth) {
+        int previousMonthLength = yearMonth.getMonth().minus(1).length(yearMonth.isLeapYear());
+        return DayGridShape.get(yearMonth.atDay(1).getDayOfWeek().getValue(), yearMonth.lengthOfMonth(),
+                previousMonthLength, config.getFirstDayOfWeek(), config.getLastDayOfWeek(),
+                config.isFixedNumberOfDayRows(), weekendColumnMask);
+    }
+
+    /**
+     * @return the index of the date in the day page, -1 if not displayed
+     */
+    private static int getDayIndex(LocalDate date, long calendarFirstEpochDay, int numberOfDays) {
+        if (date == null) {
+            return -1;
+        }
+        long index = date.toEpochDay() - calendarFirstEpochDay;
+        return index >= 0 && index < numberOfDays ? (int) index : -1;
+    }
+
+}
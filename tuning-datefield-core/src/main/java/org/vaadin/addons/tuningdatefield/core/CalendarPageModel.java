@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2013 Frederic Dreyfus
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vaadin.addons.tuningdatefield.core;
+
+import java.time.LocalDate;
+
+/**
+ * The immutable cells of a calendar page built by a {@link CalendarPageEngine}, before any customization.<br>
+ * The relative date index of a cell is :
+ * <ul>
+ * <li>for a day page, the day of month, negative for the days of the previous and next months</li>
+ * <li>for a month page, the month (1-12)</li>
+ * <li>for a year page, the year</li>
+ * </ul>
+ *
+ * @author Frederic.Dreyfus
+ *
+ */
+public final class CalendarPageModel {
+
+    public enum Resolution {
+        DAY, MONTH, YEAR
+    }
+
+    private final Resolution resolution;
+    private final LocalDate firstDate;
+    private final LocalDate lastDate;
+    private final int[] relativeDateIndexes;
+    private final String[] texts;
+    private final String[] styles;
+    private final boolean[] enabled;
+    private final boolean[] inDisplayedPeriod;
+    private final String[] tooltips;
+
+    // The arrays are built by the engine and never exposed
+    CalendarPageModel(Resolution resolution, LocalDate firstDate, LocalDate lastDate, int[] relativeDateIndexes,
+            String[] texts, String[] styles, boolean[] enabled, boolean[] inDisplayedPeriod, String[] tooltips) {
+        this.resolution = resolution;
+        this.firstDate = firstDate;
+        this.lastDate = lastDate;
+        this.relativeDateIndexes = relativeDateIndexes;
+        this.texts = texts;
+        this.styles = styles;
+        this.enabled = enabled;
+        this.inDisplayedPeriod = inDisplayedPeriod;
+        this.tooltips = tooltips;
+    }
+
+    /**
+     * @return the resolution of the page
+     */
+    public Resolution getResolution() {
+        return resolution;
+    }
+
+    /**
+     * @return the first day covered by the page : the day of the first cell, or the first day of its first month or
+     *         year
+     */
+    public LocalDate getFirstDate() {
+        return firstDate;
+    }
+
+    /**
+     * @return the last day covered by the page : the day of the last cell, or the last day of its last month or year
+     */
+    public LocalDate getLastDate() {
+        return lastDate;
+    }
+
+    /**
+     * @return the number of cells of the page
+     */
+    public int getNumberOfCells() {
+        return texts.length;
+    }
+
+    /**
+     * @return the relative date index of the cell
+     */
+    public int getRelativeDateIndex(int index) {
+        return relativeDateIndexes[index];
+    }
+
+    /**
+     * @return the default text of the cell
+     */
+    public String getText(int index) {
+        return texts[index];
+    }
+
+    /**
+     * @return the style of the cell, each style name being followed by a space, empty if the cell has no style
+     */
+    public String getStyle(int index) {
+        return styles[index];
+    }
+
+    /**
+     * @return the default tooltip of the cell, e.g. the name of a holiday. <code>null</code> if none
+     */
+    public String getTooltip(int index) {
+        return tooltips == null ? null : tooltips[index];
+    }
+
+    /**
+     * @return <code>true</code> if the cell is enabled by the range, the week-ends, the disabled dates, the holidays and
+     *         the previous/next month settings
+     */
+    public boolean isEnabled(int index) {
+        return enabled[index];
+    }
+
+    /**
+     * @return <code>false</code> for the days of the previous and next months displayed in a day page, which are
+     *         enabled by {@link CalendarConfig#isPreviousMonthDisabled()} and
+     *         {@link CalendarConfig#isNextMonthDisabled()} rather than by the range and the week-ends
+     */
+    public boolean isInDisplayedPeriod(int index) {
+        return inDisplayedPeriod[index];
+    }
+
+}
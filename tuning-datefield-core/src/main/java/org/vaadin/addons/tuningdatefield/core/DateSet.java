@@ -0,0 +1,452 @@
+/*
+ * Copyright (C) 2013 Frederic Dreyfus
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vaadin.addons.tuningdatefield.core;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * An immutable set of dates, e.g. the disabled days of a calendar.<br>
+ * The long spans are kept as ranges of epoch days, the other days as bitmaps of {@value #CHUNK_DAYS} days covering
+ * the years 1 to 9999. Membership is a bit test, or a binary search among the long spans.
+ *
+ * <pre>
+ * DateSet holidays = DateSet.builder().add(LocalDate.of(2013, 12, 25))
+ *         .addRange(LocalDate.of(2013, 8, 1), LocalDate.of(2013, 8, 31)).build();
+ * </pre>
+ *
+ * @author Frederic.Dreyfus
+ *
+ */
+public final class DateSet implements Serializable {
+
+    private static final long serialVersionUID = 7906512035861632540L;
+
+    /**
+     * The number of days of a bitmap
+     */
+    public static final int CHUNK_DAYS = 512;
+
+    public static final DateSet EMPTY = new DateSet(new long[0], new long[0], 0, new long[0][]);
+
+    private static final int CHUNK_SHIFT = 9;
+    private static final int WORDS_PER_CHUNK = CHUNK_DAYS / 64;
+
+    // Ranges of at least this number of days are kept as ranges
+    private static final int MIN_RUN_LENGTH = 64;
+
+    // The days stored in bitmaps : 0001-01-01 to 9999-12-31
+    private static final long MIN_CHUNK_EPOCH_DAY = -719162;
+    private static final long MAX_CHUNK_EPOCH_DAY = 2932896;
+
+    /**
+     * The long spans, sorted and disjoint, both ends included
+     */
+    private final long[] runStarts;
+    private final long[] runEnds;
+
+    /**
+     * The bitmaps from the chunk of index <code>firstChunk</code>, <code>null</code> for an empty chunk
+     */
+    private final long firstChunk;
+    private final long[][] chunks;
+
+    private final int hashCode;
+
+    private DateSet(long[] runStarts, long[] runEnds, long firstChunk, long[][] chunks) {
+        this.runStarts = runStarts;
+        this.runEnds = runEnds;
+        this.firstChunk = firstChunk;
+        this.chunks = chunks;
+        this.hashCode = 31 * (31 * Arrays.hashCode(runStarts) + Arrays.hashCode(runEnds)) + Long.hashCode(firstChunk)
+                + Arrays.deepHashCode(chunks);
+    }
+
+    /**
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @param dates
+     *            the dates
+     * @return the set of the dates
+     */
+    public static DateSet of(LocalDate... dates) {
+        Builder builder = builder();
+        for (LocalDate date : dates) {
+            builder.add(date);
+        }
+        return builder.build();
+    }
+
+    /**
+     * @param startDate
+     *            the start date (included)
+     * @param endDate
+     *            the end date (included)
+     * @return the set of the dates between the two dates
+     */
+    public static DateSet ofRange(LocalDate startDate, LocalDate endDate) {
+        return builder().addRange(startDate, endDate).build();
+    }
+
+    /**
+     * @return <code>true</code> if the set contains the date
+     */
+    public boolean contains(LocalDate date) {
+        return contains(date.toEpochDay());
+    }
+
+    /**
+     * @return <code>true</code> if the set contains the epoch day
+     */
+    public boolean contains(long epochDay) {
+        long chunkIndex = (epochDay >> CHUNK_SHIFT) - firstChunk;
+        if (chunkIndex >= 0 && chunkIndex < chunks.length) {
+            long[] chunk = chunks[(int) chunkIndex];
+            if (chunk != null && (chunk[(int) (epochDay >> 6) & (WORDS_PER_CHUNK - 1)] & (1L << epochDay)) != 0) {
+                return true;
+            }
+        }
+        if (runStarts.length == 0) {
+            return false;
+        }
+        int run = Arrays.binarySearch(runStarts, epochDay);
+        if (run >= 0) {
+            return true;
+        }
+        run = -run - 2;
+        return run >= 0 && epochDay <= runEnds[run];
+    }
+
+    /**
+     * @return <code>true</code> if the set contains no date
+     */
+    public boolean isEmpty() {
+        return runStarts.length == 0 && chunks.length == 0;
+    }
+
+    /**
+     * @return the number of dates of the set
+     */
+    public long size() {
+        long size = 0;
+        for (int run = 0; run < runStarts.length; run++) {
+            size += runEnds[run] - runStarts[run] + 1;
+        }
+        for (long[] chunk : chunks) {
+            if (chunk != null) {
+                for (long word : chunk) {
+                    size += Long.bitCount(word);
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the dates of the set between two dates, e.g. the dates of a calendar page.
+     *
+     * @param startDate
+     *            the start date (included)
+     * @param endDate
+     *            the end date (included)
+     * @return the dates of this set between the two dates
+     */
+    public DateSet slice(LocalDate startDate, LocalDate endDate) {
+        long start = startDate.toEpochDay();
+        long end = endDate.toEpochDay();
+        if (start > end || isEmpty()) {
+            return EMPTY;
+        }
+
+        // The runs are clipped, a clipped run too short to be a run is moved to the bitmaps
+        long[] slicedRunStarts = new long[runStarts.length];
+        long[] slicedRunEnds = new long[runStarts.length];
+        int runs = 0;
+        long[] shortStarts = new long[2];
+        long[] shortEnds = new long[2];
+        int shorts = 0;
+        int firstRun = Arrays.binarySearch(runStarts, start);
+        firstRun = firstRun >= 0 ? firstRun : Math.max(-firstRun - 2, 0);
+        for (int run = firstRun; run < runStarts.length && runStarts[run] <= end; run++) {
+            long runStart = Math.max(runStarts[run], start);
+            long runEnd = Math.min(runEnds[run], end);
+            if (runStart > runEnd) {
+                continue;
+            }
+            if (Builder.isRun(runStart, runEnd)) {
+                slicedRunStarts[runs] = runStart;
+                slicedRunEnds[runs] = runEnd;
+                runs++;
+            } else {
+                // Only the first and the last runs may be clipped
+                shortStarts[shorts] = runStart;
+                shortEnds[shorts] = runEnd;
+                shorts++;
+            }
+        }
+
+        // The bitmaps of the slice, masked at both ends, and those of the short runs
+        long slicedFirstChunk = Long.MAX_VALUE;
+        long slicedLastChunk = Long.MIN_VALUE;
+        if (chunks.length > 0) {
+            slicedFirstChunk = Math.max(start >> CHUNK_SHIFT, firstChunk);
+            slicedLastChunk = Math.min(end >> CHUNK_SHIFT, firstChunk + chunks.length - 1);
+        }
+        for (int i = 0; i < shorts; i++) {
+            slicedFirstChunk = Math.min(slicedFirstChunk, shortStarts[i] >> CHUNK_SHIFT);
+            slicedLastChunk = Math.max(slicedLastChunk, shortEnds[i] >> CHUNK_SHIFT);
+        }
+        long[][] slicedChunks = new long[slicedFirstChunk > slicedLastChunk ? 0
+                : (int) (slicedLastChunk - slicedFirstChunk + 1)][];
+        for (int i = 0; i < slicedChunks.length; i++) {
+            long chunkIndex = slicedFirstChunk + i - firstChunk;
+            if (chunkIndex >= 0 && chunkIndex < chunks.length && chunks[(int) chunkIndex] != null) {
+                slicedChunks[i] = mask(chunks[(int) chunkIndex], (slicedFirstChunk + i) << CHUNK_SHIFT, start, end);
+            }
+        }
+        for (int i = 0; i < shorts; i++) {
+            for (long epochDay = shortStarts[i]; epochDay <= shortEnds[i]; epochDay++) {
+                int chunkIndex = (int) ((epochDay >> CHUNK_SHIFT) - slicedFirstChunk);
+                long sharedChunkIndex = chunkIndex + slicedFirstChunk - firstChunk;
+                if (slicedChunks[chunkIndex] == null) {
+                    slicedChunks[chunkIndex] = new long[WORDS_PER_CHUNK];
+                } else if (sharedChunkIndex >= 0 && sharedChunkIndex < chunks.length
+                        && slicedChunks[chunkIndex] == chunks[(int) sharedChunkIndex]) {
+                    // The bitmaps of this set are shared, not modified
+                    slicedChunks[chunkIndex] = slicedChunks[chunkIndex].clone();
+                }
+                slicedChunks[chunkIndex][(int) (epochDay >> 6) & (WORDS_PER_CHUNK - 1)] |= 1L << epochDay;
+            }
+        }
+
+        // The first and last bitmaps are not empty, as in a built set
+        int from = 0;
+        int to = slicedChunks.length;
+        while (from < to && slicedChunks[from] == null) {
+            from++;
+        }
+        while (to > from && slicedChunks[to - 1] == null) {
+            to--;
+        }
+        if (runs == 0 && from == to) {
+            return EMPTY;
+        }
+        return new DateSet(Arrays.copyOf(slicedRunStarts, runs), Arrays.copyOf(slicedRunEnds, runs),
+                from == to ? 0 : slicedFirstChunk + from, Arrays.copyOfRange(slicedChunks, from, to));
+    }
+
+    /**
+     * Returns the bitmap restricted to the days between two epoch days.
+     *
+     * @return the bitmap itself if no day is removed, <code>null</code> if no day is left
+     */
+    private static long[] mask(long[] chunk, long chunkFirstEpochDay, long start, long end) {
+        if (start <= chunkFirstEpochDay && end >= chunkFirstEpochDay + CHUNK_DAYS - 1) {
+            return chunk;
+        }
+        long[] masked = new long[WORDS_PER_CHUNK];
+        boolean empty = true;
+        for (int word = 0; word < WORDS_PER_CHUNK; word++) {
+            long wordFirstEpochDay = chunkFirstEpochDay + word * 64;
+            long bits = chunk[word];
+            if (wordFirstEpochDay + 63 < start || wordFirstEpochDay > end) {
+                bits = 0;
+            } else {
+                if (wordFirstEpochDay < start) {
+                    bits &= -1L << (start - wordFirstEpochDay);
+                }
+                if (wordFirstEpochDay + 63 > end) {
+                    bits &= -1L >>> (63 - (end - wordFirstEpochDay));
+                }
+            }
+            masked[word] = bits;
+            empty &= bits == 0;
+        }
+        return empty ? null : masked;
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof DateSet)) {
+            return false;
+        }
+        DateSet other = (DateSet) obj;
+        return hashCode == other.hashCode && firstChunk == other.firstChunk
+                && Arrays.equals(runStarts, other.runStarts) && Arrays.equals(runEnds, other.runEnds)
+                && Arrays.deepEquals(chunks, other.chunks);
+    }
+
+    @Override
+    public String toString() {
+        return "DateSet [size=" + size() + ", ranges=" + runStarts.length + "]";
+    }
+
+    /**
+     * The builder of a {@link DateSet}. Dates and ranges may be added in any order and may overlap.
+     */
+    public static final class Builder {
+
+        private long[] starts = new long[16];
+        private long[] ends = new long[16];
+        private int size;
+
+        private Builder() {
+
+        }
+
+        /**
+         * @param date
+         *            the date to add
+         * @return this builder
+         */
+        public Builder add(LocalDate date) {
+            long epochDay = date.toEpochDay();
+            return addEpochDayRange(epochDay, epochDay);
+        }
+
+        /**
+         * @param startDate
+         *            the start date (included)
+         * @param endDate
+         *            the end date (included)
+         * @return this builder
+         */
+        public Builder addRange(LocalDate startDate, LocalDate endDate) {
+            if (endDate.isBefore(startDate)) {
+                throw new IllegalArgumentException("Cannot have a date range with end date " + endDate
+                        + " before start date " + startDate);
+            }
+            return addEpochDayRange(startDate.toEpochDay(), endDate.toEpochDay());
+        }
+
+        /**
+         * @param dates
+         *            the dates to add
+         * @return this builder
+         */
+        public Builder addAll(DateSet dates) {
+            for (int run = 0; run < dates.runStarts.length; run++) {
+                addEpochDayRange(dates.runStarts[run], dates.runEnds[run]);
+            }
+            for (int chunkIndex = 0; chunkIndex < dates.chunks.length; chunkIndex++) {
+                long[] chunk = dates.chunks[chunkIndex];
+                if (chunk == null) {
+                    continue;
+                }
+                long chunkFirstEpochDay = (dates.firstChunk + chunkIndex) << CHUNK_SHIFT;
+                for (int word = 0; word < WORDS_PER_CHUNK; word++) {
+                    for (long bits = chunk[word]; bits != 0; bits &= bits - 1) {
+                        long epochDay = chunkFirstEpochDay + word * 64 + Long.numberOfTrailingZeros(bits);
+                        addEpochDayRange(epochDay, epochDay);
+                    }
+                }
+            }
+            return this;
+        }
+
+        private Builder addEpochDayRange(long start, long end) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            starts[size] = start;
+            ends[size] = end;
+            size++;
+            return this;
+        }
+
+        /**
+         * @return the set
+         */
+        public DateSet build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+
+            // Sort the starts and the ends separately, the i-th start is then before the i-th end and the union of
+            // the ranges has a gap after the i-th end only if the next start is after it
+            long[] sortedStarts = Arrays.copyOf(starts, size);
+            long[] sortedEnds = Arrays.copyOf(ends, size);
+            Arrays.sort(sortedStarts);
+            Arrays.sort(sortedEnds);
+            long[] mergedStarts = new long[size];
+            long[] mergedEnds = new long[size];
+            int merged = 0;
+            for (int i = 0; i < size; i++) {
+                if (merged > 0 && sortedStarts[i] <= mergedEnds[merged - 1] + 1) {
+                    mergedEnds[merged - 1] = sortedEnds[i];
+                } else {
+                    mergedStarts[merged] = sortedStarts[i];
+                    mergedEnds[merged] = sortedEnds[i];
+                    merged++;
+                }
+            }
+
+            // The long spans and the days out of the bitmaps are kept as ranges
+            long[] runStarts = new long[merged];
+            long[] runEnds = new long[merged];
+            int runs = 0;
+            long firstChunk = Long.MAX_VALUE;
+            long lastChunk = Long.MIN_VALUE;
+            for (int i = 0; i < merged; i++) {
+                if (isRun(mergedStarts[i], mergedEnds[i])) {
+                    runStarts[runs] = mergedStarts[i];
+                    runEnds[runs] = mergedEnds[i];
+                    runs++;
+                } else {
+                    firstChunk = Math.min(firstChunk, mergedStarts[i] >> CHUNK_SHIFT);
+                    lastChunk = Math.max(lastChunk, mergedEnds[i] >> CHUNK_SHIFT);
+                }
+            }
+
+            long[][] chunks = new long[runs == merged ? 0 : (int) (lastChunk - firstChunk + 1)][];
+            for (int i = 0; i < merged; i++) {
+                if (isRun(mergedStarts[i], mergedEnds[i])) {
+                    continue;
+                }
+                for (long epochDay = mergedStarts[i]; epochDay <= mergedEnds[i]; epochDay++) {
+                    int chunkIndex = (int) ((epochDay >> CHUNK_SHIFT) - firstChunk);
+                    if (chunks[chunkIndex] == null) {
+                        chunks[chunkIndex] = new long[WORDS_PER_CHUNK];
+                    }
+                    chunks[chunkIndex][(int) (epochDay >> 6) & (WORDS_PER_CHUNK - 1)] |= 1L << epochDay;
+                }
+            }
+            return new DateSet(Arrays.copyOf(runStarts, runs), Arrays.copyOf(runEnds, runs),
+                    chunks.length == 0 ? 0 : firstChunk, chunks);
+        }
+
+        private static boolean isRun(long start, long end) {
+            return end - start + 1 >= MIN_RUN_LENGTH || start < MIN_CHUNK_EPOCH_DAY || end > MAX_CHUNK_EPOCH_DAY;
+        }
+    }
+
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2013 Frederic Dreyfus
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vaadin.addons.tuningdatefield.core;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The immutable shape of a day calendar page : number of days displayed from the previous and the next month, day of
+ * month of each cell, and base style of each cell.<br>
+ * A month page only depends on the weekday of the first day of month, the length of the month and of the previous
+ * month, the first and last day of week, the fixed number of rows flag and the weekend columns. There are only a few
+ * hundred different shapes, which are computed once and shared by all engines of the JVM.
+ *
+ * @author Frederic.Dreyfus
+ *
+ */
+final class DayGridShape {
+
+    static final int PREVIOUS_MONTH = 0;
+    static final int CURRENT_MONTH = 1;
+    static final int NEXT_MONTH = 2;
+
+    private static final int TODAY = 1;
+    private static final int SELECTED = 2;
+    private static final int WEEKEND = 4;
+    private static final int MONTH_PART_SHIFT = 3;
+
+    private static final String[] MONTH_PART_STYLES = { "previousmonth ", "currentmonth ", "nextmonth " };
+
+    /**
+     * All the possible styles of a day cell, in the same order as they have always been appended.
+     */
+    private static final String[] STYLES = new String[3 << MONTH_PART_SHIFT];
+
+    private static final String[] DAY_OF_MONTH_TEXTS = new String[32];
+
+    private static final ConcurrentMap<Integer, DayGridShape> SHAPES = new ConcurrentHashMap<>();
+
+    static {
+        for (int monthPart = PREVIOUS_MONTH; monthPart <= NEXT_MONTH; monthPart++) {
+            for (int flags = 0; flags < (1 << MONTH_PART_SHIFT); flags++) {
+                StringBuilder style = new StringBuilder();
+                if ((flags & TODAY) != 0) {
+                    style.append("today ");
+                }
+                if ((flags & SELECTED) != 0) {
+                    style.append("selected ");
+                }
+                style.append(MONTH_PART_STYLES[monthPart]);
+                if ((flags & WEEKEND) != 0) {
+                    style.append("weekend ");
+                }
+                STYLES[(monthPart << MONTH_PART_SHIFT) | flags] = style.toString().intern();
+            }
+        }
+        for (int dayOfMonth = 1; dayOfMonth < DAY_OF_MONTH_TEXTS.length; dayOfMonth++) {
+            DAY_OF_MONTH_TEXTS[dayOfMonth] = Integer.toString(dayOfMonth).intern();
+        }
+    }
+
+    private final int leadingDays;
+    private final int numberOfDays;
+    private final int[] relativeDateIndexes;
+    private final byte[] cellStyles;
+
+    private DayGridShape(int leadingDays, int monthLength, int previousMonthLength, int trailingDays,
+            int weekendColumnMask) {
+        this.leadingDays = leadingDays;
+        this.numberOfDays = leadingDays + monthLength + trailingDays;
+        this.relativeDateIndexes = new int[numberOfDays];
+        this.cellStyles = new byte[numberOfDays];
+
+        for (int i = 0; i < numberOfDays; i++) {
+            int monthPart;
+            if (i < leadingDays) {
+                monthPart = PREVIOUS_MONTH;
+                relativeDateIndexes[i] = -(previousMonthLength - leadingDays + i + 1);
+            } else if (i < leadingDays + monthLength) {
+                monthPart = CURRENT_MONTH;
+                relativeDateIndexes[i] = i - leadingDays + 1;
+            } else {
+                monthPart = NEXT_MONTH;
+                relativeDateIndexes[i] = -(i - leadingDays - monthLength + 1);
+            }
+            int style = monthPart << MONTH_PART_SHIFT;
+            if ((weekendColumnMask & (1 << (i % 7))) != 0) {
+                style |= WEEKEND;
+            }
+            cellStyles[i] = (byte) style;
+        }
+    }
+
+    /**
+     * Returns the shape of a month page.
+     *
+     * @param firstDayOfMonthDayOfWeek
+     *            the day of week of the first day of month (1=Monday,...,7=Sunday)
+     * @param monthLength
+     *            the length of the month
+     * @param previousMonthLength
+     *            the length of the previous month
+     * @param firstDayOfWeek
+     *            the first day of week (1=Monday,...,7=Sunday)
+     * @param lastDayOfWeek
+     *            the last day of week (1=Monday,...,7=Sunday)
+     * @param fixedNumberOfRows
+     *            <code>true</code> to always display 6 rows
+     * @param weekendColumnMask
+     *            the weekend columns, bit <code>n</code> being set if the column <code>n</code> is a weekend day
+     * @return the shared shape
+     */
+    static DayGridShape get(int firstDayOfMonthDayOfWeek, int monthLength, int previousMonthLength,
+            int firstDayOfWeek, int lastDayOfWeek, boolean fixedNumberOfRows, int weekendColumnMask) {
+        int leadingDays = (firstDayOfMonthDayOfWeek - firstDayOfWeek + 7) % 7;
+        int lastDayOfMonthDayOfWeek = (firstDayOfMonthDayOfWeek + monthLength - 2) % 7 + 1;
+        int trailingDays = (lastDayOfWeek - lastDayOfMonthDayOfWeek + 7) % 7;
+        if (fixedNumberOfRows) {
+            // Always display 6 day rows
+            int numberOfRows = (leadingDays + monthLength + trailingDays) / 7;
+            if (numberOfRows < 5) {
+                trailingDays += 14;
+            } else if (numberOfRows < 6) {
+                trailingDays += 7;
+            }
+        }
+
+        // 3 bits of leading days, 2+2 bits of month lengths, 5 bits of trailing days and 7 bits of weekend columns
+        int key = leadingDays | (monthLength - 28) << 3 | (previousMonthLength - 28) << 5 | trailingDays << 7
+                | (weekendColumnMask & 0x7F) << 12;
+        DayGridShape shape = SHAPES.get(key);
+        if (shape == null) {
+            // Shapes are immutable, concurrent initializations are harmless
+            shape = new DayGridShape(leadingDays, monthLength, previousMonthLength, trailingDays, weekendColumnMask);
+            SHAPES.putIfAbsent(key, shape);
+        }
+        return shape;
+    }
+
+    /**
+     * @return the number of days of the previous month displayed before the first day of month
+     */
+    int getLeadingDays() {
+        return leadingDays;
+    }
+
+    /**
+     * @return the number of cells of the page
+     */
+    int getNumberOfDays() {
+        return numberOfDays;
+    }
+
+    /**
+     * @return the day of month of the cell, negative if not in the current month
+     */
+    int getRelativeDateIndex(int index) {
+        return relativeDateIndexes[index];
+    }
+
+    /**
+     * @return the default text of the cell
+     */
+    String getText(int index) {
+        return DAY_OF_MONTH_TEXTS[Math.abs(relativeDateIndexes[index])];
+    }
+
+    /**
+     * @return {@link #PREVIOUS_MONTH}, {@link #CURRENT_MONTH} or {@link #NEXT_MONTH}
+     */
+    int getMonthPart(int index) {
+        return cellStyles[index] >> MONTH_PART_SHIFT;
+    }
+
+    /**
+     * @return <code>true</code> if the cell is in a weekend column
+     */
+    boolean isWeekend(int index) {
+        return (cellStyles[index] & WEEKEND) != 0;
+    }
+
+    /**
+     * @return the shared style of the cell
+     */
+    String getStyle(int index, boolean today, boolean selected) {
+        int style = cellStyles[index];
+        if (today) {
+            style |= TODAY;
+        }
+        if (selected) {
+            style |= SELECTED;
+        }
+        return STYLES[style];
+    }
+
+}
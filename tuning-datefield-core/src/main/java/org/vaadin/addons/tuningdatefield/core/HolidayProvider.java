@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2013 Frederic Dreyfus
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vaadin.addons.tuningdatefield.core;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A source of public holidays, e.g. a bridge to a holiday library or a table of the database.<br>
+ * The holidays of a year are requested once per provider, region and locale for the whole JVM : the result is kept as
+ * an immutable {@link Holidays} bitmap shared by all the calendars, until it is evicted from the bounded cache. The
+ * providers are compared with <code>equals</code>, so a provider should be a shared instance or implement
+ * <code>equals</code>.
+ *
+ * <pre>
+ * public class JollydayHolidayProvider implements HolidayProvider {
+ * 
+ *     &#064;Override
+ *     public Map&lt;LocalDate, String&gt; getHolidays(String region, int year, Locale locale) {
+ *         Map&lt;LocalDate, String&gt; holidays = new HashMap&lt;&gt;();
+ *         for (Holiday holiday : HolidayManager.getInstance(region).getHolidays(year)) {
+ *             LocalDate date = holiday.getDate();
+ *             holidays.put(LocalDate.of(date.getYear(), date.getMonthOfYear(), date.getDayOfMonth()),
+ *                     holiday.getDescription(locale));
+ *         }
+ *         return holidays;
+ *     }
+ * }
+ * </pre>
+ *
+ * @author Frederic.Dreyfus
+ *
+ * @see Holidays#get(HolidayProvider, String, int, Locale)
+ */
+@FunctionalInterface
+public interface HolidayProvider extends Serializable {
+
+    /**
+     * Returns the holidays of a year.
+     *
+     * @param region
+     *            the region, e.g. a country code. Its meaning is left to the provider
+     * @param year
+     *            the year
+     * @param locale
+     *            the locale of the holiday names
+     * @return the holiday names by date. The dates outside of the year are ignored
+     */
+    public Map<LocalDate, String> getHolidays(String region, int year, Locale locale);
+
+}
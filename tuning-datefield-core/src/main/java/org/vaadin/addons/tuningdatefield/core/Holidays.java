@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2013 Frederic Dreyfus
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vaadin.addons.tuningdatefield.core;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The immutable holidays of a year : a bitmap of the days of the year and the names of the holidays.<br>
+ * The holidays are computed once per {@link HolidayProvider}, region, year and locale, and shared by all the calendars
+ * of the JVM. At most {@value #MAX_CACHE_SIZE} years are kept, arbitrary years are evicted beyond.
+ *
+ * @author Frederic.Dreyfus
+ *
+ */
+public final class Holidays {
+
+    /**
+     * The maximum number of years kept, all providers, regions and locales included
+     */
+    public static final int MAX_CACHE_SIZE = 1024;
+
+    private static final ConcurrentMap<Key, Holidays> CACHE = new ConcurrentHashMap<>();
+
+    private final int year;
+    private final long firstEpochDay;
+    private final int lengthOfYear;
+
+    // Bit n is set if the day n of the year (starting at 0) is a holiday
+    private final long[] bits = new long[6];
+
+    // The names in the order of the days, the name of a holiday is at the rank of its bit
+    private final String[] names;
+
+    private Holidays(int year, Map<LocalDate, String> holidays) {
+        this.year = year;
+        LocalDate firstDayOfYear = LocalDate.of(year, 1, 1);
+        this.firstEpochDay = firstDayOfYear.toEpochDay();
+        this.lengthOfYear = firstDayOfYear.lengthOfYear();
+
+        TreeMap<LocalDate, String> sortedHolidays = new TreeMap<>();
+        if (holidays != null) {
+            for (Map.Entry<LocalDate, String> holiday : holidays.entrySet()) {
+                if (holiday.getKey().getYear() == year) {
+                    sortedHolidays.put(holiday.getKey(), holiday.getValue());
+                }
+            }
+        }
+        this.names = new String[sortedHolidays.size()];
+        int rank = 0;
+        for (Map.Entry<LocalDate, String> holiday : sortedHolidays.entrySet()) {
+            int dayOfYear = holiday.getKey().getDayOfYear() - 1;
+            bits[dayOfYear >> 6] |= 1L << dayOfYear;
+            names[rank++] = holiday.getValue();
+        }
+    }
+
+    /**
+     * Returns the holidays of a year, computed by the provider on the first call only.
+     *
+     * @param provider
+     *            the provider
+     * @param region
+     *            the region
+     * @param year
+     *            the year
+     * @param locale
+     *            the locale of the holiday names
+     * @return the holidays
+     */
+    public static Holidays get(HolidayProvider provider, String region, int year, Locale locale) {
+        Key key = new Key(provider, region, year, locale);
+        Holidays holidays = CACHE.get(key);
+        if (holidays != null) {
+            return holidays;
+        }
+
+        // The provider is called outside of the map, concurrent calls for the same year are harmless
+        holidays = new Holidays(year, provider.getHolidays(region, year, locale));
+        Holidays cached = CACHE.putIfAbsent(key, holidays);
+        if (cached != null) {
+            return cached;
+        }
+        Iterator<Key> keys = CACHE.keySet().iterator();
+        while (CACHE.size() > MAX_CACHE_SIZE && keys.hasNext()) {
+            if (!keys.next().equals(key)) {
+                keys.remove();
+            }
+        }
+        return holidays;
+    }
+
+    /**
+     * Forgets the holidays of a provider, e.g. when the holidays of the database have changed. The calendars keep
+     * their pages and business days until they are refreshed.
+     *
+     * @param provider
+     *            the provider
+     */
+    public static void evict(HolidayProvider provider) {
+        CACHE.keySet().removeIf(key -> key.provider.equals(provider));
+        BusinessDayCalculator.evict(provider);
+    }
+
+    /**
+     * @return the year
+     */
+    public int getYear() {
+        return year;
+    }
+
+    /**
+     * @return the number of holidays
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * @return <code>true</code> if the date is a holiday of this year
+     */
+    public boolean isHoliday(LocalDate date) {
+        return isHoliday(date.toEpochDay());
+    }
+
+    /**
+     * @return <code>true</code> if the epoch day is a holiday of this year
+     */
+    public boolean isHoliday(long epochDay) {
+        long dayOfYear = epochDay - firstEpochDay;
+        return dayOfYear >= 0 && dayOfYear < lengthOfYear && (bits[(int) dayOfYear >> 6] & (1L << dayOfYear)) != 0;
+    }
+
+    /**
+     * @return the name of the holiday, <code>null</code> if the date is not a holiday of this year
+     */
+    public String getName(LocalDate date) {
+        return getName(date.toEpochDay());
+    }
+
+    /**
+     * @return the name of the holiday, <code>null</code> if the epoch day is not a holiday of this year
+     */
+    public String getName(long epochDay) {
+        if (!isHoliday(epochDay)) {
+            return null;
+        }
+        int dayOfYear = (int) (epochDay - firstEpochDay);
+        int word = dayOfYear >> 6;
+        int rank = Long.bitCount(bits[word] & ((1L << dayOfYear) - 1));
+        for (int i = 0; i < word; i++) {
+            rank += Long.bitCount(bits[i]);
+        }
+        return names[rank];
+    }
+
+    @Override
+    public String toString() {
+        return "Holidays [year=" + year + ", size=" + names.length + "]";
+    }
+
+    private static final class Key {
+
+        private final HolidayProvider provider;
+        private final String region;
+        private final int year;
+        private final Locale locale;
+
+        private Key(HolidayProvider provider, String region, int year, Locale locale) {
+            this.provider = provider;
+            this.region = region;
+            this.year = year;
+            this.locale = locale;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(provider, region, year, locale);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return provider.equals(other.provider) && Objects.equals(region, other.region) && year == other.year
+                    && Objects.equals(locale, other.locale);
+        }
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2013 Frederic Dreyfus
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vaadin.addons.tuningdatefield.core;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import org.junit.Test;
+
+/**
+ * @author Frederic.Dreyfus
+ *
+ */
+public class AvailabilityIndexTest {
+
+    private static int countEnabledDays(CalendarPageEngine engine, YearMonth yearMonth) {
+        int count = 0;
+        for (int day = 1; day <= yearMonth.lengthOfMonth(); day++) {
+            if (engine.isDateEnabled(yearMonth.atDay(day))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void assertEnabledDays(CalendarPageEngine engine, int firstYear, int lastYear) {
+        AvailabilityIndex index = engine.getAvailabilityIndex();
+        for (int year = firstYear; year <= lastYear; year++) {
+            int yearCount = 0;
+            for (int month = 1; month <= 12; month++) {
+                int count = countEnabledDays(engine, YearMonth.of(year, month));
+                assertEquals(year + "-" + month, count, index.getEnabledDays(year, month));
+                assertEquals(year + "-" + month, count, index.getEnabledDays(YearMonth.of(year, month)));
+                yearCount += count;
+            }
+            assertEquals(Integer.toString(year), yearCount, index.getEnabledDays(year));
+        }
+    }
+
+    @Test
+    public void testRangeInsideMonths() {
+        // The range starts and ends in the middle of a month, on a week-end and on a disabled date
+        CalendarPageEngine engine = new CalendarPageEngine(CalendarConfig.builder()
+                .withDateRange(LocalDate.of(2013, 5, 18), LocalDate.of(2015, 2, 3))
+                .withDisabledDates(DateSet.of(LocalDate.of(2015, 2, 3), LocalDate.of(2014, 1, 1))).build());
+        assertEnabledDays(engine, 2012, 2016);
+
+        AvailabilityIndex index = engine.getAvailabilityIndex();
+        assertEquals(0, index.getEnabledDays(2013, 4));
+        assertEquals(10, index.getEnabledDays(2013, 5));
+        assertEquals(1, index.getEnabledDays(2015, 2));
+        assertEquals(0, index.getEnabledDays(2015, 3));
+    }
+
+    @Test
+    public void testRangeOnMonthAndYearBoundaries() {
+        CalendarPageEngine engine = new CalendarPageEngine(CalendarConfig.builder().withWeekendDisabled(false)
+                .withDateRange(LocalDate.of(2013, 1, 1), LocalDate.of(2013, 12, 31)).build());
+        assertEnabledDays(engine, 2012, 2014);
+
+        AvailabilityIndex index = engine.getAvailabilityIndex();
+        assertEquals(0, index.getEnabledDays(2012));
+        assertEquals(31, index.getEnabledDays(2013, 1));
+        assertEquals(31, index.getEnabledDays(2013, 12));
+        assertEquals(365, index.getEnabledDays(2013));
+        assertEquals(0, index.getEnabledDays(2014));
+    }
+
+    @Test
+    public void testSingleDayRange() {
+        LocalDate date = LocalDate.of(2016, 2, 29);
+        CalendarPageEngine engine = new CalendarPageEngine(CalendarConfig.builder().withDateRange(date, date)
+                .build());
+        assertEnabledDays(engine, 2016, 2016);
+
+        AvailabilityIndex index = engine.getAvailabilityIndex();
+        assertEquals(1, index.getEnabledDays(2016, 2));
+        assertEquals(1, index.getEnabledDays(2016));
+    }
+
+    @Test
+    public void testUnlimitedRange() {
+        CalendarPageEngine engine = new CalendarPageEngine(CalendarConfig.builder().build());
+        assertEnabledDays(engine, 1969, 1970);
+        assertEnabledDays(engine, 1, 1);
+        assertEnabledDays(engine, 9999, 9999);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMonth() {
+        new CalendarPageEngine(CalendarConfig.builder().build()).getAvailabilityIndex().getEnabledDays(2013, 13);
+    }
+
+}
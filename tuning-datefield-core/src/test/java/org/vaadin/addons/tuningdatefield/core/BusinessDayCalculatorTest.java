@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2013 Frederic Dreyfus
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vaadin.addons.tuningdatefield.core;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+import org.junit.Test;
+
+/**
+ * @author Frederic.Dreyfus
+ *
+ */
+public class BusinessDayCalculatorTest {
+
+    private static final int[] BUSINESS_DAYS = { 1, 2, 5, 63, 64, 65, 300, 366, 600, 1500 };
+
+    // Disabled dates across the boundary of the blocks of 1970-01-01 and of 2013-05-01
+    private static final DateSet DISABLED_DATES = DateSet.builder()
+            .addRange(LocalDate.of(1969, 12, 20), LocalDate.of(1970, 1, 5))
+            .addRange(LocalDate.ofEpochDay(31 * 512 - 10), LocalDate.ofEpochDay(31 * 512 + 100))
+            .add(LocalDate.of(2013, 5, 8)).build();
+
+    private final BusinessDayCalculator calculator = new BusinessDayCalculator(CalendarConfig.builder()
+            .withDisabledDates(DISABLED_DATES).build());
+
+    private static boolean isBusinessDay(LocalDate date) {
+        return date.getDayOfWeek() != DayOfWeek.SATURDAY && date.getDayOfWeek() != DayOfWeek.SUNDAY
+                && !DISABLED_DATES.contains(date);
+    }
+
+    private static LocalDate addBusinessDays(LocalDate date, int businessDays) {
+        int step = businessDays > 0 ? 1 : -1;
+        for (int i = 0; i != businessDays;) {
+            date = date.plusDays(step);
+            if (isBusinessDay(date)) {
+                i += step;
+            }
+        }
+        return date;
+    }
+
+    private static long businessDaysBetween(LocalDate startDate, LocalDate endDate) {
+        long count = 0;
+        for (LocalDate date = startDate; date.isBefore(endDate); date = date.plusDays(1)) {
+            if (isBusinessDay(date)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return days around block boundaries, before and after 1970-01-01
+     */
+    private static LocalDate[] getStartDates() {
+        long[] blockIndexes = { -3, -1, 0, 1, 31, 32 };
+        LocalDate[] dates = new LocalDate[blockIndexes.length * 4];
+        int i = 0;
+        for (long blockIndex : blockIndexes) {
+            long blockFirstEpochDay = blockIndex * BusinessDayCalculator.BLOCK_DAYS;
+            dates[i++] = LocalDate.ofEpochDay(blockFirstEpochDay - 1);
+            dates[i++] = LocalDate.ofEpochDay(blockFirstEpochDay);
+            dates[i++] = LocalDate.ofEpochDay(blockFirstEpochDay + 1);
+            dates[i++] = LocalDate.ofEpochDay(blockFirstEpochDay + 64);
+        }
+        return dates;
+    }
+
+    @Test
+    public void testIsBusinessDay() {
+        for (LocalDate date = LocalDate.of(1969, 11, 1); date.isBefore(LocalDate.of(1970, 3, 1)); date = date
+                .plusDays(1)) {
+            assertEquals(date.toString(), isBusinessDay(date), calculator.isBusinessDay(date));
+        }
+    }
+
+    @Test
+    public void testAddBusinessDaysForward() {
+        for (LocalDate date : getStartDates()) {
+            for (int businessDays : BUSINESS_DAYS) {
+                assertEquals(date + " + " + businessDays, addBusinessDays(date, businessDays),
+                        calculator.addBusinessDays(date, businessDays));
+            }
+        }
+    }
+
+    @Test
+    public void testAddBusinessDaysBackward() {
+        for (LocalDate date : getStartDates()) {
+            for (int businessDays : BUSINESS_DAYS) {
+                assertEquals(date + " - " + businessDays, addBusinessDays(date, -businessDays),
+                        calculator.addBusinessDays(date, -businessDays));
+            }
+        }
+    }
+
+    @Test
+    public void testAddZeroBusinessDays() {
+        LocalDate saturday = LocalDate.of(2013, 5, 4);
+        assertEquals(saturday, calculator.addBusinessDays(saturday, 0));
+        assertEquals(LocalDate.of(2013, 5, 6), calculator.nextBusinessDay(saturday));
+        assertEquals(LocalDate.of(2013, 5, 3), calculator.previousBusinessDay(saturday));
+    }
+
+    @Test
+    public void testBusinessDaysBetween() {
+        for (LocalDate startDate : getStartDates()) {
+            for (LocalDate endDate : getStartDates()) {
+                long expected = startDate.isAfter(endDate) ? -businessDaysBetween(endDate, startDate)
+                        : businessDaysBetween(startDate, endDate);
+                assertEquals(startDate + " to " + endDate, expected,
+                        calculator.businessDaysBetween(startDate, endDate));
+            }
+        }
+    }
+
+    @Test
+    public void testBatch() {
+        LocalDate[] dates = getStartDates();
+        long[] epochDays = new long[dates.length];
+        long[] endEpochDays = new long[dates.length];
+        for (int i = 0; i < dates.length; i++) {
+            epochDays[i] = dates[i].toEpochDay();
+            endEpochDays[i] = epochDays[i] + 1000;
+        }
+        long[] results = calculator.addBusinessDays(epochDays, -65);
+        long[] counts = calculator.businessDaysBetween(epochDays, endEpochDays);
+        for (int i = 0; i < dates.length; i++) {
+            assertEquals(addBusinessDays(dates[i], -65).toEpochDay(), results[i]);
+            assertEquals(businessDaysBetween(dates[i], dates[i].plusDays(1000)), counts[i]);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNotEnoughBusinessDaysForward() {
+        calculator.addBusinessDays(LocalDate.of(9999, 12, 20), 10);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNotEnoughBusinessDaysBackward() {
+        calculator.addBusinessDays(LocalDate.of(1, 1, 10), -10);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNoBusinessDays() {
+        new BusinessDayCalculator(CalendarConfig.builder().withWeekendDaysMask(0x7F).build()).addBusinessDays(
+                LocalDate.of(2013, 5, 1), 1);
+    }
+
+}
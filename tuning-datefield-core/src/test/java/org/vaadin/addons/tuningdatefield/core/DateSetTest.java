@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2013 Frederic Dreyfus
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vaadin.addons.tuningdatefield.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+
+import org.junit.Test;
+
+/**
+ * @author Frederic.Dreyfus
+ *
+ */
+public class DateSetTest {
+
+    private static LocalDate day(long epochDay) {
+        return LocalDate.ofEpochDay(epochDay);
+    }
+
+    @Test
+    public void testContainsAcrossChunkBoundaries() {
+        long chunk = DateSet.CHUNK_DAYS;
+        DateSet dates = DateSet.of(day(chunk - 1), day(chunk), day(3 * chunk - 1), day(3 * chunk));
+
+        assertFalse(dates.contains(chunk - 2));
+        assertTrue(dates.contains(chunk - 1));
+        assertTrue(dates.contains(chunk));
+        assertFalse(dates.contains(chunk + 1));
+        assertFalse(dates.contains(2 * chunk));
+        assertTrue(dates.contains(3 * chunk - 1));
+        assertTrue(dates.contains(3 * chunk));
+        assertFalse(dates.contains(3 * chunk + 1));
+        assertEquals(4, dates.size());
+    }
+
+    @Test
+    public void testContainsAcrossRunBoundaries() {
+        // A run across a chunk boundary and a single date right after it
+        LocalDate runStart = day(DateSet.CHUNK_DAYS - 50);
+        LocalDate runEnd = day(DateSet.CHUNK_DAYS + 49);
+        DateSet dates = DateSet.builder().addRange(runStart, runEnd).add(runEnd.plusDays(2)).build();
+
+        assertFalse(dates.contains(runStart.minusDays(1)));
+        assertTrue(dates.contains(runStart));
+        assertTrue(dates.contains(day(DateSet.CHUNK_DAYS - 1)));
+        assertTrue(dates.contains(day(DateSet.CHUNK_DAYS)));
+        assertTrue(dates.contains(runEnd));
+        assertFalse(dates.contains(runEnd.plusDays(1)));
+        assertTrue(dates.contains(runEnd.plusDays(2)));
+        assertFalse(dates.contains(runEnd.plusDays(3)));
+        assertEquals(101, dates.size());
+    }
+
+    @Test
+    public void testOverlappingRanges() {
+        LocalDate start = LocalDate.of(2013, 5, 1);
+        DateSet dates = DateSet.builder().addRange(start.plusDays(100), start.plusDays(200))
+                .addRange(start, start.plusDays(150)).add(start.plusDays(201)).build();
+
+        assertEquals(DateSet.ofRange(start, start.plusDays(201)), dates);
+        assertEquals(202, dates.size());
+    }
+
+    @Test
+    public void testNegativeEpochDays() {
+        LocalDate start = LocalDate.of(1969, 12, 1);
+        LocalDate end = LocalDate.of(1970, 1, 10);
+        DateSet dates = DateSet.builder().addRange(start, end).add(LocalDate.of(1900, 2, 28))
+                .add(day(-DateSet.CHUNK_DAYS)).add(day(-DateSet.CHUNK_DAYS - 1)).build();
+
+        assertTrue(dates.contains(start));
+        assertTrue(dates.contains(-1));
+        assertTrue(dates.contains(0));
+        assertTrue(dates.contains(end));
+        assertFalse(dates.contains(start.minusDays(1)));
+        assertFalse(dates.contains(end.plusDays(1)));
+        assertTrue(dates.contains(LocalDate.of(1900, 2, 28)));
+        assertFalse(dates.contains(LocalDate.of(1900, 3, 1)));
+        assertTrue(dates.contains(-DateSet.CHUNK_DAYS));
+        assertTrue(dates.contains(-DateSet.CHUNK_DAYS - 1));
+        assertFalse(dates.contains(-DateSet.CHUNK_DAYS + 1));
+        assertFalse(dates.contains(-DateSet.CHUNK_DAYS - 2));
+        assertEquals(41 + 3, dates.size());
+    }
+
+    @Test
+    public void testSlice() {
+        LocalDate start = LocalDate.of(1969, 10, 1);
+        DateSet.Builder builder = DateSet.builder().addRange(start, start.plusDays(199));
+        for (int i = 250; i < 1500; i += 3) {
+            builder.add(start.plusDays(i));
+        }
+        DateSet dates = builder.build();
+
+        // Slices clipping the run, across chunk boundaries and around 1970-01-01
+        int[][] slices = { { 0, 199 }, { -10, 10 }, { 150, 300 }, { 190, 210 }, { 195, 1000 }, { 251, 251 },
+                { 252, 253 }, { 400, 2000 }, { -100, -1 }, { 1500, 1600 } };
+        for (int[] slice : slices) {
+            LocalDate sliceStart = start.plusDays(slice[0]);
+            LocalDate sliceEnd = start.plusDays(slice[1]);
+            DateSet sliced = dates.slice(sliceStart, sliceEnd);
+
+            DateSet.Builder expected = DateSet.builder();
+            for (LocalDate date = sliceStart.minusDays(5); !date.isAfter(sliceEnd.plusDays(5)); date = date
+                    .plusDays(1)) {
+                boolean inSlice = !date.isBefore(sliceStart) && !date.isAfter(sliceEnd);
+                assertEquals(date.toString(), inSlice && dates.contains(date), sliced.contains(date));
+                if (inSlice && dates.contains(date)) {
+                    expected.add(date);
+                }
+            }
+            assertEquals(expected.build(), sliced);
+        }
+    }
+
+    @Test
+    public void testEmptySlice() {
+        LocalDate date = LocalDate.of(2013, 5, 1);
+        DateSet dates = DateSet.ofRange(date, date.plusDays(100));
+
+        assertSame(DateSet.EMPTY, dates.slice(date.plusDays(1), date));
+        assertTrue(dates.slice(date.minusDays(10), date.minusDays(1)).isEmpty());
+        assertTrue(dates.slice(date.plusDays(101), date.plusDays(200)).isEmpty());
+        assertTrue(DateSet.EMPTY.slice(date, date.plusDays(100)).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRange() {
+        DateSet.ofRange(LocalDate.of(2013, 5, 2), LocalDate.of(2013, 5, 1));
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2013 Frederic Dreyfus
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vaadin.addons.tuningdatefield;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import org.vaadin.addons.tuningdatefield.widgetset.client.ui.calendar.CalendarResolution;
+
+/**
+ * An interface that allows to customize all the calendar cell items of a {@link TuningDateField} page in a single
+ * call.<br>
+ * Unlike the {@link CellItemCustomizer} which is called several times per cell, the batch customizer receives the whole
+ * range displayed by the calendar so that its data can be loaded at once (e.g. with a single backend query).<br>
+ * The returned array holds the decoration of each cell in order, index <code>0</code> being the decoration of
+ * <code>from</code>. A <code>null</code> array or a <code>null</code> element means the cell is not customized.<br>
+ * Existing {@link CellItemCustomizer} implementations are bridged by {@link CellItemCustomizerAdapter}.<br>
+ * When the field has a {@link TuningDateField#setCalendarItemsExecutor(java.util.concurrent.Executor) calendar items
+ * executor}, the customizer is called from the executor threads without the session lock : it must then not call the
+ * <code>tuningDateField</code> argument, whose state may be changed concurrently, and only use its own data.
+ *
+ * @author Frederic.Dreyfus
+ *
+ * @see CellItemDecoration
+ * @see CellItemCustomizerAdapter#toBatchCellItemCustomizer(CellItemCustomizer)
+ */
+public interface BatchCellItemCustomizer extends Serializable {
+
+    /**
+     * Returns the decorations of the cells from <code>from</code> to <code>to</code> (both included) in the
+     * {@link CalendarResolution#DAY} calendar resolution.
+     *
+     * @param from
+     *            the first date displayed
+     * @param to
+     *            the last date displayed
+     * @param tuningDateField
+     *            the {@link TuningDateField}
+     * @return the decorations of the cells, one per day.
+     */
+    public CellItemDecoration[] decorate(LocalDate from, LocalDate to, TuningDateField tuningDateField);
+
+    /**
+     * Returns the decorations of the cells from <code>from</code> to <code>to</code> (both included) in the
+     * {@link CalendarResolution#MONTH} calendar resolution.
+     *
+     * @param from
+     *            the first month displayed
+     * @param to
+     *            the last month displayed
+     * @param tuningDateField
+     *            the {@link TuningDateField}
+     * @return the decorations of the cells, one per month.
+     */
+    public CellItemDecoration[] decorate(YearMonth from, YearMonth to, TuningDateField tuningDateField);
+
+    /**
+     * Returns the decorations of the cells from <code>from</code> to <code>to</code> (both included) in the
+     * {@link CalendarResolution#YEAR} calendar resolution.
+     *
+     * @param from
+     *            the first year displayed
+     * @param to
+     *            the last year displayed
+     * @param tuningDateField
+     *            the {@link TuningDateField}
+     * @return the decorations of the cells, one per year.
+     */
+    public CellItemDecoration[] decorate(int from, int to, TuningDateField tuningDateField);
+
+}
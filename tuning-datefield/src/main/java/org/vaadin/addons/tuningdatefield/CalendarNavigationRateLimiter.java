@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2013 Frederic Dreyfus
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vaadin.addons.tuningdatefield;
+
+import java.io.Serializable;
+
+/**
+ * A token bucket limiting the number of calendar navigations a {@link TuningDateField} handles per second, so that a
+ * flood of previous/next RPCs does not fire a page change event and build a page for each of them.<br>
+ * The widget already collapses the clicks of a short window into a single RPC, so a normal user never reaches the
+ * limit. It is not thread-safe and must be used under the session lock.
+ * 
+ * @author Frederic.Dreyfus
+ * 
+ */
+final class CalendarNavigationRateLimiter implements Serializable {
+
+    private static final long serialVersionUID = 2986413385627459214L;
+
+    private static final long NANOS_PER_SECOND = 1000000000L;
+
+    /**
+     * The number of navigations handled in a burst
+     */
+    private final int capacity;
+
+    /**
+     * The number of navigations handled per second once the burst is consumed
+     */
+    private final int navigationsPerSecond;
+
+    private double tokens;
+
+    // System.nanoTime() values are only comparable in the same JVM, the refill restarts after deserialization
+    private transient long lastRefillNanos;
+    private transient boolean refillStarted;
+
+    CalendarNavigationRateLimiter(int capacity, int navigationsPerSecond) {
+        this.capacity = capacity;
+        this.navigationsPerSecond = navigationsPerSecond;
+        this.tokens = capacity;
+    }
+
+    /**
+     * @return <code>true</code> if the navigation can be handled, <code>false</code> if it should be dropped
+     */
+    boolean tryAcquire() {
+        long now = System.nanoTime();
+        if (refillStarted) {
+            long elapsedNanos = Math.max(now - lastRefillNanos, 0);
+            tokens = Math.min(capacity, tokens + (double) elapsedNanos * navigationsPerSecond / NANOS_PER_SECOND);
+        }
+        lastRefillNanos = now;
+        refillStarted = true;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+
+}
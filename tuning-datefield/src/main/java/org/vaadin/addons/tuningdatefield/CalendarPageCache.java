@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2013 Frederic Dreyfus
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vaadin.addons.tuningdatefield;
+
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.vaadin.addons.tuningdatefield.widgetset.client.ui.calendar.CalendarPage;
+
+/**
+ * A small least recently used cache of the calendar pages built by a {@link TuningDateField}, so that navigating back
+ * and forth between pages or reopening the calendar does not rebuild them.<br>
+ * It is not thread-safe and must be used under the session lock.
+ * 
+ * @author Frederic.Dreyfus
+ * 
+ * @see CalendarPageKey
+ */
+final class CalendarPageCache implements Serializable {
+
+    private static final long serialVersionUID = -1630470542651282512L;
+
+    private int maxSize;
+
+    private final LinkedHashMap<CalendarPageKey, CalendarPage> pages = new LinkedHashMap<CalendarPageKey, CalendarPage>(
+            16, 0.75f, true) {
+
+        private static final long serialVersionUID = 4209766385218396640L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CalendarPageKey, CalendarPage> eldest) {
+            // The last built page is always kept
+            return size() > Math.max(maxSize, 1);
+        }
+    };
+
+    CalendarPageCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return the cached calendar page or <code>null</code> if the page is not cached
+     */
+    CalendarPage get(CalendarPageKey key) {
+        return pages.get(key);
+    }
+
+    void put(CalendarPageKey key, CalendarPage calendarPage) {
+        pages.put(key, calendarPage);
+    }
+
+    void clear() {
+        pages.clear();
+    }
+
+    int getMaxSize() {
+        return maxSize;
+    }
+
+    void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+        // The least recently used pages are iterated first
+        Iterator<CalendarPageKey> keys = pages.keySet().iterator();
+        for (int excess = pages.size() - Math.max(maxSize, 1); excess > 0; excess--) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+}
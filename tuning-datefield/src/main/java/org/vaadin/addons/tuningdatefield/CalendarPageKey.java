@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2013 Frederic Dreyfus
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vaadin.addons.tuningdatefield;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Locale;
+import java.util.Objects;
+
+import org.vaadin.addons.tuningdatefield.widgetset.client.ui.calendar.CalendarResolution;
+
+/**
+ * The fingerprint of all the inputs used to render a calendar page of a {@link TuningDateField}.<br>
+ * Two equal keys always render the same calendar items, which allows to reuse previously built pages.
+ * 
+ * @author Frederic.Dreyfus
+ * 
+ * @see CalendarPageCache
+ */
+final class CalendarPageKey implements Serializable {
+
+    private static final long serialVersionUID = 7519273006516414925L;
+
+    private final CalendarResolution resolution;
+    // The month displayed in DAY resolution, the first month of the year or decade otherwise
+    private final YearMonth period;
+    private final LocalDate value;
+    private final LocalDate today;
+    private final Locale locale;
+    private final int firstDayOfWeek;
+    private final int lastDayOfWeek;
+    private final LocalDate rangeStart;
+    private final LocalDate rangeEnd;
+    private final boolean weekendDisabled;
+    private final boolean previousMonthDisabled;
+    private final boolean nextMonthDisabled;
+    private final boolean displayFixedNumberOfDayRows;
+    private final int customizerVersion;
+
+    private final int hashCode;
+
+    CalendarPageKey(CalendarResolution resolution, YearMonth period, LocalDate value, LocalDate today, Locale locale,
+            int firstDayOfWeek, int lastDayOfWeek, LocalDate rangeStart, LocalDate rangeEnd, boolean weekendDisabled,
+            boolean previousMonthDisabled, boolean nextMonthDisabled, boolean displayFixedNumberOfDayRows,
+            int customizerVersion) {
+        this.resolution = resolution;
+        this.period = period;
+        this.value = value;
+        this.today = today;
+        this.locale = locale;
+        this.firstDayOfWeek = firstDayOfWeek;
+        this.lastDayOfWeek = lastDayOfWeek;
+        this.rangeStart = rangeStart;
+        this.rangeEnd = rangeEnd;
+        this.weekendDisabled = weekendDisabled;
+        this.previousMonthDisabled = previousMonthDisabled;
+        this.nextMonthDisabled = nextMonthDisabled;
+        this.displayFixedNumberOfDayRows = displayFixedNumberOfDayRows;
+        this.customizerVersion = customizerVersion;
+        this.hashCode = Objects.hash(resolution, period, value, today, locale, firstDayOfWeek, lastDayOfWeek,
+                rangeStart, rangeEnd, weekendDisabled, previousMonthDisabled, nextMonthDisabled,
+                displayFixedNumberOfDayRows, customizerVersion);
+    }
+
+    /**
+     * Returns <code>true</code> if both keys represent the same page (resolution, period and locale), even if other
+     * inputs differ.
+     * 
+     * @param other
+     *            the other key
+     * @return <code>true</code> if both keys represent the same page
+     */
+    boolean isSamePage(CalendarPageKey other) {
+        return other != null && resolution == other.resolution && period.equals(other.period)
+                && Objects.equals(locale, other.locale);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof CalendarPageKey)) {
+            return false;
+        }
+        CalendarPageKey other = (CalendarPageKey) obj;
+        return hashCode == other.hashCode && resolution == other.resolution && period.equals(other.period)
+                && Objects.equals(value, other.value) && Objects.equals(today, other.today)
+                && Objects.equals(locale, other.locale) && firstDayOfWeek == other.firstDayOfWeek
+                && lastDayOfWeek == other.lastDayOfWeek && Objects.equals(rangeStart, other.rangeStart)
+                && Objects.equals(rangeEnd, other.rangeEnd) && weekendDisabled == other.weekendDisabled
+                && previousMonthDisabled == other.previousMonthDisabled
+                && nextMonthDisabled == other.nextMonthDisabled
+                && displayFixedNumberOfDayRows == other.displayFixedNumberOfDayRows
+                && customizerVersion == other.customizerVersion;
+    }
+
+    @Override
+    public String toString() {
+        return "CalendarPageKey [resolution=" + resolution + ", period=" + period + ", value=" + value + ", locale="
+                + locale + ", customizerVersion=" + customizerVersion + "]";
+    }
+
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2013 Frederic Dreyfus
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vaadin.addons.tuningdatefield;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import org.vaadin.addons.tuningdatefield.core.CalendarPageEngine;
+import org.vaadin.addons.tuningdatefield.widgetset.client.ui.calendar.CalendarResolution;
+
+/**
+ * The immutable inputs of a calendar page of a {@link TuningDateField} : the resolution, the period displayed, the
+ * value, today, the engine and the customizer.<br>
+ * A request is captured under the session lock, the page is then built from the request only, so that it may be built
+ * for another period than the displayed one or from another thread.
+ *
+ * @author Frederic.Dreyfus
+ *
+ * @see CalendarPageKey
+ */
+final class CalendarPageRequest {
+
+    private final CalendarResolution resolution;
+    private final YearMonth yearMonth;
+    private final int year;
+    private final int firstYear;
+    private final int lastYear;
+    private final LocalDate value;
+    private final LocalDate today;
+    private final CalendarPageEngine engine;
+    private final BatchCellItemCustomizer customizer;
+    private final boolean availabilityBadgesEnabled;
+    private final String[] monthTexts;
+    private final String[] shortMonthTexts;
+
+    /**
+     * @param resolution
+     *            the resolution
+     * @param yearMonth
+     *            the month displayed in day resolution
+     * @param year
+     *            the year displayed in month resolution, a year of the decade in year resolution
+     * @param value
+     *            the value of the field, <code>null</code> if none
+     * @param today
+     *            today
+     * @param engine
+     *            the engine of the field
+     * @param customizer
+     *            the customizer, <code>null</code> if none
+     * @param availabilityBadgesEnabled
+     *            <code>true</code> if the months and years display their number of enabled days
+     * @param monthTexts
+     *            the month texts of the locale
+     * @param shortMonthTexts
+     *            the short month texts of the locale
+     */
+    CalendarPageRequest(CalendarResolution resolution, YearMonth yearMonth, int year, LocalDate value,
+            LocalDate today, CalendarPageEngine engine, BatchCellItemCustomizer customizer,
+            boolean availabilityBadgesEnabled, String[] monthTexts, String[] shortMonthTexts) {
+        this.resolution = resolution;
+        this.yearMonth = yearMonth;
+        this.year = year;
+        this.firstYear = engine.getCalendarFirstYear(year);
+        this.lastYear = engine.getCalendarLastYear(year);
+        this.value = value;
+        this.today = today;
+        this.engine = engine;
+        this.customizer = customizer;
+        this.availabilityBadgesEnabled = availabilityBadgesEnabled;
+        this.monthTexts = monthTexts;
+        this.shortMonthTexts = shortMonthTexts;
+    }
+
+    /**
+     * @return the same request for another period, e.g. an adjacent page
+     */
+    CalendarPageRequest withPeriod(YearMonth yearMonth, int year) {
+        return new CalendarPageRequest(resolution, yearMonth, year, value, today, engine, customizer,
+                availabilityBadgesEnabled, monthTexts, shortMonthTexts);
+    }
+
+    /**
+     * @return the month displayed in day resolution, the first month of the year or decade otherwise
+     */
+    YearMonth getPeriod() {
+        if (resolution.equals(CalendarResolution.DAY)) {
+            return yearMonth;
+        } else if (resolution.equals(CalendarResolution.MONTH)) {
+            return YearMonth.of(year, 1);
+        } else {
+            return YearMonth.of(firstYear, 1);
+        }
+    }
+
+    /**
+     * @return the text of the resolution control
+     */
+    String getResolutionText() {
+        if (resolution.equals(CalendarResolution.DAY)) {
+            return monthTexts[yearMonth.getMonthValue() - 1] + " " + yearMonth.getYear();
+        } else if (resolution.equals(CalendarResolution.MONTH)) {
+            return Integer.toString(yearMonth.getYear());
+        } else {
+            return firstYear + " - " + lastYear;
+        }
+    }
+
+    CalendarResolution getResolution() {
+        return resolution;
+    }
+
+    YearMonth getYearMonth() {
+        return yearMonth;
+    }
+
+    int getYear() {
+        return year;
+    }
+
+    int getFirstYear() {
+        return firstYear;
+    }
+
+    int getLastYear() {
+        return lastYear;
+    }
+
+    LocalDate getValue() {
+        return value;
+    }
+
+    LocalDate getToday() {
+        return today;
+    }
+
+    CalendarPageEngine getEngine() {
+        return engine;
+    }
+
+    BatchCellItemCustomizer getCustomizer() {
+        return customizer;
+    }
+
+    boolean isAvailabilityBadgesEnabled() {
+        return availabilityBadgesEnabled;
+    }
+
+    String[] getShortMonthTexts() {
+        return shortMonthTexts;
+    }
+
+}
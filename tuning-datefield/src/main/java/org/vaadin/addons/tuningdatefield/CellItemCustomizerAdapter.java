@@ -18,15 +18,17 @@ package org.vaadin.addons.tuningdatefield;
 
 import java.time.LocalDate;
 import java.time.YearMonth;
-
+import java.time.temporal.ChronoUnit;
 
 /**
- * Default implementation of {@link CellItemCustomizer} that enables all cells, does not return any tooltip or style.
+ * Default implementation of {@link CellItemCustomizer} that enables all cells, does not return any tooltip or style.<br>
+ * It also implements {@link BatchCellItemCustomizer} by calling each per-cell method once per cell so that subclasses
+ * can be used wherever a batch customizer is expected.
  * 
  * @author Frederic.Dreyfus
  * 
  */
-public class CellItemCustomizerAdapter implements CellItemCustomizer {
+public class CellItemCustomizerAdapter implements CellItemCustomizer, BatchCellItemCustomizer {
 
     private static final long serialVersionUID = 8452408923351694490L;
 
@@ -90,4 +92,89 @@ public class CellItemCustomizerAdapter implements CellItemCustomizer {
         return null;
     }
 
+    @Override
+    public CellItemDecoration[] decorate(LocalDate from, LocalDate to, TuningDateField tuningDateField) {
+        return decorate(this, from, to, tuningDateField);
+    }
+
+    @Override
+    public CellItemDecoration[] decorate(YearMonth from, YearMonth to, TuningDateField tuningDateField) {
+        return decorate(this, from, to, tuningDateField);
+    }
+
+    @Override
+    public CellItemDecoration[] decorate(int from, int to, TuningDateField tuningDateField) {
+        return decorate(this, from, to, tuningDateField);
+    }
+
+    /**
+     * Returns a {@link BatchCellItemCustomizer} view of the given {@link CellItemCustomizer}. If the customizer already
+     * is a {@link BatchCellItemCustomizer} it is returned as is.
+     * 
+     * @param cellItemCustomizer
+     *            the customizer to bridge
+     * @return the batch customizer or <code>null</code> if <code>cellItemCustomizer</code> is <code>null</code>
+     */
+    public static BatchCellItemCustomizer toBatchCellItemCustomizer(final CellItemCustomizer cellItemCustomizer) {
+        if (cellItemCustomizer == null || cellItemCustomizer instanceof BatchCellItemCustomizer) {
+            return (BatchCellItemCustomizer) cellItemCustomizer;
+        }
+        return new BatchCellItemCustomizer() {
+
+            private static final long serialVersionUID = -4262925349180914213L;
+
+            @Override
+            public CellItemDecoration[] decorate(LocalDate from, LocalDate to, TuningDateField tuningDateField) {
+                return CellItemCustomizerAdapter.decorate(cellItemCustomizer, from, to, tuningDateField);
+            }
+
+            @Override
+            public CellItemDecoration[] decorate(YearMonth from, YearMonth to, TuningDateField tuningDateField) {
+                return CellItemCustomizerAdapter.decorate(cellItemCustomizer, from, to, tuningDateField);
+            }
+
+            @Override
+            public CellItemDecoration[] decorate(int from, int to, TuningDateField tuningDateField) {
+                return CellItemCustomizerAdapter.decorate(cellItemCustomizer, from, to, tuningDateField);
+            }
+        };
+    }
+
+    private static CellItemDecoration[] decorate(CellItemCustomizer customizer, LocalDate from, LocalDate to,
+            TuningDateField tuningDateField) {
+        int numberOfDays = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        CellItemDecoration[] decorations = new CellItemDecoration[numberOfDays];
+        LocalDate date = from;
+        for (int i = 0; i < numberOfDays; i++, date = date.plusDays(1)) {
+            decorations[i] = new CellItemDecoration(customizer.renderDay(date, tuningDateField),
+                    customizer.getStyle(date, tuningDateField), customizer.getTooltip(date, tuningDateField),
+                    customizer.isEnabled(date, tuningDateField));
+        }
+        return decorations;
+    }
+
+    private static CellItemDecoration[] decorate(CellItemCustomizer customizer, YearMonth from, YearMonth to,
+            TuningDateField tuningDateField) {
+        int numberOfMonths = (int) ChronoUnit.MONTHS.between(from, to) + 1;
+        CellItemDecoration[] decorations = new CellItemDecoration[numberOfMonths];
+        YearMonth month = from;
+        for (int i = 0; i < numberOfMonths; i++, month = month.plusMonths(1)) {
+            decorations[i] = new CellItemDecoration(customizer.renderMonth(month, tuningDateField),
+                    customizer.getStyle(month, tuningDateField), customizer.getTooltip(month, tuningDateField),
+                    customizer.isEnabled(month, tuningDateField));
+        }
+        return decorations;
+    }
+
+    private static CellItemDecoration[] decorate(CellItemCustomizer customizer, int from, int to,
+            TuningDateField tuningDateField) {
+        CellItemDecoration[] decorations = new CellItemDecoration[to - from + 1];
+        for (int i = 0, year = from; year <= to; i++, year++) {
+            decorations[i] = new CellItemDecoration(customizer.renderYear(year, tuningDateField),
+                    customizer.getStyle(year, tuningDateField), customizer.getTooltip(year, tuningDateField),
+                    customizer.isEnabled(year, tuningDateField));
+        }
+        return decorations;
+    }
+
 }
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2013 Frederic Dreyfus
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vaadin.addons.tuningdatefield;
+
+import java.io.Serializable;
+
+/**
+ * The customization of a single calendar cell returned by a {@link BatchCellItemCustomizer}.<br>
+ * A <code>null</code> text, style or tooltip falls back to the default rendering of the cell.
+ *
+ * @author Frederic.Dreyfus
+ *
+ * @see BatchCellItemCustomizer
+ */
+public class CellItemDecoration implements Serializable {
+
+    private static final long serialVersionUID = -3391046516371929876L;
+
+    /**
+     * The text as it will appear in the table cell, <code>null</code> for default
+     */
+    private String text;
+
+    /**
+     * The additional style of the cell
+     */
+    private String style;
+
+    /**
+     * The tooltip
+     */
+    private String tooltip;
+
+    /**
+     * <code>true</code> if the cell is enabled (default to true)
+     */
+    private boolean enabled = true;
+
+    public CellItemDecoration() {
+
+    }
+
+    public CellItemDecoration(String text, String style, String tooltip, boolean enabled) {
+        this.text = text;
+        this.style = style;
+        this.tooltip = tooltip;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public String toString() {
+        return "CellItemDecoration [text=" + text + ", style=" + style + ", tooltip=" + tooltip + ", enabled="
+                + enabled + "]";
+    }
+
+    /**
+     * @return the text
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @param text
+     *            the text to set
+     */
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    /**
+     * @return the style
+     */
+    public String getStyle() {
+        return style;
+    }
+
+    /**
+     * @param style
+     *            the style to set
+     */
+    public void setStyle(String style) {
+        this.style = style;
+    }
+
+    /**
+     * @return the tooltip
+     */
+    public String getTooltip() {
+        return tooltip;
+    }
+
+    /**
+     * @param tooltip
+     *            the tooltip to set
+     */
+    public void setTooltip(String tooltip) {
+        this.tooltip = tooltip;
+    }
+
+    /**
+     * @return the enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param enabled
+     *            the enabled to set
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+}
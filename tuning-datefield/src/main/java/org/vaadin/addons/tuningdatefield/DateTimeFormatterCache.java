@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2013 Frederic Dreyfus
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vaadin.addons.tuningdatefield;
+
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A JVM-wide bounded cache of compiled {@link DateTimeFormatter}s keyed by pattern and locale.<br>
+ * {@link DateTimeFormatter}s are immutable and thread-safe, so that all fields using the same pattern and locale share
+ * the same instance.
+ *
+ * @author Frederic.Dreyfus
+ *
+ */
+final class DateTimeFormatterCache {
+
+    /**
+     * The pattern sent to the client when none is set. It parses the dates of years 1-9999 exactly like
+     * {@link DateTimeFormatter#ISO_DATE} with its strict resolver, the client sends the other texts (e.g. with an
+     * offset) to the server.
+     */
+    static final String DEFAULT_PATTERN = "uuuu-MM-dd";
+
+    private static final int MAX_SIZE = 256;
+
+    private static final ConcurrentMap<Key, DateTimeFormatter> CACHE = new ConcurrentHashMap<>(64);
+
+    private DateTimeFormatterCache() {
+    }
+
+    /**
+     * Returns the formatter of the pattern in the given locale.
+     *
+     * @param pattern
+     *            the pattern (ex: yyyy/MM/dd), <code>null</code> for {@link DateTimeFormatter#ISO_DATE}
+     * @param locale
+     *            the locale, <code>null</code> for the default locale
+     * @return the formatter
+     * @throws IllegalArgumentException
+     *             if the pattern is invalid
+     */
+    static DateTimeFormatter get(String pattern, Locale locale) {
+        if (locale == null) {
+            locale = Locale.getDefault();
+        }
+        Key key = new Key(pattern, locale);
+        DateTimeFormatter formatter = CACHE.get(key);
+        if (formatter != null) {
+            return formatter;
+        }
+
+        // Compile outside of the map, concurrent compilations of the same pattern are harmless
+        if (pattern == null) {
+            formatter = DateTimeFormatter.ISO_DATE.withLocale(locale);
+        } else {
+            formatter = DateTimeFormatter.ofPattern(pattern, locale);
+        }
+        DateTimeFormatter cached = CACHE.putIfAbsent(key, formatter);
+        if (cached != null) {
+            return cached;
+        }
+        evict(key);
+        return formatter;
+    }
+
+    /**
+     * Removes arbitrary entries other than the given one until the cache is back to its maximum size. Only the
+     * applications building formatters for many patterns or locales pay for it.
+     */
+    private static void evict(Key keep) {
+        Iterator<Key> keys = CACHE.keySet().iterator();
+        while (CACHE.size() > MAX_SIZE && keys.hasNext()) {
+            if (!keys.next().equals(keep)) {
+                keys.remove();
+            }
+        }
+    }
+
+    private static final class Key {
+
+        private final String pattern;
+        private final Locale locale;
+        private final int hashCode;
+
+        Key(String pattern, Locale locale) {
+            this.pattern = pattern;
+            this.locale = locale;
+            this.hashCode = Objects.hash(pattern, locale);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return Objects.equals(pattern, other.pattern) && locale.equals(other.locale);
+        }
+    }
+
+}
@@ -18,8 +18,6 @@
 package org.vaadin.addons.tuningdatefield;
 
 import java.time.LocalDate;
-import java.time.YearMonth;
-import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 
 import org.vaadin.addons.tuningdatefield.widgetset.client.InlineTuningDateFieldRpc;
@@ -51,8 +49,8 @@ public class InlineTuningDateField extends TuningDateField {
             private static final long serialVersionUID = -6765204929172002847L;
 
             @Override
-            public void calendarItemClicked(Integer itemIndex, Integer relativeDateIndex, MouseEventDetails mouseDetails) {
-                onCalendarItemClicked(itemIndex, relativeDateIndex, mouseDetails);
+            public void calendarCellClicked(int cellEpochDay, MouseEventDetails mouseDetails) {
+                dispatchCalendarCellClicked(LocalDate.ofEpochDay(cellEpochDay), mouseDetails);
             }
 
             @Override
@@ -61,14 +59,7 @@ public class InlineTuningDateField extends TuningDateField {
                     // First try to convert to model in order to check if text is parseable
                     LocalDate dateFromText = null;
                     if (dateText != null) {
-                        DateTimeFormatter dateTimeFormatter;
-                        
-                        if (dateTimeFormatterPattern == null) {
-                            dateTimeFormatter = DateTimeFormatter.ISO_DATE.withLocale(getLocale());
-                        } else {
-                            dateTimeFormatter = DateTimeFormatter.ofPattern(dateTimeFormatterPattern, getLocale());
-                        }
-                        dateFromText = dateTimeFormatter.parse(dateText, LocalDate::from);
+                        dateFromText = getDateTimeFormatter().parse(dateText, LocalDate::from);
                     }
 
                     // If parsing text is successful, set value
@@ -84,21 +75,15 @@ public class InlineTuningDateField extends TuningDateField {
             }
 
             @Override
-            public void previousControlClicked() {
-                if (controlsEnabled) {
-                    goToPreviousCalendarPage();
-                } else {
-                    // wtf ? should never happen
-                }
+            public void dateTextParsed(int epochDay) {
+                uiHasValidDateString = true;
+                setComponentError(null);
+                setValue(LocalDate.ofEpochDay(epochDay));
             }
 
             @Override
-            public void nextControlClicked() {
-                if (controlsEnabled) {
-                    goToNextCalendarPage();
-                } else {
-                    // wtf ? should never happen
-                }
+            public void navigateCalendar(int offset, int clickCount) {
+                handleCalendarNavigation(offset, clickCount);
             }
 
             @Override
@@ -110,6 +95,13 @@ public class InlineTuningDateField extends TuningDateField {
                 }
             }
 
+            @Override
+            public void jumpControlClicked() {
+                if (controlsEnabled && calendarResolution.equals(CalendarResolution.DAY)) {
+                    goToNextEnabledMonth();
+                }
+            }
+
             @Override
             public void onCalendarOpen() {
                 // not implemented
@@ -130,26 +122,12 @@ public class InlineTuningDateField extends TuningDateField {
         return (TuningDateFieldState) super.getState();
     }
 
+    /**
+     * The inline calendar is always displayed.
+     */
     @Override
-    public void beforeClientResponse(boolean initial) {
-        super.beforeClientResponse(initial);
-
-        getState().setControlsEnabled(isControlsEnabled());
-        getState().setCalendarResolution(calendarResolution);
-
-        if (calendarResolution.equals(CalendarResolution.DAY)) {
-            YearMonth yearMonthDisplayed = getYearMonthDisplayed();
-            String displayedMonthText = monthTexts[yearMonthDisplayed.getMonthValue() - 1];
-            getState().setCalendarResolutionText(displayedMonthText + " " + yearMonthDisplayed.getYear());
-            getState().setWeekHeaderNames(weekDayNames);
-            getState().setCalendarItems(buildDayItems());
-        } else if (calendarResolution.equals(CalendarResolution.MONTH)) {
-            getState().setCalendarItems(buildMonthItems());
-            getState().setCalendarResolutionText(Integer.toString(yearMonthDisplayed.getYear()));
-        } else if (calendarResolution.equals(CalendarResolution.YEAR)) {
-            getState().setCalendarItems(buildYearItems());
-            getState().setCalendarResolutionText(getCalendarFirstYear() + " - " + getCalendarLastYear());
-        }
+    protected boolean isCalendarDisplayed() {
+        return true;
     }
 
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2013 Frederic Dreyfus
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vaadin.addons.tuningdatefield;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import com.vaadin.shared.Registration;
+
+/**
+ * The listeners of one event type of a {@link TuningDateField}, called directly instead of through reflection.<br>
+ * The list is replaced on each change, so that a listener may add or remove listeners while the event is fired. It is
+ * not thread-safe and must be used under the session lock.
+ * 
+ * @author Frederic.Dreyfus
+ * 
+ * @param <L>
+ *            the listener type
+ */
+final class ListenerList<L extends Serializable> implements Serializable {
+
+    private static final long serialVersionUID = -2405581287623916518L;
+
+    private List<L> listeners = Collections.emptyList();
+
+    /**
+     * @return a registration removing the listener
+     */
+    Registration add(L listener) {
+        Objects.requireNonNull(listener, "Listener must not be null");
+        List<L> newListeners = new ArrayList<>(listeners.size() + 1);
+        newListeners.addAll(listeners);
+        newListeners.add(listener);
+        listeners = newListeners;
+        return () -> remove(listener);
+    }
+
+    void remove(L listener) {
+        int index = listeners.indexOf(listener);
+        if (index >= 0) {
+            List<L> newListeners = new ArrayList<>(listeners);
+            newListeners.remove(index);
+            listeners = newListeners.isEmpty() ? Collections.emptyList() : newListeners;
+        }
+    }
+
+    /**
+     * @return <code>true</code> if there is no listener, in that case the event should not even be created
+     */
+    boolean isEmpty() {
+        return listeners.isEmpty();
+    }
+
+    /**
+     * Calls each listener.
+     * 
+     * @param dispatcher
+     *            calls the listener method with the event
+     */
+    void fire(Consumer<? super L> dispatcher) {
+        for (L listener : listeners) {
+            dispatcher.accept(listener);
+        }
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2013 Frederic Dreyfus
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vaadin.addons.tuningdatefield;
+
+import java.text.DateFormatSymbols;
+import java.util.Calendar;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Immutable locale based data used by the calendar (month names, week header names and week definition).<br>
+ * Instances are shared by all {@link TuningDateField} of the JVM : they are computed once per locale and first day of
+ * week. The returned arrays are shared too and must never be modified.
+ *
+ * @author Frederic.Dreyfus
+ *
+ */
+public final class LocaleCalendarData {
+
+    /**
+     * For each locale, the data with the locale first day of week at index 0 and with an explicit first day of week
+     * (1=Monday,...,7=Sunday) at the corresponding index.
+     */
+    private static final ConcurrentMap<Locale, LocaleCalendarData[]> CACHE = new ConcurrentHashMap<>();
+
+    private final Locale locale;
+    private final String[] monthTexts; // January, February, March
+    private final String[] shortMonthTexts; // Jan, Feb, Mar
+    private final String[] weekDayNames; // Sun, Mon, Tue, ...
+    private final int firstDayOfWeek; // 1 in France (monday), 7 in the US (sunday)
+    private final int defaultLastDayOfWeek; // 7 in France (sunday), 6 in the US (saturday)
+
+    private LocaleCalendarData(Locale locale, String[] monthTexts, String[] shortMonthTexts, String[] shortWeekdays,
+            int firstDayOfWeek) {
+        this.locale = locale;
+        this.monthTexts = monthTexts;
+        this.shortMonthTexts = shortMonthTexts;
+        this.firstDayOfWeek = firstDayOfWeek;
+        this.defaultLastDayOfWeek = (firstDayOfWeek + 5) % 7 + 1;
+
+        weekDayNames = new String[7];
+        for (int i = 0; i < 7; i++) {
+            weekDayNames[i] = shortWeekdays[(firstDayOfWeek + i) % 7 + 1];
+        }
+    }
+
+    /**
+     * Returns the calendar data of the locale with its default first day of week.
+     *
+     * @param locale
+     *            the locale, <code>null</code> for the default locale
+     * @return the calendar data of the locale
+     */
+    public static LocaleCalendarData get(Locale locale) {
+        return get(locale, 0);
+    }
+
+    /**
+     * Returns the calendar data of the locale with the given first day of week.
+     *
+     * @param locale
+     *            the locale, <code>null</code> for the default locale
+     * @param firstDayOfWeek
+     *            the first day of week (1=Monday,...,7=Sunday), 0 or negative value to use the locale setting
+     * @return the calendar data of the locale
+     */
+    public static LocaleCalendarData get(Locale locale, int firstDayOfWeek) {
+        if (locale == null) {
+            locale = Locale.getDefault();
+        }
+        if (firstDayOfWeek < 0 || firstDayOfWeek > 7) {
+            firstDayOfWeek = 0;
+        }
+
+        LocaleCalendarData[] localeData = CACHE.computeIfAbsent(locale, LocaleCalendarData::create);
+        LocaleCalendarData data = localeData[firstDayOfWeek];
+        if (data == null) {
+            // Instances are immutable, concurrent initializations are harmless
+            LocaleCalendarData defaultData = localeData[0];
+            data = new LocaleCalendarData(locale, defaultData.monthTexts, defaultData.shortMonthTexts,
+                    DateFormatSymbols.getInstance(locale).getShortWeekdays(), firstDayOfWeek);
+            localeData[firstDayOfWeek] = data;
+        }
+        return data;
+    }
+
+    private static LocaleCalendarData[] create(Locale locale) {
+        DateFormatSymbols symbols = DateFormatSymbols.getInstance(locale);
+        int calendarFirstDayOfWeek = Calendar.getInstance(locale).getFirstDayOfWeek();
+        // Calendar.SUNDAY=1 to Calendar.SATURDAY=7 converted to MONDAY=1 to SUNDAY=7
+        int firstDayOfWeek = (calendarFirstDayOfWeek + 5) % 7 + 1;
+
+        LocaleCalendarData[] localeData = new LocaleCalendarData[8];
+        localeData[0] = new LocaleCalendarData(locale, symbols.getMonths(), symbols.getShortMonths(),
+                symbols.getShortWeekdays(), firstDayOfWeek);
+        localeData[firstDayOfWeek] = localeData[0];
+        return localeData;
+    }
+
+    /**
+     * @return the locale
+     */
+    public Locale getLocale() {
+        return locale;
+    }
+
+    /**
+     * @return the month names (January, February, ...). The shared array must not be modified.
+     */
+    public String[] getMonthTexts() {
+        return monthTexts;
+    }
+
+    /**
+     * @return the short month names (Jan, Feb, ...). The shared array must not be modified.
+     */
+    public String[] getShortMonthTexts() {
+        return shortMonthTexts;
+    }
+
+    /**
+     * @return the week header names in the order of appearance in the calendar. The shared array must not be modified.
+     */
+    public String[] getWeekDayNames() {
+        return weekDayNames;
+    }
+
+    /**
+     * @return the first day of week (1=Monday,...,7=Sunday)
+     */
+    public int getFirstDayOfWeek() {
+        return firstDayOfWeek;
+    }
+
+    /**
+     * @return the last day of week matching the first day of week (1=Monday,...,7=Sunday)
+     */
+    public int getDefaultLastDayOfWeek() {
+        return defaultLastDayOfWeek;
+    }
+
+}
@@ -16,21 +16,31 @@
 
 package org.vaadin.addons.tuningdatefield;
 
-import java.io.IOException;
-import java.io.ObjectInputStream;
 import java.lang.reflect.Method;
-import java.text.DateFormatSymbols;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.Month;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.time.format.ResolverStyle;
 import java.time.DateTimeException;
 import java.time.format.DateTimeParseException;
-import java.time.temporal.ChronoUnit;
-import java.util.Calendar;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
-
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import org.vaadin.addons.tuningdatefield.core.AvailabilityIndex;
+import org.vaadin.addons.tuningdatefield.core.BusinessDayCalculator;
+import org.vaadin.addons.tuningdatefield.core.CalendarConfig;
+import org.vaadin.addons.tuningdatefield.core.CalendarPageEngine;
+import org.vaadin.addons.tuningdatefield.core.CalendarPageModel;
+import org.vaadin.addons.tuningdatefield.core.DateSet;
+import org.vaadin.addons.tuningdatefield.core.HolidayProvider;
 import org.vaadin.addons.tuningdatefield.event.CalendarOpenEvent;
 import org.vaadin.addons.tuningdatefield.event.CalendarOpenListener;
 import org.vaadin.addons.tuningdatefield.event.DateChangeEvent;
@@ -46,7 +56,12 @@ import org.vaadin.addons.tuningdatefield.event.YearChangeEvent;
 import org.vaadin.addons.tuningdatefield.event.YearChangeListener;
 import org.vaadin.addons.tuningdatefield.widgetset.client.TuningDateFieldRpc;
 import org.vaadin.addons.tuningdatefield.widgetset.client.TuningDateFieldState;
+import org.vaadin.addons.tuningdatefield.widgetset.client.ui.DateTextFormat;
+import org.vaadin.addons.tuningdatefield.widgetset.client.ui.calendar.AdjacentCalendarPage;
+import org.vaadin.addons.tuningdatefield.widgetset.client.ui.calendar.CalendarGrid;
 import org.vaadin.addons.tuningdatefield.widgetset.client.ui.calendar.CalendarItem;
+import org.vaadin.addons.tuningdatefield.widgetset.client.ui.calendar.CalendarPage;
+import org.vaadin.addons.tuningdatefield.widgetset.client.ui.calendar.CalendarPageDelta;
 import org.vaadin.addons.tuningdatefield.widgetset.client.ui.calendar.CalendarResolution;
 
 import com.vaadin.data.Converter;
@@ -66,6 +81,7 @@ import com.vaadin.shared.Registration;
 import com.vaadin.shared.util.SharedUtil;
 import com.vaadin.ui.AbstractField;
 import com.vaadin.ui.TextField;
+import com.vaadin.ui.UI;
 import com.vaadin.util.ReflectTools;
 
 /**
@@ -80,6 +96,7 @@ import com.vaadin.util.ReflectTools;
  * tuningDateField.setDateRange(new LocalDate(2013, MAY, 10), new LocalDate(2013, JUNE, 5), &quot;The date must be between &quot;
  *         + startDate + &quot; and &quot; + endDate);
  * tuningDateField.setLocalDate(new LocalDate(2013, MAY, 15));
+ * tuningDateField.setDisabledDates(DateSet.of(new LocalDate(2013, MAY, 20))); // optional
  * tuningDateField.setCellItemCustomizer(myTuningDateFieldCustomizer); // To customize cells of calendar
  * </pre>
  * 
@@ -98,7 +115,8 @@ import com.vaadin.util.ReflectTools;
  * 
  * <p>
  * You can customize cells of the calendar using the {@link CellItemCustomizer} and its convenient default
- * {@link CellItemCustomizerAdapter}. <br>
+ * {@link CellItemCustomizerAdapter}. If your customization data comes from a backend consider using a
+ * {@link BatchCellItemCustomizer} which is called once per calendar page. <br>
  * Example of a customizer which will apply even style to even days and odd styles for odd days in the calendar with
  * {@link CalendarResolution#DAY} resolution.<br>
  * It will also disable the 25th of December 2013:
@@ -128,6 +146,12 @@ import com.vaadin.util.ReflectTools;
  * The primary stylename of the calendar is <code>tuning-datefield-calendar</code><br>
  * <br>
  * 
+ * <p>
+ * If the customizer is slow (e.g. backend calls), the calendar items can be built outside of the session lock using
+ * {@link #setCalendarItemsExecutor(Executor)}. The calendar then displays a loading indicator until the items are
+ * pushed to the client.
+ * 
+ * <p>
  * CSS styles for calendar {@link CalendarResolution#DAY} :
  * <ul>
  * <li>today : if cell represents the current day</li>
@@ -166,6 +190,31 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
 
     private static final long serialVersionUID = 5261965803349750329L;
 
+    /**
+     * The default number of calendar pages kept by each field.
+     * 
+     * @see #setCalendarPageCacheSize(int)
+     */
+    public static final int DEFAULT_CALENDAR_PAGE_CACHE_SIZE = 8;
+
+    /**
+     * The default number of calendar pages pushed in advance on each side of the displayed page.
+     * 
+     * @see #setCalendarPrefetchDepth(int)
+     */
+    public static final int DEFAULT_CALENDAR_PREFETCH_DEPTH = 1;
+
+    /**
+     * The number of years searched for an enabled day, the range may stop the search before.
+     * 
+     * @see #findNextEnabledDate(LocalDate)
+     */
+    public static final int ENABLED_DATE_SEARCH_YEARS = 10;
+
+    // Internal use : the calendar navigations handled in a burst, then per second
+    private static final int CALENDAR_NAVIGATION_BURST = 10;
+    private static final int CALENDAR_NAVIGATIONS_PER_SECOND = 10;
+
     /**
      * The value
      */
@@ -176,6 +225,12 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
      */
     private CellItemCustomizer cellItemCustomizer;
 
+    /**
+     * The batch cell item customizer which customizes all calendar cells of a page at once. When a
+     * {@link CellItemCustomizer} is set this is its bridged batch version.
+     */
+    private BatchCellItemCustomizer batchCellItemCustomizer;
+
     /**
      * The date range validator if a range is defined
      * 
@@ -183,14 +238,108 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
      */
     private RangeValidator<LocalDate> dateRangeValidator;
 
+    /**
+     * The disabled dates
+     * 
+     * @see #setDisabledDates(DateSet)
+     */
+    private DateSet disabledDates = DateSet.EMPTY;
+
+    /**
+     * The highlighted dates by style
+     * 
+     * @see #setHighlightedDates(DateSet, String)
+     */
+    private final LinkedHashMap<String, DateSet> highlightedDates = new LinkedHashMap<>();
+
+    /**
+     * The provider of the holidays and their region
+     * 
+     * @see #setHolidayProvider(HolidayProvider, String)
+     */
+    private HolidayProvider holidayProvider;
+    private String holidayRegion;
+
+    /**
+     * True to disable the holidays
+     * 
+     * @see #setHolidaysDisabled(boolean)
+     */
+    private boolean holidaysDisabled = true;
+
+    /**
+     * The style of the holidays
+     * 
+     * @see #setHolidayStyle(String)
+     */
+    private String holidayStyle = "holiday";
+
+    /**
+     * True to show the holiday names as tooltips
+     * 
+     * @see #setHolidayTooltipsEnabled(boolean)
+     */
+    private boolean holidayTooltipsEnabled = true;
+
+    /**
+     * The days of week which are week-ends
+     * 
+     * @see #setWeekendDays(DayOfWeek...)
+     */
+    private EnumSet<DayOfWeek> weekendDays = EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY);
+
+    /**
+     * True to disable the months and years without any enabled day
+     * 
+     * @see #setEmptyPeriodsDisabled(boolean)
+     */
+    private boolean emptyPeriodsDisabled;
+
+    /**
+     * True to show the number of enabled days of the months and years
+     * 
+     * @see #setAvailabilityBadgesEnabled(boolean)
+     */
+    private boolean availabilityBadgesEnabled;
+
+    /**
+     * True to display the control jumping to the next month having an enabled day
+     * 
+     * @see #setJumpControlVisible(boolean)
+     */
+    private boolean jumpControlVisible;
+
+    /**
+     * True to open the calendar on the month of the first enabled day when there is no value
+     * 
+     * @see #setOpenOnFirstEnabledMonth(boolean)
+     */
+    private boolean openOnFirstEnabledMonth;
+
+    // Internal use : the weekend days (bit 0 for monday), -1 if not computed yet
+    private int weekendDaysMask = -1;
+
+    // Internal use : the engine of the last calendar settings, see getCalendarPageEngine()
+    private transient volatile CalendarPageEngine calendarPageEngine;
+
+    // Internal use : true when a setting of the engine may have changed since it was built
+    private transient boolean calendarPageEngineStale;
+
     // private boolean dayPicker = true;
     protected CalendarResolution calendarResolution = CalendarResolution.DAY;
 
     // The dateTimeFormatter pattern (ex: yyyy/MM/dd)
     protected String dateTimeFormatterPattern = null;
 
-    // Internal use : the following 4 values are computed once at init and if the locale changes.
-    protected transient String[] monthTexts; // Jan, Feb, Mar
+    // The dateTimeFormatter set instead of a pattern, DateTimeFormatter is not serializable
+    private transient DateTimeFormatter customDateTimeFormatter;
+
+    // Internal use : true when the formatter is built from dateTimeFormatterPattern, so that the client may use it
+    private boolean patternBasedDateTimeFormatter = true;
+
+    // Internal use : the following values are set at init and if the locale changes.
+    // The arrays are shared by all fields (see LocaleCalendarData) and must not be modified.
+    protected transient String[] monthTexts; // January, February, March
     protected transient String[] shortMonthTexts; // Jan, Feb, Mar
     protected transient String[] weekDayNames; // Sun, Mon, Tue, ...
     protected transient Integer firstDayOfWeek; // 1 in France (monday), 7 in the US (sunday)
@@ -230,6 +379,11 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
     // Open calendar of focus
     private boolean openCalendarOnFocusEnabled;
 
+    /**
+     * True to let the widget display the clicked day and close the calendar before the server answers
+     */
+    private boolean optimisticSelectionEnabled;
+
     // Internal use : the month currently displayed in the calendar
     protected YearMonth yearMonthDisplayed;
 
@@ -239,8 +393,71 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
     // Internal use
     protected boolean calendarOpen;
 
-    // Internal use: the current calendarItems displayed
-    protected CalendarItem[] calendarItems;
+    // Internal use: the current calendar page displayed
+    protected CalendarPage calendarPage;
+
+    /**
+     * The executor used to build the calendar items outside of the session lock, <code>null</code> to build them
+     * synchronously.
+     * 
+     * @see #setCalendarItemsExecutor(Executor)
+     */
+    private transient Executor calendarItemsExecutor;
+
+    // Internal use : the fingerprint of the calendar page sent to the client
+    private CalendarPageKey sentCalendarPageKey;
+
+    // Internal use : the grid of the default calendar page sent to the client
+    private CalendarGrid sentCalendarGrid;
+    private int calendarGridVersion;
+
+    // Internal use : the recently built calendar pages
+    private final CalendarPageCache calendarPageCache = new CalendarPageCache(DEFAULT_CALENDAR_PAGE_CACHE_SIZE);
+
+    // Internal use : incremented each time the customizer or its data changes, part of the page fingerprint
+    private int customizerVersion;
+
+    // Internal use : incremented for each asynchronous calendar items request, used to drop stale results
+    private int calendarItemsRequestSequence;
+
+    // Internal use : the fingerprint of the page being built asynchronously
+    private CalendarPageKey requestedCalendarPageKey;
+
+    /**
+     * The number of calendar pages pushed in advance on each side of the displayed page.
+     * 
+     * @see #setCalendarPrefetchDepth(int)
+     */
+    private int calendarPrefetchDepth = DEFAULT_CALENDAR_PREFETCH_DEPTH;
+
+    // Internal use : the fingerprint of the page sent to be displayed on open and whether it lacked its decorations
+    private CalendarPageKey sentOpenCalendarPageKey;
+    private boolean sentOpenCalendarPageProvisional;
+
+    // Internal use : the month of the first enabled day from today and the inputs it was searched with
+    private transient YearMonth firstEnabledYearMonth;
+    private transient LocalDate firstEnabledYearMonthToday;
+    private transient CalendarPageEngine firstEnabledYearMonthEngine;
+    private transient int firstEnabledYearMonthCustomizerVersion;
+
+    // Internal use : the number of previous/next control clicks received from the client
+    private int calendarNavigationCount;
+
+    // Internal use : the direction of the last previous/next control click and the number of clicks in that direction
+    private int calendarNavigationDirection;
+    private int calendarNavigationStreak;
+
+    // Internal use : drops the navigation RPCs flooding the server
+    private final CalendarNavigationRateLimiter calendarNavigationRateLimiter = new CalendarNavigationRateLimiter(
+            CALENDAR_NAVIGATION_BURST, CALENDAR_NAVIGATIONS_PER_SECOND);
+
+    // Internal use : the listeners of the calendar events
+    private final ListenerList<DayClickListener> dayClickListeners = new ListenerList<>();
+    private final ListenerList<CalendarOpenListener> calendarOpenListeners = new ListenerList<>();
+    private final ListenerList<DateChangeListener> dateChangeListeners = new ListenerList<>();
+    private final ListenerList<MonthChangeListener> monthChangeListeners = new ListenerList<>();
+    private final ListenerList<YearChangeListener> yearChangeListeners = new ListenerList<>();
+    private final ListenerList<ResolutionChangeListener> resolutionChangeListeners = new ListenerList<>();
 
     // Internal use : true when UI has a parsable valid string
     boolean uiHasValidDateString = true;
@@ -267,29 +484,52 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
     public TuningDateField(String caption) {
         this();
         setCaption(caption);
-        init();
     }
 
     public TuningDateField(String caption, LocalDate value) {
-        init();
+        this();
         setCaption(caption);
         setLocalDate(value);
 
     }
 
+    /**
+     * Only registers what the client may call. The calendar data (locale texts, displayed month, ...) is created on
+     * first use, as most fields of a form are never opened.
+     */
     private void init() {
-        setupLocaleBasedStaticData(getLocale());
-        initConverter();
-        setYearMonthDisplayed(YearMonth.now());
         registerRpc();
 
-        addValueChangeListener(evt -> fireEvent(new DateChangeEvent(TuningDateField.this,
-                (LocalDate) getConvertedValue())));
+        addValueChangeListener(evt -> {
+            if (!dateChangeListeners.isEmpty()) {
+                DateChangeEvent event = new DateChangeEvent(TuningDateField.this, (LocalDate) getConvertedValue());
+                dateChangeListeners.fire(listener -> listener.dateChange(event));
+            }
+        });
 
     }
 
     private Converter<String, LocalDate> converter;
 
+    // Internal use : memo of the last formatted displayed date
+    private transient LocalDate formattedDate;
+    private transient DateTimeFormatter formattedDateFormatter;
+    private transient String formattedDateText;
+
+    // Internal use : the format allowing the client to parse the date text and the formatter it was built for
+    private transient DateTextFormat dateTextFormat;
+    private transient DateTimeFormatter dateTextFormatFormatter;
+
+    /**
+     * @return the {@link LocalDate} converter for the text field, created on first use
+     */
+    private Converter<String, LocalDate> getConverter() {
+        if (converter == null) {
+            initConverter();
+        }
+        return converter;
+    }
+
     /**
      * Initialize the {@link LocalDate} converter for the text field.
      */
@@ -306,12 +546,7 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
                 }
                 LocalDate modelValue = null;
                 try {
-                    DateTimeFormatter dateTimeFormatter;
-                    if (dateTimeFormatterPattern == null) {
-                        dateTimeFormatter = DateTimeFormatter.ISO_DATE.withLocale(context.getLocale().orElse(getLocale()));
-                    } else {
-                        dateTimeFormatter = DateTimeFormatter.ofPattern(dateTimeFormatterPattern, context.getLocale().orElse(getLocale()));
-                    }
+                    DateTimeFormatter dateTimeFormatter = getDateTimeFormatter(context.getLocale().orElse(getLocale()));
                     modelValue = dateTimeFormatter.parse(value, LocalDate::from);
                 } catch (IllegalArgumentException e) {
                     return Result.error("Cannot convert to model");
@@ -327,12 +562,7 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
                 }
                 String presentationValue = null;
                 try {
-                    DateTimeFormatter dateTimeFormatter;
-                    if (dateTimeFormatterPattern == null) {
-                        dateTimeFormatter = DateTimeFormatter.ISO_DATE.withLocale(context.getLocale().orElse(getLocale()));
-                    } else {
-                        dateTimeFormatter = DateTimeFormatter.ofPattern(dateTimeFormatterPattern, context.getLocale().orElse(getLocale()));
-                    }
+                    DateTimeFormatter dateTimeFormatter = getDateTimeFormatter(context.getLocale().orElse(getLocale()));
                     presentationValue = dateTimeFormatter.format(value);
                 } catch (IllegalArgumentException e) {
                     // Should never happen
@@ -371,8 +601,16 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
             }
 
             @Override
-            public void calendarItemClicked(Integer itemIndex, Integer relativeDateIndex, MouseEventDetails mouseDetails) {
-                onCalendarItemClicked(itemIndex, relativeDateIndex, mouseDetails);
+            public void calendarCellClicked(int cellEpochDay, MouseEventDetails mouseDetails) {
+                boolean optimistic = optimisticSelectionEnabled && calendarResolution.equals(CalendarResolution.DAY);
+                dispatchCalendarCellClicked(LocalDate.ofEpochDay(cellEpochDay), mouseDetails);
+                if (optimistic) {
+                    // The widget has already displayed the day and closed the calendar.
+                    // We force the text update in case the day was rejected or the value changed by a listener.
+                    calendarOpen = false;
+                    forceUpdateTextBoxIndex++;
+                    markAsDirty();
+                }
             }
 
             @Override
@@ -381,13 +619,7 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
                     // First try to convert to model in order to check if text is parseable
                     LocalDate dateFromText = null;
                     if (dateText != null) {
-                        DateTimeFormatter dateTimeFormatter;
-                        
-                        if (dateTimeFormatterPattern == null) {
-                            dateTimeFormatter = DateTimeFormatter.ISO_DATE.withLocale(getLocale());
-                        } else {
-                            dateTimeFormatter = DateTimeFormatter.ofPattern(dateTimeFormatterPattern, getLocale());
-                        }
+                        DateTimeFormatter dateTimeFormatter = getDateTimeFormatter();
                         try {
                             dateFromText = dateTimeFormatter.parse(dateText, LocalDate::from);
                         } catch (IllegalArgumentException | DateTimeParseException e) {
@@ -433,21 +665,16 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
             }
 
             @Override
-            public void previousControlClicked() {
-                if (controlsEnabled) {
-                    goToPreviousCalendarPage();
-                } else {
-                    // wtf ? should never happen
-                }
+            public void dateTextParsed(int epochDay) {
+                // The widget has parsed the text with the same pattern
+                uiHasValidDateString = true;
+                setComponentError(null);
+                setValue(LocalDate.ofEpochDay(epochDay));
             }
 
             @Override
-            public void nextControlClicked() {
-                if (controlsEnabled) {
-                    goToNextCalendarPage();
-                } else {
-                    // wtf ? should never happen
-                }
+            public void navigateCalendar(int offset, int clickCount) {
+                handleCalendarNavigation(offset, clickCount);
             }
 
             @Override
@@ -459,6 +686,13 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
                 }
             }
 
+            @Override
+            public void jumpControlClicked() {
+                if (controlsEnabled && calendarResolution.equals(CalendarResolution.DAY)) {
+                    goToNextEnabledMonth();
+                }
+            }
+
         });
     }
 
@@ -483,7 +717,28 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
         if (localeModified) {
             firstDayOfWeek = null;
             lastDayOfWeek = null;
-            setupLocaleBasedStaticData(locale);
+            updateLocaleBasedStaticData();
+        }
+        // The holiday names are in the locale of the field
+        invalidateCalendarPageEngine();
+    }
+
+    /**
+     * Sets up the locale based data if not done yet. Must be called before using {@link #monthTexts},
+     * {@link #shortMonthTexts}, {@link #weekDayNames}, {@link #firstDayOfWeek} or {@link #lastDayOfWeek}.
+     */
+    protected void ensureLocaleBasedStaticData() {
+        if (weekDayNames == null) {
+            setupLocaleBasedStaticData(getLocale());
+        }
+    }
+
+    /**
+     * Sets up the locale based data again if already used, else it will be set up on first use.
+     */
+    private void updateLocaleBasedStaticData() {
+        if (weekDayNames != null) {
+            setupLocaleBasedStaticData(getLocale());
         }
     }
 
@@ -498,17 +753,19 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
             locale = Locale.getDefault();
         }
 
-        monthTexts = new DateFormatSymbols(locale).getMonths();
-        shortMonthTexts = new DateFormatSymbols(locale).getShortMonths();
+        LocaleCalendarData localeCalendarData = LocaleCalendarData.get(locale);
+        monthTexts = localeCalendarData.getMonthTexts();
+        shortMonthTexts = localeCalendarData.getShortMonthTexts();
 
         // These can be different locale that the translation one
         if (firstDayOfWeek == null) {
-            firstDayOfWeek = getFirstDayOfWeek(locale);
+            firstDayOfWeek = localeCalendarData.getFirstDayOfWeek();
         }
         if (lastDayOfWeek == null) {
-            lastDayOfWeek = getLastDayOfWeek(locale);
+            lastDayOfWeek = localeCalendarData.getDefaultLastDayOfWeek();
         }
         weekDayNames = getWeekDayNames(locale, firstDayOfWeek);
+        invalidateCalendarPageEngine();
     }
 
     /**
@@ -529,6 +786,7 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
 
         removeDateRange();
         dateRangeValidator = new RangeValidator<LocalDate>(errorMessage, Comparator.naturalOrder(), startDate, endDate);
+        invalidateCalendarPageEngine();
 
         markAsDirty();
     }
@@ -536,6 +794,7 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
     public void removeDateRange() {
         if (dateRangeValidator != null) {
             dateRangeValidator = new RangeValidator<LocalDate>("", Comparator.naturalOrder(), null, null);
+            invalidateCalendarPageEngine();
         }
     }
 
@@ -544,57 +803,125 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
      * <ol>
      * <li>date is in range</li>
      * <li>date is not a week-end, or if it is then week-ends are not disabled</li>
-     * <li>date is not disabled by {@link CellItemCustomizer}</li>
+     * <li>date is not one of the {@link #setDisabledDates(DateSet) disabled dates}</li>
+     * <li>date is not a holiday, or if it is then holidays are not disabled</li>
+     * <li>date is not disabled by {@link CellItemCustomizer} or {@link BatchCellItemCustomizer}</li>
      * </ol>
      * 
      * @param date
      *            the date
      * @return <code>true</code> if date is enabled, else returns <code>false</code>
+     * @deprecated overriding this method is still honored, but the pages are then built synchronously and without
+     *             the client default page. Use a {@link BatchCellItemCustomizer} or
+     *             {@link #setDisabledDates(DateSet)} instead.
      */
+    @Deprecated
     protected boolean isDateEnabled(LocalDate date) {
-        boolean enabled = false;
-
-        enabled = isDateInRange(date);
-        if (!enabled) {
-            return enabled;
-        }
+        return isCalendarDateEnabled(date);
+    }
 
-        if (isWeekend(date) && isWeekendDisabled()) {
+    private boolean isCalendarDateEnabled(LocalDate date) {
+        if (!getCalendarPageEngine().isDateEnabled(date)) {
             return false;
         }
 
-        if (enabled && cellItemCustomizer != null) {
-            enabled = cellItemCustomizer.isEnabled(date, this);
+        if (batchCellItemCustomizer != null) {
+            return isEnabled(getDecoration(batchCellItemCustomizer.decorate(date, date, this), 0));
         }
 
-        return enabled;
+        return true;
     }
 
     /**
-     * Returns <code>true</code> if date is in range, else returns <code>false</code>
-     * 
-     * @param date
-     *            the date.
-     * @return <code>true</code> if date is in range, else returns <code>false</code>
+     * @return the days of week which are week-ends, bit <code>n</code> being set for the day of week <code>n+1</code>
      */
-    private boolean isDateInRange(LocalDate date) {
-        if (dateRangeValidator == null) {
-            return true;
-        } else {
-            return !dateRangeValidator.apply(date, new ValueContext(getLocale())).isError();
+    private int getWeekendDaysMask() {
+        int mask = weekendDaysMask;
+        if (mask < 0) {
+            mask = 0;
+            LocalDate monday = LocalDate.ofEpochDay(4); // 1970-01-05
+            for (int i = 0; i < 7; i++) {
+                if (isWeekend(monday.plusDays(i))) {
+                    mask |= 1 << i;
+                }
+            }
+            weekendDaysMask = mask;
         }
+        return mask;
     }
 
     /**
      * <code>true</code> if date is a week-end, else returns <code>false</code>. <br>
-     * Override this method for custom week-ends days.
+     * The week-end days are set by {@link #setWeekendDays(DayOfWeek...)}, or by overriding this method. The week-end
+     * must only depend on the day of week : the calendar evaluates it once for each day of week,
+     * {@link #refreshCalendar()} must be called if it changes.
      * 
      * @param date
      *            the date
      * @return <code>true</code> if date is a week-end, else returns <code>false</code>
      */
     protected boolean isWeekend(LocalDate date) {
-        return date.getDayOfWeek().getValue() >= DayOfWeek.SATURDAY.getValue();
+        return weekendDays.contains(date.getDayOfWeek());
+    }
+
+    /**
+     * Returns the calendar engine configured like this field : first and last day of week, week-ends, disabled days,
+     * date range, month texts and holidays. The customizers are not part of it.<br>
+     * The engine is immutable and thread-safe, it may be used outside of the session lock. A new engine is returned
+     * once the settings of the field change, the subclasses changing the protected fields directly must call
+     * {@link #refreshCalendar()}.
+     * 
+     * @return the calendar engine of this field
+     */
+    public CalendarPageEngine getCalendarPageEngine() {
+        CalendarPageEngine engine = calendarPageEngine;
+        if (engine != null && !calendarPageEngineStale) {
+            return engine;
+        }
+
+        ensureLocaleBasedStaticData();
+        CalendarConfig.Builder configBuilder = CalendarConfig.builder().withFirstDayOfWeek(firstDayOfWeek)
+                .withLastDayOfWeek(lastDayOfWeek).withFixedNumberOfDayRows(isDisplayFixedNumberOfDayRows())
+                .withWeekendDaysMask(getWeekendDaysMask()).withWeekendDisabled(isWeekendDisabled())
+                .withPreviousMonthDisabled(isPreviousMonthDisabled()).withNextMonthDisabled(isNextMonthDisabled())
+                .withDateRange(dateRangeValidator == null ? null : dateRangeValidator.getMinValue(),
+                        dateRangeValidator == null ? null : dateRangeValidator.getMaxValue())
+                .withShortMonthTexts(shortMonthTexts).withDisabledDates(disabledDates)
+                .withEmptyPeriodsDisabled(emptyPeriodsDisabled);
+        for (Map.Entry<String, DateSet> entry : highlightedDates.entrySet()) {
+            configBuilder.withHighlightedDates(entry.getValue(), entry.getKey());
+        }
+        if (holidayProvider != null) {
+            configBuilder.withHolidays(holidayProvider, holidayRegion, getLocale() == null ? Locale.getDefault()
+                    : getLocale()).withHolidaysDisabled(holidaysDisabled).withHolidayStyle(holidayStyle)
+                    .withHolidayTooltipsEnabled(holidayTooltipsEnabled);
+        }
+        CalendarConfig config = configBuilder.build();
+        // The engine and its caches are kept when the settings did not actually change
+        if (engine == null || !engine.getConfig().equals(config)) {
+            engine = new CalendarPageEngine(config);
+            calendarPageEngine = engine;
+        }
+        calendarPageEngineStale = false;
+        return engine;
+    }
+
+    /**
+     * The engine is built again on next use.
+     */
+    private void invalidateCalendarPageEngine() {
+        calendarPageEngineStale = true;
+    }
+
+    /**
+     * Returns the business-day calculator of this field : a business day is neither a week-end, nor a holiday, nor a
+     * disabled day, whatever {@link #isWeekendDisabled()} and {@link #isHolidaysDisabled()}.<br>
+     * Like the engine, it is thread-safe and a new one is returned once the settings of the field change.
+     * 
+     * @return the business-day calculator of this field
+     */
+    public BusinessDayCalculator getBusinessDayCalculator() {
+        return getCalendarPageEngine().getBusinessDayCalculator();
     }
 
     @Override
@@ -602,312 +929,811 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
         return (TuningDateFieldState) super.getState();
     }
 
+    @Override
+    protected TuningDateFieldState getState(boolean markAsDirty) {
+        return (TuningDateFieldState) super.getState(markAsDirty);
+    }
+
+    @Override
+    public void attach() {
+        super.attach();
+        // The locale of the holiday names may be inherited from the parent
+        invalidateCalendarPageEngine();
+    }
+
     @Override
     public void beforeClientResponse(boolean initial) {
         super.beforeClientResponse(initial);
 
-        // For days of first week that are in previous month
-        // Get first day of week of last week's previous month
+        // Only touch the state when a value actually changed, as getState() marks the component as dirty
+        TuningDateFieldState state = getState(false);
+
+        String displayedDateText = null;
         if (getValue() != null) {
-            ((TuningDateFieldState) getState()).setDisplayedDateText(converter.convertToPresentation(getValue(),
-                    new ValueContext(getLocale())));
-        } else {
-            ((TuningDateFieldState) getState()).setDisplayedDateText(null);
+            displayedDateText = formatDisplayedDate(getValue());
+        }
+        if (!SharedUtil.equals(state.getDisplayedDateText(), displayedDateText)) {
+            getState().setDisplayedDateText(displayedDateText);
+        }
+        if (state.isCalendarOpen() != calendarOpen) {
+            getState().setCalendarOpen(calendarOpen);
+        }
+        if (state.isDateTextReadOnly() != dateTextReadOnly) {
+            getState().setDateTextReadOnly(dateTextReadOnly);
+        }
+        DateTextFormat dateTextFormat = getDateTextFormat();
+        if (state.getDateTextFormat() != dateTextFormat) {
+            getState().setDateTextFormat(dateTextFormat);
+        }
+        if (state.isOpenCalendarOnFocusEnabled() != openCalendarOnFocusEnabled) {
+            getState().setOpenCalendarOnFocusEnabled(openCalendarOnFocusEnabled);
+        }
+        if (state.isOptimisticSelectionEnabled() != optimisticSelectionEnabled) {
+            getState().setOptimisticSelectionEnabled(optimisticSelectionEnabled);
+        }
+        boolean mouseDetailsSentOnCalendarClick = !dayClickListeners.isEmpty();
+        if (state.isMouseDetailsSentOnCalendarClick() != mouseDetailsSentOnCalendarClick) {
+            getState().setMouseDetailsSentOnCalendarClick(mouseDetailsSentOnCalendarClick);
         }
-        ((TuningDateFieldState) getState()).setCalendarOpen(calendarOpen);
-        ((TuningDateFieldState) getState()).setDateTextReadOnly(dateTextReadOnly);
-        ((TuningDateFieldState) getState()).setOpenCalendarOnFocusEnabled(openCalendarOnFocusEnabled);
 
         // Dirty hack to force client textBox update when entering multiple times unparsable text
-        ((TuningDateFieldState) getState()).setForceUpdateTextBoxIndex(forceUpdateTextBoxIndex);
-
-        // We send calendar state only if it's open
-        if (calendarOpen) {
-            ((TuningDateFieldState) getState()).setControlsEnabled(controlsEnabled);
-            ((TuningDateFieldState) getState()).setCalendarResolution(calendarResolution);
-
-            if (calendarResolution.equals(CalendarResolution.DAY)) {
-                YearMonth yearMonthDisplayed = getYearMonthDisplayed();
-                String displayedMonthText = monthTexts[yearMonthDisplayed.getMonthValue() - 1];
-                ((TuningDateFieldState) getState()).setCalendarResolutionText(displayedMonthText + " "
-                        + yearMonthDisplayed.getYear());
-                ((TuningDateFieldState) getState()).setWeekHeaderNames(weekDayNames);
-                calendarItems = buildDayItems();
-            } else if (calendarResolution.equals(CalendarResolution.MONTH)) {
-                calendarItems = buildMonthItems();
-                ((TuningDateFieldState) getState()).setCalendarResolutionText(Integer.toString(yearMonthDisplayed
-                        .getYear()));
-            } else if (calendarResolution.equals(CalendarResolution.YEAR)) {
-                calendarItems = buildYearItems();
-                ((TuningDateFieldState) getState()).setCalendarResolutionText(getCalendarFirstYear() + " - "
-                        + getCalendarLastYear());
-            }
-            ((TuningDateFieldState) getState()).setCalendarItems(calendarItems);
+        if (state.getForceUpdateTextBoxIndex() != forceUpdateTextBoxIndex) {
+            getState().setForceUpdateTextBoxIndex(forceUpdateTextBoxIndex);
         }
-
-    }
-
-    // TODO To be checked
-    @Override
-    protected void doSetValue(LocalDate value) {
-        if (!uiHasValidDateString) {
-            // clear component error and parsing flag
-            setComponentError(null);
-            uiHasValidDateString = true;
+        if (state.getCalendarNavigationCount() != calendarNavigationCount) {
+            getState().setCalendarNavigationCount(calendarNavigationCount);
         }
 
-        this.value = value;
-        setComponentError(null);
-        if (!uiHasValidDateString) {
-            // clear component error and parsing flag
-            uiHasValidDateString = true;
-            setComponentError(new UserError(String.format(invalidValueErrorMessage, value)));
-        } else if (dateRangeValidator != null) {
-            ValidationResult result = dateRangeValidator.apply(value, new ValueContext(this));
-            if (result.isError()) {
-                setComponentError(new UserError(String.format(outOfRangeErrorMessage, value)));
+        // We send calendar state only if it's displayed
+        if (isCalendarDisplayed()) {
+            updateCalendarState();
+        } else {
+            // Drop pending asynchronous results, they will be requested again on next opening
+            if (requestedCalendarPageKey != null) {
+                calendarItemsRequestSequence++;
+                requestedCalendarPageKey = null;
+                sentCalendarPageKey = null;
             }
+            updateOpenCalendarPage();
         }
-    }
-
-    @Override
-    public void setValue(LocalDate value) {
-        /*
-         * First handle special case when the client side component have a date string but value is null (e.g.
-         * unparsable date string typed in by the user). No value changes should happen, but we need to do some internal
-         * housekeeping.
-         */
-        if (value == null && !uiHasValidDateString) {
-            /*
-             * Side-effects of doSetValue clears possible previous strings and flags about invalid input.
-             */
-            doSetValue(null);
 
-            markAsDirty();
-            return;
-        }
-        super.setValue(value);
     }
 
-    @Override
-    public LocalDate getValue() {
-        return value;
+    /**
+     * Returns <code>true</code> if the calendar is displayed on client-side, in that case the calendar state is sent
+     * on each response.
+     * 
+     * @return <code>true</code> if the calendar is displayed
+     */
+    protected boolean isCalendarDisplayed() {
+        return calendarOpen;
     }
 
-    protected CalendarItem[] buildDayItems() {
-
-        LocalDate calendarFirstDay = getCalendarFirstDay();
-        LocalDate calendarLastDay = getCalendarLastDay();
-
-        LocalDate firstDayOfMonth = yearMonthDisplayed.atDay(1);
-        LocalDate lastDayOfMonth = yearMonthDisplayed.atDay(yearMonthDisplayed.lengthOfMonth());
+    private void updateCalendarState() {
+        ensureLocaleBasedStaticData();
+        ensureYearMonthDisplayed();
+        if (getState(false).isControlsEnabled() != controlsEnabled) {
+            getState().setControlsEnabled(controlsEnabled);
+        }
+        if (getState(false).isJumpControlVisible() != jumpControlVisible) {
+            getState().setJumpControlVisible(jumpControlVisible);
+        }
 
-        LocalDate today = LocalDate.now();
-        int numberOfDays = (int) ChronoUnit.DAYS.between(calendarFirstDay, calendarLastDay) + 1;
-        LocalDate date = calendarFirstDay;
+        CalendarPageRequest request = createCalendarPageRequest(calendarResolution, yearMonthDisplayed, yearDisplayed);
+        CalendarPageKey pageKey = createCalendarPageKey(request);
+        if (pageKey.equals(sentCalendarPageKey)) {
+            // Client already has this page (or it is being built)
+            return;
+        }
 
-        CalendarItem[] calendarItems = new CalendarItem[numberOfDays];
-        LocalDate currentValue = getLocalDate();
-        for (int i = 0; i < numberOfDays; i++, date = date.plusDays(1)) {
-            calendarItems[i] = new CalendarItem();
+        CalendarGrid grid = createCalendarGrid(request);
+        LocalDate today = request.getToday();
+        CalendarPage defaultPage = grid.buildPage(today.getYear(), today.getMonthValue(), today.getDayOfMonth());
 
-            calendarItems[i].setIndex(i);
-            if (date.getMonthValue() == yearMonthDisplayed.getMonthValue()) {
-                calendarItems[i].setRelativeDateIndex(date.getDayOfMonth());
+        CalendarPage page;
+        if (isDefaultCalendarPage()) {
+            // Nothing to build, the client computes the whole page from the grid
+            page = defaultPage;
+        } else {
+            page = calendarPageCache.get(pageKey);
+        }
+        if (page == null) {
+            if (!isCalendarItemsBuiltAsynchronously()) {
+                page = buildCalendarPage(request);
+                calendarPageCache.put(pageKey, page);
             } else {
-                calendarItems[i].setRelativeDateIndex(-date.getDayOfMonth());
-            }
-
-            String calendarItemContent = null;
-            if (cellItemCustomizer != null) {
-                calendarItemContent = cellItemCustomizer.renderDay(date, this);
-            }
-
-            // fallback to default value
-            if (calendarItemContent == null) {
-                calendarItemContent = Integer.toString(date.getDayOfMonth());
+                if (!pageKey.equals(requestedCalendarPageKey)) {
+                    requestCalendarItems(pageKey, request);
+                }
+                if (calendarPage != null && pageKey.isSamePage(sentCalendarPageKey)) {
+                    // Keep the current items while the same page is rebuilt
+                    sentCalendarPageKey = pageKey;
+                    return;
+                }
+                // else the client displays a loading indicator
             }
-            calendarItems[i].setText(calendarItemContent);
-
-            StringBuilder style = new StringBuilder();
+        }
+        sentCalendarPageKey = pageKey;
+        calendarPage = page;
 
-            if (date.equals(today)) {
-                style.append("today ");
-            }
+        getState().setCalendarResolution(calendarResolution);
+        getState().setCalendarResolutionText(request.getResolutionText());
+        if (calendarResolution.equals(CalendarResolution.DAY)) {
+            getState().setWeekHeaderNames(weekDayNames);
+        }
+        if (calendarResolution.equals(CalendarResolution.MONTH)
+                && getState(false).getShortMonthNames() != shortMonthTexts) {
+            // Default texts of the month calendar, only sent once
+            getState().setShortMonthNames(shortMonthTexts);
+        }
 
-            if (currentValue != null && date.equals(currentValue)) {
-                style.append("selected ");
-            }
+        if (page == null) {
+            sentCalendarGrid = null;
+            getState().setCalendarGrid(null);
+            getState().setCalendarPageDelta(null);
+            getState().setAdjacentCalendarPages(null);
+            return;
+        }
 
-            if (date.isBefore(firstDayOfMonth)) {
-                style.append("previousmonth ");
-                calendarItems[i].setEnabled(!isPreviousMonthDisabled());
-            } else if (date.isAfter(lastDayOfMonth)) {
-                style.append("nextmonth ");
-                calendarItems[i].setEnabled(!isNextMonthDisabled());
-            } else {
-                style.append("currentmonth ");
-                calendarItems[i].setEnabled(isDateEnabled(date));
-            }
+        if (!grid.equals(sentCalendarGrid)) {
+            sentCalendarGrid = grid;
+            calendarGridVersion++;
+            getState().setCalendarGrid(grid);
+            getState().setCalendarGridVersion(calendarGridVersion);
+        }
 
-            if (isWeekend(date)) {
-                style.append("weekend ");
-            }
+        getState().setCalendarPageDelta(createCalendarPageDelta(defaultPage, page, calendarGridVersion));
+        getState().setAdjacentCalendarPages(controlsEnabled ? buildAdjacentCalendarPages(request) : null);
+    }
 
-            if (cellItemCustomizer != null) {
-                String generatedStyle = cellItemCustomizer.getStyle(date, this);
-                if (generatedStyle != null) {
-                    style.append(generatedStyle);
-                    style.append(" ");
-                }
+    /**
+     * Sends the page the calendar displays on open, so that the client draws it without waiting for the server.<br>
+     * The decorations are only included when the page is already cached : otherwise the client draws the default page
+     * and the decorations are merged in when the server answers the open event. Pages are never built here, as the
+     * calendar may never be opened.
+     */
+    private void updateOpenCalendarPage() {
+        YearMonth openYearMonth = getOpenYearMonthDisplayed();
+        CalendarPageRequest request = createCalendarPageRequest(CalendarResolution.DAY, openYearMonth,
+                openYearMonth.getYear());
+        CalendarPageKey pageKey = createCalendarPageKey(request);
+        CalendarPage page = isDefaultCalendarPage() ? null : calendarPageCache.get(pageKey);
+        boolean provisional = !isDefaultCalendarPage() && page == null;
+        if (pageKey.equals(sentOpenCalendarPageKey) && provisional == sentOpenCalendarPageProvisional) {
+            // Client already has this page
+            return;
+        }
+        sentOpenCalendarPageKey = pageKey;
+        sentOpenCalendarPageProvisional = provisional;
+
+        CalendarGrid grid = createCalendarGrid(request);
+        CalendarPageDelta delta = null;
+        if (page != null) {
+            LocalDate today = request.getToday();
+            CalendarPage defaultPage = grid.buildPage(today.getYear(), today.getMonthValue(), today.getDayOfMonth());
+            delta = createCalendarPageDelta(defaultPage, page, 0);
+        }
+        getState().setOpenCalendarPage(new AdjacentCalendarPage(0, grid, delta, request.getResolutionText(),
+                provisional));
+        if (getState(false).getWeekHeaderNames() != weekDayNames) {
+            getState().setWeekHeaderNames(weekDayNames);
+        }
+        if (getState(false).isControlsEnabled() != controlsEnabled) {
+            getState().setControlsEnabled(controlsEnabled);
+        }
+        if (getState(false).isJumpControlVisible() != jumpControlVisible) {
+            getState().setJumpControlVisible(jumpControlVisible);
+        }
+    }
 
-                String tooltip = cellItemCustomizer.getTooltip(date, this);
-                if (tooltip != null) {
-                    calendarItems[i].setTooltip(tooltip);
-                }
+    /**
+     * @return the month displayed when the calendar is opened : the month of the value if any, else the month of the
+     *         first enabled day from today if {@link #isOpenOnFirstEnabledMonth()}
+     */
+    private YearMonth getOpenYearMonthDisplayed() {
+        LocalDate currentValue = getLocalDate();
+        if (currentValue != null) {
+            return YearMonth.from(currentValue);
+        }
+        if (openOnFirstEnabledMonth) {
+            YearMonth firstEnabled = getFirstEnabledYearMonth();
+            if (firstEnabled != null) {
+                return firstEnabled;
             }
+        }
+        if (yearMonthDisplayed == null) {
+            return YearMonth.now();
+        }
+        return yearMonthDisplayed;
+    }
+
+    /**
+     * Returns the month of the first enabled day from today. As the open page is sent on each response, the search is
+     * only done again when the day, the settings or the customizer data (see {@link #refreshCalendar()}) change.
+     * 
+     * @return the month of the first enabled day from today, <code>null</code> if there is none
+     */
+    private YearMonth getFirstEnabledYearMonth() {
+        LocalDate today = LocalDate.now();
+        CalendarPageEngine engine = getCalendarPageEngine();
+        if (!today.equals(firstEnabledYearMonthToday) || engine != firstEnabledYearMonthEngine
+                || customizerVersion != firstEnabledYearMonthCustomizerVersion) {
+            LocalDate firstEnabledDate = findNextEnabledDate(today.minusDays(1));
+            firstEnabledYearMonth = firstEnabledDate == null ? null : YearMonth.from(firstEnabledDate);
+            firstEnabledYearMonthToday = today;
+            firstEnabledYearMonthEngine = engine;
+            firstEnabledYearMonthCustomizerVersion = customizerVersion;
+        }
+        return firstEnabledYearMonth;
+    }
 
-            String computedStyle = style.toString();
-            if (!computedStyle.isEmpty()) {
-                calendarItems[i].setStyle(computedStyle);
+    /**
+     * @return the cells of the page which differ from the default page, <code>null</code> if none
+     */
+    private CalendarPageDelta createCalendarPageDelta(CalendarPage defaultPage, CalendarPage page, int baseVersion) {
+        if (page == defaultPage) {
+            return null;
+        }
+        if (page.size() != defaultPage.size()) {
+            throw new IllegalStateException("The calendar page has " + page.size() + " items instead of "
+                    + defaultPage.size());
+        }
+        int[] changedItemIndexes = defaultPage.getChangedItemIndexes(page);
+        if (changedItemIndexes.length == 0) {
+            return null;
+        }
+        return new CalendarPageDelta(baseVersion, changedItemIndexes, page.subPage(changedItemIndexes));
+    }
+
+    /**
+     * Builds the pages the client displays without waiting for the server when the previous or next control is
+     * clicked : {@link #calendarPrefetchDepth} pages on each side of the displayed page, twice as many in the direction
+     * of the last clicks when the user keeps clicking the same control.<br>
+     * The pages are built from the request of the displayed page moved to their period. When the items are built
+     * asynchronously only the cached pages are pushed.
+     */
+    private AdjacentCalendarPage[] buildAdjacentCalendarPages(CalendarPageRequest request) {
+        if (calendarPrefetchDepth <= 0) {
+            return null;
+        }
+        List<AdjacentCalendarPage> adjacentPages = new ArrayList<>();
+        int extraDepth = calendarNavigationStreak > 1 ? calendarPrefetchDepth : 0;
+        LocalDate today = request.getToday();
+        for (int distance = 1; distance <= calendarPrefetchDepth + extraDepth; distance++) {
+            for (int direction = -1; direction <= 1; direction += 2) {
+                if (distance > calendarPrefetchDepth && direction != calendarNavigationDirection) {
+                    continue;
+                }
+                int offset = direction * distance;
+                YearMonth yearMonth = getAdjacentYearMonthDisplayed(request.getYearMonth(), offset);
+                CalendarPageRequest adjacentRequest = request.withPeriod(yearMonth, yearMonth.getYear());
+
+                CalendarGrid grid = createCalendarGrid(adjacentRequest);
+                CalendarPage defaultPage = grid.buildPage(today.getYear(), today.getMonthValue(),
+                        today.getDayOfMonth());
+                CalendarPage page;
+                if (isDefaultCalendarPage()) {
+                    page = defaultPage;
+                } else {
+                    CalendarPageKey pageKey = createCalendarPageKey(adjacentRequest);
+                    page = calendarPageCache.get(pageKey);
+                    if (page == null && !isCalendarItemsBuiltAsynchronously()
+                            && isCalendarPageBuildable(adjacentRequest)) {
+                        page = buildCalendarPage(adjacentRequest);
+                        calendarPageCache.put(pageKey, page);
+                    }
+                }
+                if (page != null) {
+                    adjacentPages.add(new AdjacentCalendarPage(offset, grid,
+                            createCalendarPageDelta(defaultPage, page, 0), adjacentRequest.getResolutionText()));
+                }
             }
         }
-        return calendarItems;
+        return adjacentPages.toArray(new AdjacentCalendarPage[adjacentPages.size()]);
     }
 
-    protected CalendarItem[] buildMonthItems() {
+    /**
+     * Returns the month displayed after a number of next control clicks.
+     * 
+     * @param offset
+     *            the number of next control clicks, previous control clicks if negative
+     */
+    private YearMonth getAdjacentYearMonthDisplayed(YearMonth yearMonth, int offset) {
+        if (calendarResolution.equals(CalendarResolution.DAY)) {
+            return yearMonth.plusMonths(offset);
+        } else if (calendarResolution.equals(CalendarResolution.MONTH)) {
+            return yearMonth.plusYears(offset);
+        } else {
+            return yearMonth.plusYears(10L * offset);
+        }
+    }
 
-        YearMonth calendarFirstMonth = getCalendarFirstMonth();
-        YearMonth calendarLastMonth = getCalendarLastMonth();
+    /**
+     * Handles previous/next control clicks received from the client, collapsed into a single page offset.<br>
+     * The clicks are always counted, so that the client knows when the server has caught up with the pages it
+     * displayed in advance. When the client floods the server the navigation is dropped and the client gets back the
+     * page actually displayed.
+     * 
+     * @param offset
+     *            the number of pages to move, backwards if negative
+     * @param clickCount
+     *            the number of clicks collapsed into the offset
+     */
+    void handleCalendarNavigation(int offset, int clickCount) {
+        calendarNavigationCount += clickCount;
+        int direction = Integer.signum(offset);
+        if (direction != 0 && direction == calendarNavigationDirection) {
+            calendarNavigationStreak += Math.abs(offset);
+        } else {
+            calendarNavigationDirection = direction;
+            calendarNavigationStreak = Math.abs(offset);
+        }
+        markAsDirty();
 
-        YearMonth currentMonth = YearMonth.now();
+        if (!controlsEnabled) {
+            // wtf ? should never happen
+            return;
+        }
+        if (offset != 0 && calendarNavigationRateLimiter.tryAcquire()) {
+            goToCalendarPage(offset);
+        }
+    }
 
-        int numberOfMonths = (int) ChronoUnit.MONTHS.between(calendarFirstMonth, calendarLastMonth) + 1;
+    /**
+     * @return the parameters from which the client computes the default calendar page of the request
+     */
+    private CalendarGrid createCalendarGrid(CalendarPageRequest request) {
+        CalendarResolution resolution = request.getResolution();
+        CalendarGrid grid = new CalendarGrid();
+        grid.setCalendarResolution(resolution);
+        if (resolution.equals(CalendarResolution.DAY)) {
+            grid.setYear(request.getYearMonth().getYear());
+            grid.setMonth(request.getYearMonth().getMonthValue());
+        } else if (resolution.equals(CalendarResolution.MONTH)) {
+            grid.setYear(request.getYear());
+        } else {
+            grid.setYear(request.getFirstYear());
+            grid.setNumberOfYears(request.getLastYear() - request.getFirstYear() + 1);
+        }
+        grid.setFirstDayOfWeek(firstDayOfWeek);
+        grid.setLastDayOfWeek(lastDayOfWeek);
+        grid.setFixedNumberOfDayRows(isDisplayFixedNumberOfDayRows());
+        CalendarConfig config = request.getEngine().getConfig();
+        grid.setWeekendDaysMask(config.getWeekendDaysMask());
+        grid.setWeekendDisabled(config.isWeekendDisabled());
+        grid.setPreviousMonthDisabled(config.isPreviousMonthDisabled());
+        grid.setNextMonthDisabled(config.isNextMonthDisabled());
+        grid.setRangeStartEpochDay((int) Math.max(config.getRangeStartEpochDay(), Integer.MIN_VALUE));
+        grid.setRangeEndEpochDay((int) Math.min(config.getRangeEndEpochDay(), Integer.MAX_VALUE));
+        LocalDate value = request.getValue();
+        if (value != null) {
+            grid.setSelectedYear(value.getYear());
+            grid.setSelectedMonth(value.getMonthValue());
+            grid.setSelectedDayOfMonth(value.getDayOfMonth());
+        }
+        return grid;
+    }
 
-        CalendarItem[] calendarItems = new CalendarItem[numberOfMonths];
-        YearMonth month = calendarFirstMonth;
-        LocalDate currentValue = getLocalDate();
-        
-        YearMonth currentYearMonthValue = currentValue == null ? null : YearMonth.of(currentValue.getYear(),
-                currentValue.getMonthValue());
-        for (int i = 0; i < numberOfMonths; i++, month = month.plusMonths(1)) {
-            calendarItems[i] = new CalendarItem();
+    /**
+     * Returns <code>true</code> if the calendar page is the default page computed from the {@link CalendarGrid}, i.e.
+     * there is no customizer, no disabled or highlighted dates, no holidays, no availability and the deprecated page
+     * hooks are not overridden.
+     */
+    private boolean isDefaultCalendarPage() {
+        return batchCellItemCustomizer == null && disabledDates.isEmpty() && highlightedDates.isEmpty()
+                && holidayProvider == null && !emptyPeriodsDisabled && !availabilityBadgesEnabled
+                && !hasCustomPageHooks();
+    }
 
-            calendarItems[i].setIndex(i);
-            calendarItems[i].setRelativeDateIndex(month.getMonthValue());
-            calendarItems[i].setEnabled(true); // By default
+    /**
+     * @return <code>true</code> if the class overrides the deprecated page builders or enabled hooks, which read the
+     *         state of the field
+     */
+    private boolean hasCustomPageHooks() {
+        return CUSTOM_PAGE_BUILDERS.get(getClass()) || CUSTOM_ENABLED_HOOKS.get(getClass());
+    }
 
-            StringBuilder style = new StringBuilder("");
+    /**
+     * <code>true</code> for the classes overriding {@link #buildDayItems()}, {@link #buildMonthItems()} or
+     * {@link #buildYearItems()}
+     */
+    private static final ClassValue<Boolean> CUSTOM_PAGE_BUILDERS = new ClassValue<Boolean>() {
 
-            if (month.equals(currentMonth)) {
-                style.append("currentmonth ");
-            }
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return overrides(type, "buildDayItems") || overrides(type, "buildMonthItems")
+                    || overrides(type, "buildYearItems");
+        }
+    };
 
-            if (currentYearMonthValue != null && month.equals(currentYearMonthValue)) {
-                style.append("selected ");
-            }
+    /**
+     * <code>true</code> for the classes overriding {@link #isDateEnabled(LocalDate)},
+     * {@link #isMonthEnabled(YearMonth)} or {@link #isYearEnabled(int)}
+     */
+    private static final ClassValue<Boolean> CUSTOM_ENABLED_HOOKS = new ClassValue<Boolean>() {
 
-            if (cellItemCustomizer != null) {
-                String generatedStyle = cellItemCustomizer.getStyle(month, this);
-                if (generatedStyle != null) {
-                    style.append(generatedStyle);
-                    style.append(" ");
-                }
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return overrides(type, "isDateEnabled", LocalDate.class)
+                    || overrides(type, "isMonthEnabled", YearMonth.class)
+                    || overrides(type, "isYearEnabled", int.class);
+        }
+    };
 
-                String tooltip = cellItemCustomizer.getTooltip(month, this);
-                if (tooltip != null) {
-                    calendarItems[i].setTooltip(tooltip);
-                }
+    /**
+     * @return <code>true</code> if a subclass of {@link TuningDateField} declares the method
+     */
+    private static boolean overrides(Class<?> type, String name, Class<?>... parameterTypes) {
+        for (Class<?> c = type; c != TuningDateField.class && c != InlineTuningDateField.class; c = c.getSuperclass()) {
+            try {
+                c.getDeclaredMethod(name, parameterTypes);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // Not declared by this class
             }
+        }
+        return false;
+    }
 
-            if (isMonthEnabled(month)) {
-                calendarItems[i].setEnabled(true);
-            }
+    /**
+     * @return <code>true</code> if the page can be built for the request : the overridden page builders only build the
+     *         displayed page
+     */
+    private boolean isCalendarPageBuildable(CalendarPageRequest request) {
+        return !CUSTOM_PAGE_BUILDERS.get(getClass()) || isDisplayedCalendarPage(request);
+    }
+
+    private boolean isDisplayedCalendarPage(CalendarPageRequest request) {
+        return request.getResolution().equals(calendarResolution) && request.getYearMonth().equals(yearMonthDisplayed)
+                && request.getYear() == yearDisplayed;
+    }
+
+    /**
+     * Captures the inputs of a page under the session lock, see {@link CalendarPageRequest}.
+     * 
+     * @param resolution
+     *            the resolution of the page
+     * @param yearMonth
+     *            the month displayed in day resolution
+     * @param year
+     *            the year displayed in month resolution, a year of the decade in year resolution
+     */
+    private CalendarPageRequest createCalendarPageRequest(CalendarResolution resolution, YearMonth yearMonth,
+            int year) {
+        ensureLocaleBasedStaticData();
+        return new CalendarPageRequest(resolution, yearMonth, year, getLocalDate(), LocalDate.now(),
+                getCalendarPageEngine(), batchCellItemCustomizer, availabilityBadgesEnabled, monthTexts,
+                shortMonthTexts);
+    }
 
-            String computedStyle = style.toString();
-            if (!computedStyle.isEmpty()) {
-                calendarItems[i].setStyle(computedStyle);
+    /**
+     * @return the fingerprint of all inputs of the page of the request
+     */
+    private CalendarPageKey createCalendarPageKey(CalendarPageRequest request) {
+        LocalDate rangeStart = dateRangeValidator == null ? null : dateRangeValidator.getMinValue();
+        LocalDate rangeEnd = dateRangeValidator == null ? null : dateRangeValidator.getMaxValue();
+        return new CalendarPageKey(request.getResolution(), request.getPeriod(), request.getValue(),
+                request.getToday(), getLocale(), firstDayOfWeek, lastDayOfWeek, rangeStart, rangeEnd, weekendDisabled,
+                previousMonthDisabled, nextMonthDisabled, displayFixedNumberOfDayRows, customizerVersion);
+    }
+
+    /**
+     * Builds the page of the request, from the request only.
+     */
+    private CalendarPage buildCalendarPage(CalendarPageRequest request) {
+        CalendarItem[] items;
+        if (CUSTOM_PAGE_BUILDERS.get(getClass()) && isDisplayedCalendarPage(request)) {
+            // The overridden builders read the displayed period from the field
+            if (request.getResolution().equals(CalendarResolution.DAY)) {
+                items = buildDayItems();
+            } else if (request.getResolution().equals(CalendarResolution.MONTH)) {
+                items = buildMonthItems();
+            } else {
+                items = buildYearItems();
             }
+        } else if (request.getResolution().equals(CalendarResolution.DAY)) {
+            items = createDayItems(request);
+        } else if (request.getResolution().equals(CalendarResolution.MONTH)) {
+            items = createMonthItems(request);
+        } else {
+            items = createYearItems(request);
+        }
+        return CalendarPage.encode(request.getResolution(), items, request.getShortMonthTexts());
+    }
 
-            String calendarItemContent = null;
-            if (cellItemCustomizer != null) {
-                calendarItemContent = cellItemCustomizer.renderMonth(currentYearMonthValue, this);
+    /**
+     * Disables the cells of the displayed period whose overridden enabled hook returns <code>false</code>.
+     */
+    private void applyCustomEnabledHooks(CalendarPageRequest request, CalendarItem[] calendarItems) {
+        if (!CUSTOM_ENABLED_HOOKS.get(getClass())) {
+            return;
+        }
+        for (CalendarItem calendarItem : calendarItems) {
+            int relativeDateIndex = calendarItem.getRelativeDateIndex();
+            if (!calendarItem.isEnabled()) {
+                continue;
             }
-            // fallback to default value
-            if (calendarItemContent == null) {
-                calendarItemContent = shortMonthTexts[i];
+            if (request.getResolution().equals(CalendarResolution.DAY)) {
+                // The days of the previous and next months have a negative index
+                if (relativeDateIndex > 0) {
+                    calendarItem.setEnabled(isDateEnabled(request.getYearMonth().atDay(relativeDateIndex)));
+                }
+            } else if (request.getResolution().equals(CalendarResolution.MONTH)) {
+                calendarItem.setEnabled(isMonthEnabled(YearMonth.of(request.getYear(), relativeDateIndex)));
+            } else {
+                calendarItem.setEnabled(isYearEnabled(relativeDateIndex));
             }
-
-            calendarItems[i].setText(calendarItemContent);
         }
-        return calendarItems;
     }
 
-    protected CalendarItem[] buildYearItems() {
-
-        int calendarFirstYear = getCalendarFirstYear();
-        int calendarLastYear = getCalendarLastYear();
+    /**
+     * @return <code>true</code> if the pages are built by the {@link #calendarItemsExecutor}. A
+     *         {@link CellItemCustomizer} or an overridden page hook was written to be called under the session lock
+     *         with the field, so the pages are then still built synchronously.
+     */
+    private boolean isCalendarItemsBuiltAsynchronously() {
+        return calendarItemsExecutor != null && cellItemCustomizer == null && !hasCustomPageHooks() && getUI() != null;
+    }
 
-        int currentYear = YearMonth.now().getYear();
-        int numberOfYears = calendarLastYear - calendarFirstYear + 1;
+    /**
+     * Builds the calendar items of the page with the {@link #calendarItemsExecutor}. The result is cached and sent to
+     * the client with {@link UI#access(Runnable)} unless another request has been made in the meantime.<br>
+     * The page is built from the request captured under the session lock, the executor thread does not read the state
+     * of the field. The field is still given to the {@link BatchCellItemCustomizer} which must not use it, see
+     * {@link #setCalendarItemsExecutor(Executor)}.
+     */
+    private void requestCalendarItems(final CalendarPageKey pageKey, final CalendarPageRequest request) {
+        final UI ui = getUI();
+        final int sequence = ++calendarItemsRequestSequence;
+        requestedCalendarPageKey = pageKey;
+        calendarItemsExecutor.execute(() -> {
+            final CalendarPage page;
+            try {
+                page = buildCalendarPage(request);
+            } catch (RuntimeException e) {
+                ui.access(() -> {
+                    if (sequence == calendarItemsRequestSequence) {
+                        // Forget the request so that the page is requested again on next response instead of
+                        // displaying the loading indicator forever
+                        calendarItemsRequestSequence++;
+                        requestedCalendarPageKey = null;
+                        sentCalendarPageKey = null;
+                    }
+                    // Let the session error handler deal with it
+                    throw e;
+                });
+                return;
+            }
+            ui.access(() -> {
+                if (sequence == calendarItemsRequestSequence) {
+                    requestedCalendarPageKey = null;
+                    calendarPageCache.put(pageKey, page);
+                    if (pageKey.equals(sentCalendarPageKey)) {
+                        // Force the page to be sent again, now from the cache
+                        sentCalendarPageKey = null;
+                    }
+                    markAsDirty();
+                }
+            });
+        });
+    }
 
-        CalendarItem[] calendarItems = new CalendarItem[numberOfYears];
-        int year = calendarFirstYear;
-        LocalDate currentValue = getLocalDate();
-        Integer currentYearValue = currentValue == null ? null : currentValue.getYear();
-        for (int i = 0; i < numberOfYears; i++, year++) {
-            calendarItems[i] = new CalendarItem();
+    // TODO To be checked
+    @Override
+    protected void doSetValue(LocalDate value) {
+        if (!uiHasValidDateString) {
+            // clear component error and parsing flag
+            setComponentError(null);
+            uiHasValidDateString = true;
+        }
 
-            calendarItems[i].setIndex(i);
-            calendarItems[i].setRelativeDateIndex(year);
-            calendarItems[i].setEnabled(true);
+        this.value = value;
+        setComponentError(null);
+        if (!uiHasValidDateString) {
+            // clear component error and parsing flag
+            uiHasValidDateString = true;
+            setComponentError(new UserError(String.format(invalidValueErrorMessage, value)));
+        } else if (dateRangeValidator != null) {
+            ValidationResult result = dateRangeValidator.apply(value, new ValueContext(this));
+            if (result.isError()) {
+                setComponentError(new UserError(String.format(outOfRangeErrorMessage, value)));
+            }
+        }
+    }
 
-            StringBuilder style = new StringBuilder("");
+    @Override
+    public void setValue(LocalDate value) {
+        /*
+         * First handle special case when the client side component have a date string but value is null (e.g.
+         * unparsable date string typed in by the user). No value changes should happen, but we need to do some internal
+         * housekeeping.
+         */
+        if (value == null && !uiHasValidDateString) {
+            /*
+             * Side-effects of doSetValue clears possible previous strings and flags about invalid input.
+             */
+            doSetValue(null);
 
-            if (year == currentYear) {
-                style.append("currentyear ");
-            }
+            markAsDirty();
+            return;
+        }
+        super.setValue(value);
+    }
 
-            if (currentYearValue != null && year == currentYearValue) {
-                style.append("selected ");
-            }
+    @Override
+    public LocalDate getValue() {
+        return value;
+    }
 
-            if (isYearEnabled(year)) {
-                calendarItems[i].setEnabled(true);
-            }
+    /**
+     * Returns the calendar items displayed, decoded from the {@link #calendarPage} sent to the client.
+     * 
+     * @return a copy of the calendar items displayed, <code>null</code> if the page is not built yet
+     * @deprecated the items are sent as a {@link CalendarPage}, so changing the returned items has no effect. Use a
+     *             {@link BatchCellItemCustomizer} to customize them.
+     */
+    @Deprecated
+    protected CalendarItem[] getCalendarItems() {
+        if (calendarPage == null) {
+            return null;
+        }
+        ensureLocaleBasedStaticData();
+        return calendarPage.decode(shortMonthTexts);
+    }
 
-            if (cellItemCustomizer != null) {
-                String generatedStyle = cellItemCustomizer.getStyle(year, this);
-                if (generatedStyle != null) {
-                    style.append(generatedStyle);
-                    style.append(" ");
-                }
+    /**
+     * @return the calendar items of the day page displayed
+     * @deprecated overriding this method is still honored, but the pages are then built synchronously and without
+     *             the client default page. Use a {@link BatchCellItemCustomizer} instead.
+     */
+    @Deprecated
+    protected CalendarItem[] buildDayItems() {
+        return createDayItems(createCalendarPageRequest(CalendarResolution.DAY, getYearMonthDisplayed(),
+                getYearDisplayed()));
+    }
+
+    private CalendarItem[] createDayItems(CalendarPageRequest request) {
+        CalendarPageModel page = request.getEngine().buildDayPage(request.getYearMonth(), request.getToday(),
+                request.getValue());
+        BatchCellItemCustomizer customizer = request.getCustomizer();
+        CellItemDecoration[] decorations = customizer == null ? null : customizer.decorate(page.getFirstDate(),
+                page.getLastDate(), this);
+        CalendarItem[] calendarItems = createCalendarItems(page, decorations);
+        applyCustomEnabledHooks(request, calendarItems);
+        return calendarItems;
+    }
 
-                String tooltip = cellItemCustomizer.getTooltip(year, this);
-                if (tooltip != null) {
-                    calendarItems[i].setTooltip(tooltip);
-                }
+    /**
+     * @return the calendar items of the month page displayed
+     * @deprecated overriding this method is still honored, but the pages are then built synchronously and without
+     *             the client default page. Use a {@link BatchCellItemCustomizer} instead.
+     */
+    @Deprecated
+    protected CalendarItem[] buildMonthItems() {
+        return createMonthItems(createCalendarPageRequest(CalendarResolution.MONTH, getYearMonthDisplayed(),
+                getYearDisplayed()));
+    }
+
+    private CalendarItem[] createMonthItems(CalendarPageRequest request) {
+        CalendarPageEngine engine = request.getEngine();
+        int year = request.getYear();
+        CalendarPageModel page = engine.buildMonthPage(year, YearMonth.from(request.getToday()), request.getValue());
+        BatchCellItemCustomizer customizer = request.getCustomizer();
+        CellItemDecoration[] decorations = customizer == null ? null : customizer.decorate(YearMonth.of(year, 1),
+                YearMonth.of(year, 12), this);
+        CalendarItem[] calendarItems = createCalendarItems(page, decorations);
+        applyCustomEnabledHooks(request, calendarItems);
+        if (request.isAvailabilityBadgesEnabled()) {
+            AvailabilityIndex availabilityIndex = engine.getAvailabilityIndex();
+            for (CalendarItem calendarItem : calendarItems) {
+                addAvailabilityBadge(calendarItem,
+                        availabilityIndex.getEnabledDays(year, calendarItem.getRelativeDateIndex()));
             }
+        }
+        return calendarItems;
+    }
 
-            String computedStyle = style.toString();
-            if (!computedStyle.isEmpty()) {
-                calendarItems[i].setStyle(computedStyle);
+    /**
+     * @return the calendar items of the year page displayed
+     * @deprecated overriding this method is still honored, but the pages are then built synchronously and without
+     *             the client default page. Use a {@link BatchCellItemCustomizer} instead.
+     */
+    @Deprecated
+    protected CalendarItem[] buildYearItems() {
+        return createYearItems(createCalendarPageRequest(CalendarResolution.YEAR, getYearMonthDisplayed(),
+                getYearDisplayed()));
+    }
+
+    private CalendarItem[] createYearItems(CalendarPageRequest request) {
+        int calendarFirstYear = request.getFirstYear();
+        int calendarLastYear = request.getLastYear();
+        CalendarPageEngine engine = request.getEngine();
+        CalendarPageModel page = engine.buildYearPage(calendarFirstYear, calendarLastYear, request.getToday()
+                .getYear(), request.getValue());
+        BatchCellItemCustomizer customizer = request.getCustomizer();
+        CellItemDecoration[] decorations = customizer == null ? null : customizer.decorate(calendarFirstYear,
+                calendarLastYear, this);
+        CalendarItem[] calendarItems = createCalendarItems(page, decorations);
+        applyCustomEnabledHooks(request, calendarItems);
+        if (request.isAvailabilityBadgesEnabled()) {
+            AvailabilityIndex availabilityIndex = engine.getAvailabilityIndex();
+            for (CalendarItem calendarItem : calendarItems) {
+                addAvailabilityBadge(calendarItem, availabilityIndex.getEnabledDays(calendarItem
+                        .getRelativeDateIndex()));
             }
+        }
+        return calendarItems;
+    }
 
-            String calendarItemContent = null;
-            if (cellItemCustomizer != null) {
-                calendarItemContent = cellItemCustomizer.renderYear(year, this);
-            }
+    /**
+     * Appends the number of enabled days to the text of a month or year cell, styled <code>badge</code>.
+     */
+    private static void addAvailabilityBadge(CalendarItem calendarItem, int enabledDays) {
+        calendarItem.setText(calendarItem.getText() + "<span class=\"badge\">" + enabledDays + "</span>");
+    }
+
+    /**
+     * Applies the decorations of the customizer to the cells of the page built by the engine. The days of the
+     * previous and next months keep the enablement of the engine.
+     */
+    private static CalendarItem[] createCalendarItems(CalendarPageModel page, CellItemDecoration[] decorations) {
+        int numberOfCells = page.getNumberOfCells();
+        CalendarItem[] calendarItems = new CalendarItem[numberOfCells];
+        for (int i = 0; i < numberOfCells; i++) {
+            CellItemDecoration decoration = getDecoration(decorations, i);
+            CalendarItem calendarItem = new CalendarItem();
+            calendarItems[i] = calendarItem;
+
+            calendarItem.setIndex(i);
+            calendarItem.setRelativeDateIndex(page.getRelativeDateIndex(i));
+            calendarItem.setTooltip(page.getTooltip(i));
+
+            String calendarItemContent = decoration == null ? null : decoration.getText();
             // fallback to default value
             if (calendarItemContent == null) {
-                calendarItemContent = Integer.toString(year);
+                calendarItemContent = page.getText(i);
             }
-            calendarItems[i].setText(calendarItemContent);
+            calendarItem.setText(calendarItemContent);
 
+            calendarItem.setEnabled(page.isEnabled(i) && (!page.isInDisplayedPeriod(i) || isEnabled(decoration)));
+
+            decorate(calendarItem, page.getStyle(i), decoration);
         }
         return calendarItems;
     }
 
+    /**
+     * Returns the decoration at <code>index</code> or <code>null</code> if there is none.
+     */
+    private static CellItemDecoration getDecoration(CellItemDecoration[] decorations, int index) {
+        if (decorations == null || index >= decorations.length) {
+            return null;
+        }
+        return decorations[index];
+    }
+
+    private static boolean isEnabled(CellItemDecoration decoration) {
+        return decoration == null || decoration.isEnabled();
+    }
+
+    /**
+     * Applies the customized style and tooltip of the decoration, then sets the computed style of the calendar item.
+     */
+    private static void decorate(CalendarItem calendarItem, String style, CellItemDecoration decoration) {
+        if (decoration != null) {
+            if (decoration.getStyle() != null) {
+                style = style + decoration.getStyle() + " ";
+            }
+            if (decoration.getTooltip() != null) {
+                calendarItem.setTooltip(decoration.getTooltip());
+            }
+        }
+
+        if (!style.isEmpty()) {
+            calendarItem.setStyle(style);
+        }
+    }
+
     /**
      * Sets the localDate value of this field.
      * 
@@ -934,61 +1760,13 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
 
     }
 
-    /**
-     * @return the first day of the calendar. As there are 7 columns displayed, if the first day of month is not in the
-     *         first column, we fill previous column items with days of previous month.
-     */
-    private LocalDate getCalendarFirstDay() {
-        LocalDate firstDayOfMonth = yearMonthDisplayed.atDay(1);
-
-        int calendarFirstDayOfWeek = firstDayOfWeek;
-        int numberOfDaysSinceFirstDayOfWeek = (firstDayOfMonth.getDayOfWeek().getValue() - calendarFirstDayOfWeek + 7) % 7;
-
-        return firstDayOfMonth.minusDays(numberOfDaysSinceFirstDayOfWeek);
-    }
-
-    /**
-     * @return the last day of the calendar. As there are 7 columns displayed, if the last day of month is not in the
-     *         last column, we fill next column items with days of next month.
-     */
-    private LocalDate getCalendarLastDay() {
-        LocalDate lastDayOfMonth = yearMonthDisplayed.atDay(yearMonthDisplayed.lengthOfMonth());
-
-        int calendarLastDayOfWeek = lastDayOfWeek;
-
-        int numberOfDaysUntilLastDayOfWeek = (calendarLastDayOfWeek - lastDayOfMonth.getDayOfWeek().getValue() + 7) % 7;
-
-        LocalDate lastDay = lastDayOfMonth.plusDays(numberOfDaysUntilLastDayOfWeek);
-        if (isDisplayFixedNumberOfDayRows()) {
-            // Always display 6 day rows
-            int numberOfDays = (int) ChronoUnit.DAYS.between(getCalendarFirstDay(), lastDay) + 1;
-            if (numberOfDays / 7 < 5) {
-                lastDay = lastDay.plusDays(14);
-            } else if (numberOfDays / 7 < 6) {
-                lastDay = lastDay.plusDays(7);
-            }
-        }
-
-        return lastDay;
-
-    }
-
-    private YearMonth getCalendarFirstMonth() {
-        return YearMonth.of(yearDisplayed, 1);
-    }
-
-    private YearMonth getCalendarLastMonth() {
-        return YearMonth.of(yearDisplayed, 12);
-
-    }
-
     /**
      * If current year displayed is 1954, the range is 1949-1960.
      * 
      * @return the calendar first year.
      */
     protected int getCalendarFirstYear() {
-        return yearDisplayed - yearDisplayed % 10 - 1;
+        return getCalendarPageEngine().getCalendarFirstYear(yearDisplayed);
     }
 
     /**
@@ -997,54 +1775,57 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
      * @return the calendar last year.
      */
     protected int getCalendarLastYear() {
-        return yearDisplayed - yearDisplayed % 10 + 10;
+        return getCalendarPageEngine().getCalendarLastYear(yearDisplayed);
     }
 
     /**
-     * Returns the selected date from the dayOfMonth. <br>
-     * If dayOfMonth is negative, selected date is on previous or next month according its value.
-     * 
-     * @param dayOfMonth
-     *            the day of month
-     * @return the selected date from the dayOfMonth.
+     * Called when the calendar is open on client-side
      */
-    private LocalDate getSelectedDate(int dayOfMonth) {
-        if (dayOfMonth >= 0) {
-            return yearMonthDisplayed.atDay(dayOfMonth);
-        } else {
-            if (dayOfMonth < -7) {
-                // previous month
-                return yearMonthDisplayed.minusMonths(1).atDay(-dayOfMonth);
-            } else {
-                // next month
-                return yearMonthDisplayed.plusMonths(1).atDay(-dayOfMonth);
-            }
+    private void onCalendarOpen() {
+        calendarResolution = CalendarResolution.DAY;
+        yearMonthDisplayed = getOpenYearMonthDisplayed();
+
+        if (!calendarOpenListeners.isEmpty()) {
+            CalendarOpenEvent event = new CalendarOpenEvent(this, yearMonthDisplayed);
+            calendarOpenListeners.fire(listener -> listener.calendarOpen(event));
         }
 
-    }
+        calendarOpen = true;
 
-    private YearMonth getSelectedMonth(int monthOfYear) {
-        return YearMonth.of(yearDisplayed, monthOfYear);
+        markAsDirty();
     }
 
     /**
-     * Called when the calendar is open on client-side
+     * Calls {@link #onCalendarItemClicked(int, int, MouseEventDetails)} if a subclass overrides it, else
+     * {@link #onCalendarCellClicked(LocalDate, MouseEventDetails)}.
      */
-    private void onCalendarOpen() {
-        calendarResolution = CalendarResolution.DAY;
-        LocalDate currentValue = getLocalDate();
-        if (currentValue != null) {
-            yearMonthDisplayed = YearMonth.from(currentValue);
-        } else if (yearMonthDisplayed == null) {
-            yearMonthDisplayed = YearMonth.now();
+    void dispatchCalendarCellClicked(LocalDate cellDate, MouseEventDetails mouseDetails) {
+        if (!CUSTOM_ITEM_CLICK_HANDLERS.get(getClass())) {
+            onCalendarCellClicked(cellDate, mouseDetails);
+        } else if (calendarResolution.equals(CalendarResolution.DAY)) {
+            LocalDate firstDay = getCalendarPageEngine().getCalendarFirstDay(yearMonthDisplayed);
+            boolean currentMonth = YearMonth.from(cellDate).equals(yearMonthDisplayed);
+            onCalendarItemClicked((int) (cellDate.toEpochDay() - firstDay.toEpochDay()), currentMonth ? cellDate
+                    .getDayOfMonth() : -cellDate.getDayOfMonth(), mouseDetails);
+        } else if (calendarResolution.equals(CalendarResolution.MONTH)) {
+            if (cellDate.getYear() == yearDisplayed) {
+                onCalendarItemClicked(cellDate.getMonthValue() - 1, cellDate.getMonthValue(), mouseDetails);
+            }
+        } else {
+            onCalendarItemClicked(cellDate.getYear() - getCalendarFirstYear(), cellDate.getYear(), mouseDetails);
         }
+    }
 
-        fireEvent(new CalendarOpenEvent(this, yearMonthDisplayed));
-
-        calendarOpen = true;
+    /**
+     * <code>true</code> for the classes overriding {@link #onCalendarItemClicked(int, int, MouseEventDetails)}
+     */
+    private static final ClassValue<Boolean> CUSTOM_ITEM_CLICK_HANDLERS = new ClassValue<Boolean>() {
 
-        markAsDirty();
-    }
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return overrides(type, "onCalendarItemClicked", int.class, int.class, MouseEventDetails.class);
+        }
+    };
 
     /**
      * Called when user clicked on cell item
@@ -1052,32 +1833,74 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
      * @param itemIndex
      *            the item index
      * @param relativeDateIndex
-     *            is dayOfMonth in day resolution, monthOfYear in month resolution, year in year resolution
+     *            is dayOfMonth in day resolution (negative for the days of the previous and next months), monthOfYear
+     *            in month resolution, year in year resolution
      * @param mouseDetails
      *            the mouse details info
+     * @deprecated overriding this method is still honored, use
+     *             {@link #onCalendarCellClicked(LocalDate, MouseEventDetails)} instead
      */
+    @Deprecated
     protected void onCalendarItemClicked(int itemIndex, int relativeDateIndex, MouseEventDetails mouseDetails) {
+        LocalDate cellDate;
+        if (calendarResolution.equals(CalendarResolution.DAY)) {
+            if (relativeDateIndex >= 0) {
+                cellDate = yearMonthDisplayed.atDay(relativeDateIndex);
+            } else if (relativeDateIndex < -7) {
+                // previous month
+                cellDate = yearMonthDisplayed.minusMonths(1).atDay(-relativeDateIndex);
+            } else {
+                // next month
+                cellDate = yearMonthDisplayed.plusMonths(1).atDay(-relativeDateIndex);
+            }
+        } else if (calendarResolution.equals(CalendarResolution.MONTH)) {
+            cellDate = LocalDate.of(yearDisplayed, relativeDateIndex, 1);
+        } else {
+            cellDate = LocalDate.of(relativeDateIndex, 1, 1);
+        }
+        onCalendarCellClicked(cellDate, mouseDetails);
+    }
+
+    /**
+     * Called when user clicked on a cell. Clicks on a cell which is not displayed by the calendar are ignored.
+     * 
+     * @param cellDate
+     *            the day in day resolution, the first day of the month in month resolution and the first day of the
+     *            year in year resolution
+     * @param mouseDetails
+     *            the mouse details info, <code>null</code> when no {@link DayClickListener} is registered
+     */
+    protected void onCalendarCellClicked(LocalDate cellDate, MouseEventDetails mouseDetails) {
         if (calendarResolution.equals(CalendarResolution.DAY)) {
-            if (isDateEnabled(getSelectedDate(relativeDateIndex))) { // We check the date is not disabled
-                LocalDate selectedDate = getSelectedDate(relativeDateIndex);
-                fireEvent(new DayClickEvent(this, mouseDetails, selectedDate));
+            // The calendar displays some days of the previous and next months
+            YearMonth cellMonth = YearMonth.from(cellDate);
+            boolean displayed = !cellMonth.isBefore(yearMonthDisplayed.minusMonths(1))
+                    && !cellMonth.isAfter(yearMonthDisplayed.plusMonths(1));
+            if (displayed && isDateEnabled(cellDate)) { // We check the date is not disabled
+                LocalDate selectedDate = cellDate;
+                if (!dayClickListeners.isEmpty()) {
+                    DayClickEvent event = new DayClickEvent(this, mouseDetails, selectedDate);
+                    dayClickListeners.fire(listener -> listener.dayClick(event));
+                }
                 setConvertedValue(selectedDate);
                 // Should now close the calendar
                 calendarOpen = false;
             }
         } else if (calendarResolution.equals(CalendarResolution.MONTH)) {
-            if (isMonthEnabled(getSelectedMonth(relativeDateIndex))) {
-                YearMonth selectedMonth = getSelectedMonth(relativeDateIndex);
+            YearMonth selectedMonth = YearMonth.from(cellDate);
+            if (selectedMonth.getYear() == yearDisplayed && isMonthEnabled(selectedMonth)) {
                 setYearMonthDisplayed(selectedMonth);
                 setCalendarResolution(CalendarResolution.DAY);
-                fireEvent(new ResolutionChangeEvent(this, Resolution.DAY));
-                fireEvent(new MonthChangeEvent(this, selectedMonth));
+                fireResolutionChange(Resolution.DAY);
+                fireMonthChange(selectedMonth);
             }
         } else if (calendarResolution.equals(CalendarResolution.YEAR)) {
-            if (isYearEnabled(relativeDateIndex)) {
-                setYearMonthDisplayed(YearMonth.of(relativeDateIndex, getYearMonthDisplayed().getMonthValue()));
+            int selectedYear = cellDate.getYear();
+            if (selectedYear >= getCalendarFirstYear() && selectedYear <= getCalendarLastYear()
+                    && isYearEnabled(selectedYear)) {
+                setYearMonthDisplayed(YearMonth.of(selectedYear, getYearMonthDisplayed().getMonthValue()));
                 setCalendarResolution(CalendarResolution.MONTH);
-                fireEvent(new ResolutionChangeEvent(this, Resolution.MONTH));
+                fireResolutionChange(Resolution.MONTH);
             }
         }
     }
@@ -1086,32 +1909,104 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
      * Called when user clicked on the next page control
      */
     public void goToNextCalendarPage() {
-        if (calendarResolution.equals(CalendarResolution.DAY)) {
-            setYearMonthDisplayed(yearMonthDisplayed.plusMonths(1));
-            fireEvent(new MonthChangeEvent(this, yearMonthDisplayed));
-        } else if (calendarResolution.equals(CalendarResolution.MONTH)) {
-            setYearMonthDisplayed(yearMonthDisplayed.plusYears(1));
-            fireEvent(new YearChangeEvent(this, yearDisplayed));
-        } else if (calendarResolution.equals(CalendarResolution.YEAR)) {
-            setYearMonthDisplayed(yearMonthDisplayed.plusYears(10));
-        }
-
+        goToCalendarPage(1);
     }
 
     /**
      * Called when user clicked on the previous page control
      */
     public void goToPreviousCalendarPage() {
+        goToCalendarPage(-1);
+    }
+
+    /**
+     * Moves the calendar by a number of pages, firing a single month or year change event for the final page.
+     * 
+     * @param offset
+     *            the number of next pages, previous pages if negative
+     */
+    public void goToCalendarPage(int offset) {
+        setYearMonthDisplayed(getAdjacentYearMonthDisplayed(getYearMonthDisplayed(), offset));
         if (calendarResolution.equals(CalendarResolution.DAY)) {
-            setYearMonthDisplayed(yearMonthDisplayed.minusMonths(1));
-            fireEvent(new MonthChangeEvent(this, yearMonthDisplayed));
+            fireMonthChange(yearMonthDisplayed);
         } else if (calendarResolution.equals(CalendarResolution.MONTH)) {
-            setYearMonthDisplayed(yearMonthDisplayed.minusYears(1));
-            fireEvent(new YearChangeEvent(this, yearDisplayed));
-        } else if (calendarResolution.equals(CalendarResolution.YEAR)) {
-            setYearMonthDisplayed(yearMonthDisplayed.minusYears(10));
+            fireYearChange(yearDisplayed);
+        }
+    }
+
+    /**
+     * Called when user clicked on the jump control : displays the month of the first enabled day after the displayed
+     * month. Nothing happens if there is none.
+     */
+    public void goToNextEnabledMonth() {
+        LocalDate nextEnabledDate = findNextEnabledDate(getYearMonthDisplayed().atEndOfMonth());
+        if (nextEnabledDate != null) {
+            setYearMonthDisplayed(YearMonth.from(nextEnabledDate));
+            fireMonthChange(yearMonthDisplayed);
+        }
+    }
+
+    /**
+     * Returns the first enabled day after a date, i.e. a day enabled in the calendar.<br>
+     * The candidates are found by the {@link CalendarPageEngine#findNextEnabledDate(LocalDate, LocalDate) engine},
+     * which skips the months without any enabled day and applies the range, week-ends, disabled dates and holidays. The
+     * customizer is then asked once for the rest of the month of a candidate. The search stops at the end of the range
+     * or after {@value #ENABLED_DATE_SEARCH_YEARS} years.
+     * 
+     * @param from
+     *            the date (excluded)
+     * @return the first enabled day after the date, <code>null</code> if there is none
+     */
+    public LocalDate findNextEnabledDate(LocalDate from) {
+        CalendarPageEngine engine = getCalendarPageEngine();
+        LocalDate searchEnd = from.plusYears(ENABLED_DATE_SEARCH_YEARS);
+        LocalDate date = engine.findNextEnabledDate(from, searchEnd);
+        while (date != null) {
+            if (batchCellItemCustomizer == null && !CUSTOM_ENABLED_HOOKS.get(getClass())) {
+                return date;
+            }
+            LocalDate lastDayOfMonth = date.withDayOfMonth(date.lengthOfMonth());
+            CellItemDecoration[] decorations = batchCellItemCustomizer == null ? null : batchCellItemCustomizer
+                    .decorate(date, lastDayOfMonth, this);
+            for (int i = 0; !date.plusDays(i).isAfter(lastDayOfMonth); i++) {
+                if (isEnabled(getDecoration(decorations, i)) && engine.isDateEnabled(date.plusDays(i))
+                        && (!CUSTOM_ENABLED_HOOKS.get(getClass()) || isDateEnabled(date.plusDays(i)))) {
+                    return date.plusDays(i);
+                }
+            }
+            date = engine.findNextEnabledDate(lastDayOfMonth, searchEnd);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the last enabled day before a date, see {@link #findNextEnabledDate(LocalDate)}. The search stops at the
+     * start of the range or after {@value #ENABLED_DATE_SEARCH_YEARS} years.
+     * 
+     * @param from
+     *            the date (excluded)
+     * @return the last enabled day before the date, <code>null</code> if there is none
+     */
+    public LocalDate findPreviousEnabledDate(LocalDate from) {
+        CalendarPageEngine engine = getCalendarPageEngine();
+        LocalDate searchStart = from.minusYears(ENABLED_DATE_SEARCH_YEARS);
+        LocalDate date = engine.findPreviousEnabledDate(from, searchStart);
+        while (date != null) {
+            if (batchCellItemCustomizer == null && !CUSTOM_ENABLED_HOOKS.get(getClass())) {
+                return date;
+            }
+            LocalDate firstDayOfMonth = date.withDayOfMonth(1);
+            CellItemDecoration[] decorations = batchCellItemCustomizer == null ? null : batchCellItemCustomizer
+                    .decorate(firstDayOfMonth, date, this);
+            for (int i = date.getDayOfMonth() - 1; i >= 0; i--) {
+                if (isEnabled(getDecoration(decorations, i)) && engine.isDateEnabled(firstDayOfMonth.plusDays(i))
+                        && (!CUSTOM_ENABLED_HOOKS.get(getClass()) || isDateEnabled(firstDayOfMonth.plusDays(i)))) {
+                    return firstDayOfMonth.plusDays(i);
+                }
+            }
+            date = engine.findPreviousEnabledDate(firstDayOfMonth, searchStart);
         }
-
+        return null;
     }
 
     /**
@@ -1120,38 +2015,60 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
     public void swithToHigherCalendarResolution() {
         if (calendarResolution.equals(CalendarResolution.DAY)) {
             setCalendarResolution(CalendarResolution.MONTH);
-            fireEvent(new ResolutionChangeEvent(this, Resolution.MONTH));
+            fireResolutionChange(Resolution.MONTH);
         } else if (calendarResolution.equals(CalendarResolution.MONTH)) {
             setCalendarResolution(CalendarResolution.YEAR);
-            fireEvent(new ResolutionChangeEvent(this, Resolution.YEAR));
+            fireResolutionChange(Resolution.YEAR);
         }
         markAsDirty();
     }
 
     /**
-     * Returns true if month is enabled. Default implementations returns {@link CellItemCustomizer} value if any.
+     * Returns true if month is enabled. Default implementations returns false for a month without any enabled day if
+     * {@link #isEmptyPeriodsDisabled()}, else the customizer value if any.
      * 
      * @param yearMonth
      *            the month
      * @return true if month is enabled.
+     * @deprecated overriding this method is still honored, but the pages are then built synchronously and without
+     *             the client default page. Use a {@link BatchCellItemCustomizer} instead.
      */
+    @Deprecated
     protected boolean isMonthEnabled(YearMonth yearMonth) {
-        if (cellItemCustomizer != null) {
-            return cellItemCustomizer.isEnabled(yearMonth, this);
+        return isCalendarMonthEnabled(yearMonth);
+    }
+
+    private boolean isCalendarMonthEnabled(YearMonth yearMonth) {
+        if (emptyPeriodsDisabled && getCalendarPageEngine().getAvailabilityIndex().getEnabledDays(yearMonth) == 0) {
+            return false;
+        }
+        if (batchCellItemCustomizer != null) {
+            return isEnabled(getDecoration(batchCellItemCustomizer.decorate(yearMonth, yearMonth, this), 0));
         }
         return true;
     }
 
     /**
-     * Returns true if year is enabled. Default implementations returns {@link CellItemCustomizer} value if any.
+     * Returns true if year is enabled. Default implementations returns false for a year without any enabled day if
+     * {@link #isEmptyPeriodsDisabled()}, else the customizer value if any.
      * 
      * @param year
      *            the year
      * @return true if year is enabled.
+     * @deprecated overriding this method is still honored, but the pages are then built synchronously and without
+     *             the client default page. Use a {@link BatchCellItemCustomizer} instead.
      */
+    @Deprecated
     protected boolean isYearEnabled(int year) {
-        if (cellItemCustomizer != null) {
-            return cellItemCustomizer.isEnabled(year, this);
+        return isCalendarYearEnabled(year);
+    }
+
+    private boolean isCalendarYearEnabled(int year) {
+        if (emptyPeriodsDisabled && getCalendarPageEngine().getAvailabilityIndex().getEnabledDays(year) == 0) {
+            return false;
+        }
+        if (batchCellItemCustomizer != null) {
+            return isEnabled(getDecoration(batchCellItemCustomizer.decorate(year, year, this), 0));
         }
         return true;
     }
@@ -1165,122 +2082,132 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
      *            the locale
      * @param firstDayOfWeek
      *            the first day of week
-     * @return the week header names in the order of appearance in the calendar.
+     * @return the week header names in the order of appearance in the calendar. The returned array is shared and
+     *         must not be modified.
      */
     protected String[] getWeekDayNames(Locale locale, int firstDayOfWeek) {
-        String[] weekHeaderNames = new String[7];
-
-        String[] weekDays = DateFormatSymbols.getInstance(locale).getShortWeekdays();
-        for (int i = 0; i < 7; i++) {
-            weekHeaderNames[i] = weekDays[(firstDayOfWeek + i) % 7 + 1];
-        }
-        return weekHeaderNames;
+        return LocaleCalendarData.get(locale, firstDayOfWeek).getWeekDayNames();
     }
 
     /**
-     * Gets the first day of the week, in the given locale.
-     * 
-     * @param locale
-     *            the locale
-     * @return a value in the range of {@link DateTimeConstants#MONDAY} to {@link DateTimeConstants#SUNDAY}.
-     */
-    private final int getFirstDayOfWeek(Locale locale) {
-        Calendar calendar;
-        if (locale != null) {
-            calendar = Calendar.getInstance(locale);
-        } else {
-            calendar = Calendar.getInstance();
-        }
-        return ((calendar.getFirstDayOfWeek() + 5) % 7) + 1;
-    }
-
-    /**
-     * Gets the last day of the week, in the given locale.
-     * 
-     * @param locale
-     *            the locale
-     * @return a value in the range of {@link DateTimeConstants#MONDAY} to {@link DateTimeConstants#SUNDAY}.
+     * @deprecated the listeners are called directly, use {@link #addDayClickListener(DayClickListener)}
      */
-    private final int getLastDayOfWeek(Locale locale) {
-        Calendar calendar;
-        if (locale != null) {
-            calendar = Calendar.getInstance(locale);
-        } else {
-            calendar = Calendar.getInstance();
-        }
-        return ((calendar.getFirstDayOfWeek() + 4) % 7) + 1;
-    }
-
+    @Deprecated
     public static final Method DAY_CLICK_METHOD = ReflectTools.findMethod(DayClickListener.class, "dayClick",
             DayClickEvent.class);
 
-    public void addDayClickListener(DayClickListener listener) {
-        addListener(DayClickEvent.class, listener, DAY_CLICK_METHOD);
+    public Registration addDayClickListener(DayClickListener listener) {
+        Registration registration = dayClickListeners.add(listener);
+        // The client now sends the mouse details
+        markAsDirty();
+        return () -> {
+            registration.remove();
+            markAsDirty();
+        };
     }
 
     public void removeItemClickListener(DayClickListener listener) {
-        removeListener(DayClickEvent.class, listener, DAY_CLICK_METHOD);
+        dayClickListeners.remove(listener);
+        markAsDirty();
     }
 
+    /**
+     * @deprecated the listeners are called directly, use {@link #addCalendarOpenListener(CalendarOpenListener)}
+     */
+    @Deprecated
     public static final Method CALENDAR_OPEN_METHOD = ReflectTools.findMethod(CalendarOpenListener.class,
             "calendarOpen", CalendarOpenEvent.class);
 
-    public void addCalendarOpenListener(CalendarOpenListener listener) {
-        addListener(CalendarOpenEvent.class, listener, CALENDAR_OPEN_METHOD);
+    public Registration addCalendarOpenListener(CalendarOpenListener listener) {
+        return calendarOpenListeners.add(listener);
     }
 
     public void removeCalendarOpenListener(CalendarOpenListener listener) {
-        removeListener(CalendarOpenEvent.class, listener, CALENDAR_OPEN_METHOD);
+        calendarOpenListeners.remove(listener);
     }
 
+    /**
+     * @deprecated the listeners are called directly, use {@link #addDateChangeListener(DateChangeListener)}
+     */
+    @Deprecated
     public static final Method DATE_CHANGE_METHOD = ReflectTools.findMethod(DateChangeListener.class, "dateChange",
             DateChangeEvent.class);
 
-    public void addDateChangeListener(DateChangeListener listener) {
-        addListener(DateChangeEvent.class, listener, DATE_CHANGE_METHOD);
+    public Registration addDateChangeListener(DateChangeListener listener) {
+        return dateChangeListeners.add(listener);
     }
 
     public void removeDateChangeListener(DateChangeListener listener) {
-        removeListener(DateChangeEvent.class, listener, DATE_CHANGE_METHOD);
+        dateChangeListeners.remove(listener);
     }
 
+    /**
+     * @deprecated the listeners are called directly, use {@link #addMonthChangeListener(MonthChangeListener)}
+     */
+    @Deprecated
     public static final Method MONTH_CHANGE_METHOD = ReflectTools.findMethod(MonthChangeListener.class, "monthChange",
             MonthChangeEvent.class);
 
-    public void addMonthChangeListener(MonthChangeListener listener) {
-        addListener(MonthChangeEvent.class, listener, MONTH_CHANGE_METHOD);
+    public Registration addMonthChangeListener(MonthChangeListener listener) {
+        return monthChangeListeners.add(listener);
     }
 
     public void removeMonthChangeListener(MonthChangeListener listener) {
-        removeListener(MonthChangeEvent.class, listener, MONTH_CHANGE_METHOD);
+        monthChangeListeners.remove(listener);
     }
 
+    /**
+     * @deprecated the listeners are called directly, use {@link #addYearChangeListener(YearChangeListener)}
+     */
+    @Deprecated
     public static final Method YEAR_CHANGE_METHOD = ReflectTools.findMethod(YearChangeListener.class, "yearChange",
             YearChangeEvent.class);
 
-    public void addYearChangeListener(YearChangeListener listener) {
-        addListener(YearChangeEvent.class, listener, YEAR_CHANGE_METHOD);
+    public Registration addYearChangeListener(YearChangeListener listener) {
+        return yearChangeListeners.add(listener);
     }
 
     public void removeYearChangeListener(YearChangeListener listener) {
-        removeListener(YearChangeEvent.class, listener, YEAR_CHANGE_METHOD);
+        yearChangeListeners.remove(listener);
     }
 
+    /**
+     * @deprecated the listeners are called directly, use
+     *             {@link #addResolutionChangeListener(ResolutionChangeListener)}
+     */
+    @Deprecated
     public static final Method RESOLUTION_CHANGE_METHOD = ReflectTools.findMethod(ResolutionChangeListener.class,
             "resolutionChange", ResolutionChangeEvent.class);
 
-    public void addResolutionChangeListener(ResolutionChangeListener listener) {
-        addListener(ResolutionChangeEvent.class, listener, RESOLUTION_CHANGE_METHOD);
+    public Registration addResolutionChangeListener(ResolutionChangeListener listener) {
+        return resolutionChangeListeners.add(listener);
     }
 
     public void removeResolutionChangeListener(ResolutionChangeListener listener) {
-        removeListener(ResolutionChangeEvent.class, listener, RESOLUTION_CHANGE_METHOD);
+        resolutionChangeListeners.remove(listener);
+    }
+
+    // The events are only created when there are listeners
+
+    private void fireMonthChange(YearMonth yearMonth) {
+        if (!monthChangeListeners.isEmpty()) {
+            MonthChangeEvent event = new MonthChangeEvent(this, yearMonth);
+            monthChangeListeners.fire(listener -> listener.monthChange(event));
+        }
+    }
+
+    private void fireYearChange(int year) {
+        if (!yearChangeListeners.isEmpty()) {
+            YearChangeEvent event = new YearChangeEvent(this, year);
+            yearChangeListeners.fire(listener -> listener.yearChange(event));
+        }
     }
 
-    // Used to rebuild transient variables
-    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
-        in.defaultReadObject();
-        setupLocaleBasedStaticData(getLocale());
+    private void fireResolutionChange(Resolution resolution) {
+        if (!resolutionChangeListeners.isEmpty()) {
+            ResolutionChangeEvent event = new ResolutionChangeEvent(this, resolution);
+            resolutionChangeListeners.fire(listener -> listener.resolutionChange(event));
+        }
     }
 
     /**
@@ -1297,7 +2224,7 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
         } else {
             this.firstDayOfWeek = firstDayOfWeek;
         }
-        setupLocaleBasedStaticData(getLocale());
+        updateLocaleBasedStaticData();
         markAsDirty();
     }
 
@@ -1315,7 +2242,7 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
         } else {
             this.lastDayOfWeek = lastDayOfWeek;
         }
-        setupLocaleBasedStaticData(getLocale());
+        updateLocaleBasedStaticData();
         markAsDirty();
     }
 
@@ -1323,9 +2250,20 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
      * @return the monthDisplayed
      */
     public YearMonth getYearMonthDisplayed() {
+        ensureYearMonthDisplayed();
         return yearMonthDisplayed;
     }
 
+    /**
+     * Sets the displayed month to the current month if not set yet, it is only needed once the calendar is used.
+     */
+    private void ensureYearMonthDisplayed() {
+        if (yearMonthDisplayed == null) {
+            yearMonthDisplayed = YearMonth.now();
+            yearDisplayed = yearMonthDisplayed.getYear();
+        }
+    }
+
     /**
      * @param yearMonthDisplayed
      *            the yearMonthDisplayed to set
@@ -1340,6 +2278,7 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
      * @return the yearDisplayed
      */
     public Integer getYearDisplayed() {
+        ensureYearMonthDisplayed();
         return yearDisplayed;
     }
 
@@ -1358,11 +2297,94 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
      * @return the {@link DateTimeFormatter} used.
      */
     public DateTimeFormatter getDateTimeFormatter() {
-        if (dateTimeFormatterPattern == null) {
-            return DateTimeFormatter.ISO_DATE.withLocale(getLocale());
-        } else {
-            return DateTimeFormatter.ofPattern(dateTimeFormatterPattern, getLocale());
+        return getDateTimeFormatter(getLocale());
+    }
+
+    /**
+     * Returns the {@link DateTimeFormatter} set by {@link #setDateTimeFormatter(DateTimeFormatter)} or else of the
+     * current pattern in the given locale.<br>
+     * Formatters of a pattern are compiled once and shared by all fields using the same pattern and locale.<br>
+     * A subclass overriding this method must also override {@link #isPatternBasedDateTimeFormatter()}.
+     * 
+     * @param locale
+     *            the locale
+     * @return the {@link DateTimeFormatter}
+     */
+    protected DateTimeFormatter getDateTimeFormatter(Locale locale) {
+        if (customDateTimeFormatter != null) {
+            return customDateTimeFormatter.withLocale(locale);
+        }
+        return DateTimeFormatterCache.get(dateTimeFormatterPattern, locale);
+    }
+
+    /**
+     * Returns <code>true</code> if the {@link DateTimeFormatter} is built from the
+     * {@link #getDateTimeFormatterPattern() pattern}, in which case the client parses and validates the date text
+     * itself when the pattern only has year, month and day fields.
+     * 
+     * @return <code>true</code> if the {@link DateTimeFormatter} is built from the pattern
+     */
+    protected boolean isPatternBasedDateTimeFormatter() {
+        return patternBasedDateTimeFormatter;
+    }
+
+    /**
+     * Formats the displayed date, the last formatted date is memoized as it is formatted on every client response.
+     * 
+     * @param date
+     *            the date to format
+     * @return the formatted date
+     */
+    private String formatDisplayedDate(LocalDate date) {
+        DateTimeFormatter dateTimeFormatter = getDateTimeFormatter();
+        if (dateTimeFormatter != formattedDateFormatter || !date.equals(formattedDate)) {
+            formattedDateText = dateTimeFormatter.format(date);
+            formattedDate = date;
+            formattedDateFormatter = dateTimeFormatter;
         }
+        return formattedDateText;
+    }
+
+    /**
+     * Returns the pattern, month names and date range sent to the client so that it parses and validates the date
+     * text itself. The format is only rebuilt when the formatter or the date range changes.
+     * 
+     * @return the date text format or <code>null</code> if the client cannot parse the date text like the
+     *         {@link #getDateTimeFormatter()}
+     */
+    private DateTextFormat getDateTextFormat() {
+        DateTimeFormatter dateTimeFormatter = getDateTimeFormatter();
+        CalendarConfig config = getCalendarPageEngine().getConfig();
+        int rangeStart = (int) Math.max(config.getRangeStartEpochDay(), Integer.MIN_VALUE);
+        int rangeEnd = (int) Math.min(config.getRangeEndEpochDay(), Integer.MAX_VALUE);
+        if (dateTimeFormatter != dateTextFormatFormatter
+                || (dateTextFormat != null && (dateTextFormat.getRangeStartEpochDay() != rangeStart || dateTextFormat
+                        .getRangeEndEpochDay() != rangeEnd))) {
+            dateTextFormatFormatter = dateTimeFormatter;
+            dateTextFormat = null;
+
+            // The pattern is only known when the formatter is built from it, ISO_DATE being parsed as DEFAULT_PATTERN
+            String pattern = dateTimeFormatterPattern == null ? DateTimeFormatterCache.DEFAULT_PATTERN
+                    : dateTimeFormatterPattern;
+            if (isPatternBasedDateTimeFormatter() && DateTextFormat.isSupported(pattern)) {
+                DateTimeFormatter monthFormatter = DateTimeFormatterCache.get("MMMM", getLocale());
+                DateTimeFormatter shortMonthFormatter = DateTimeFormatterCache.get("MMM", getLocale());
+                String[] monthNames = new String[12];
+                String[] shortMonthNames = new String[12];
+                for (Month month : Month.values()) {
+                    monthNames[month.ordinal()] = monthFormatter.format(month);
+                    shortMonthNames[month.ordinal()] = shortMonthFormatter.format(month);
+                }
+                dateTextFormat = new DateTextFormat();
+                dateTextFormat.setPattern(pattern);
+                dateTextFormat.setMonthNames(monthNames);
+                dateTextFormat.setShortMonthNames(shortMonthNames);
+                dateTextFormat.setRangeStartEpochDay(rangeStart);
+                dateTextFormat.setRangeEndEpochDay(rangeEnd);
+                dateTextFormat.setStrict(dateTimeFormatter.getResolverStyle() == ResolverStyle.STRICT);
+            }
+        }
+        return dateTextFormat;
     }
 
     /**
@@ -1373,6 +2395,9 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
     }
 
     /**
+     * Sets the pattern of the {@link DateTimeFormatter}, <code>null</code> for {@link DateTimeFormatter#ISO_DATE}. It
+     * replaces any {@link DateTimeFormatter} previously set.
+     * 
      * @param dateTimeFormatterPattern
      *            the dateTimeFormatterPattern to set
      */
@@ -1380,7 +2405,34 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
         // When changing formatter pattern we need to reconvert textfield value
         LocalDate convertedValue = getConvertedValue();
         this.dateTimeFormatterPattern = dateTimeFormatterPattern;
-        String newinternalValue = converter.convertToPresentation(convertedValue, new ValueContext(getLocale()));
+        this.customDateTimeFormatter = null;
+        this.patternBasedDateTimeFormatter = true;
+        reconvertValue(convertedValue);
+        // The client date text format may change
+        markAsDirty();
+    }
+
+    /**
+     * Sets the {@link DateTimeFormatter}, used in the locale of the field. It replaces any pattern previously set and
+     * the date text is then only parsed by the server.<br>
+     * As {@link DateTimeFormatter} is not serializable, the formatter is not kept when the session is serialized and
+     * {@link DateTimeFormatter#ISO_DATE} is used instead.
+     * 
+     * @param dateTimeFormatter
+     *            the dateTimeFormatter to set, <code>null</code> for {@link DateTimeFormatter#ISO_DATE}
+     */
+    public void setDateTimeFormatter(DateTimeFormatter dateTimeFormatter) {
+        LocalDate convertedValue = getConvertedValue();
+        this.dateTimeFormatterPattern = null;
+        this.customDateTimeFormatter = dateTimeFormatter;
+        this.patternBasedDateTimeFormatter = dateTimeFormatter == null;
+        reconvertValue(convertedValue);
+        // The client date text format may change
+        markAsDirty();
+    }
+
+    private void reconvertValue(LocalDate convertedValue) {
+        String newinternalValue = getConverter().convertToPresentation(convertedValue, new ValueContext(getLocale()));
         if (!SharedUtil.equals(getValue(), newinternalValue)) {
             setConvertedValue(convertedValue);
         }
@@ -1399,6 +2451,226 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
      */
     public void setWeekendDisabled(boolean weekendDisabled) {
         this.weekendDisabled = weekendDisabled;
+        invalidateCalendarPageEngine();
+    }
+
+    /**
+     * @return the disabled dates, empty if none
+     */
+    public DateSet getDisabledDates() {
+        return disabledDates;
+    }
+
+    /**
+     * Disables some dates, e.g. holidays. Unlike a customizer, the dates are checked without calling any code and the
+     * calendar pages are still cached.
+     * 
+     * @param disabledDates
+     *            the disabled dates, <code>null</code> for none
+     */
+    public void setDisabledDates(DateSet disabledDates) {
+        this.disabledDates = disabledDates == null ? DateSet.EMPTY : disabledDates;
+        refreshCalendar();
+    }
+
+    /**
+     * @return the holiday provider, <code>null</code> if none
+     */
+    public HolidayProvider getHolidayProvider() {
+        return holidayProvider;
+    }
+
+    /**
+     * @return the region of the holidays
+     */
+    public String getHolidayRegion() {
+        return holidayRegion;
+    }
+
+    /**
+     * Sets the provider of the holidays displayed by the calendar. The holidays of a year are requested once for the
+     * whole JVM, each cell then costs a bitmap lookup. By default the holidays are disabled, styled
+     * <code>holiday</code> and their names are shown as tooltips. The names are requested in the locale of the field.
+     * 
+     * @param holidayProvider
+     *            the holiday provider, <code>null</code> for none
+     * @param holidayRegion
+     *            the region of the holidays, e.g. a country code
+     */
+    public void setHolidayProvider(HolidayProvider holidayProvider, String holidayRegion) {
+        this.holidayProvider = holidayProvider;
+        this.holidayRegion = holidayRegion;
+        refreshCalendar();
+    }
+
+    /**
+     * @return the holidaysDisabled
+     */
+    public boolean isHolidaysDisabled() {
+        return holidaysDisabled;
+    }
+
+    /**
+     * @param holidaysDisabled
+     *            <code>true</code> to disable the holidays (default to true)
+     */
+    public void setHolidaysDisabled(boolean holidaysDisabled) {
+        this.holidaysDisabled = holidaysDisabled;
+        refreshCalendar();
+    }
+
+    /**
+     * @return the style of the holidays, <code>null</code> if none
+     */
+    public String getHolidayStyle() {
+        return holidayStyle;
+    }
+
+    /**
+     * @param holidayStyle
+     *            the style of the holidays (default to <code>holiday</code>), <code>null</code> for none
+     */
+    public void setHolidayStyle(String holidayStyle) {
+        this.holidayStyle = holidayStyle;
+        refreshCalendar();
+    }
+
+    /**
+     * @return the holidayTooltipsEnabled
+     */
+    public boolean isHolidayTooltipsEnabled() {
+        return holidayTooltipsEnabled;
+    }
+
+    /**
+     * @param holidayTooltipsEnabled
+     *            <code>true</code> to show the holiday names as tooltips (default to true). The tooltip of the
+     *            customizer wins.
+     */
+    public void setHolidayTooltipsEnabled(boolean holidayTooltipsEnabled) {
+        this.holidayTooltipsEnabled = holidayTooltipsEnabled;
+        refreshCalendar();
+    }
+
+    /**
+     * @return the weekendDays
+     */
+    public EnumSet<DayOfWeek> getWeekendDays() {
+        return EnumSet.copyOf(weekendDays);
+    }
+
+    /**
+     * @param weekendDays
+     *            the days of week which are week-ends (default to saturday and sunday), none if empty
+     */
+    public void setWeekendDays(DayOfWeek... weekendDays) {
+        EnumSet<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek day : weekendDays) {
+            days.add(day);
+        }
+        if (days.size() == 7) {
+            throw new IllegalArgumentException("Cannot have every day of the week as week-end");
+        }
+        this.weekendDays = days;
+        refreshCalendar();
+    }
+
+    /**
+     * @return the emptyPeriodsDisabled
+     */
+    public boolean isEmptyPeriodsDisabled() {
+        return emptyPeriodsDisabled;
+    }
+
+    /**
+     * @param emptyPeriodsDisabled
+     *            <code>true</code> to disable the months and years without any enabled day (default to false), e.g.
+     *            because of the date range, the disabled dates or the holidays. The customizers are not taken into
+     *            account.
+     */
+    public void setEmptyPeriodsDisabled(boolean emptyPeriodsDisabled) {
+        this.emptyPeriodsDisabled = emptyPeriodsDisabled;
+        refreshCalendar();
+    }
+
+    /**
+     * @return the availabilityBadgesEnabled
+     */
+    public boolean isAvailabilityBadgesEnabled() {
+        return availabilityBadgesEnabled;
+    }
+
+    /**
+     * @param availabilityBadgesEnabled
+     *            <code>true</code> to show the number of enabled days of the months and years in a
+     *            <code>badge</code> styled span (default to false)
+     */
+    public void setAvailabilityBadgesEnabled(boolean availabilityBadgesEnabled) {
+        this.availabilityBadgesEnabled = availabilityBadgesEnabled;
+        refreshCalendar();
+    }
+
+    /**
+     * @return the jumpControlVisible
+     */
+    public boolean isJumpControlVisible() {
+        return jumpControlVisible;
+    }
+
+    /**
+     * @param jumpControlVisible
+     *            <code>true</code> to display a control jumping to the next month having an enabled day in day
+     *            resolution (default to false), see {@link #goToNextEnabledMonth()}
+     */
+    public void setJumpControlVisible(boolean jumpControlVisible) {
+        this.jumpControlVisible = jumpControlVisible;
+        markAsDirty();
+    }
+
+    /**
+     * @return the openOnFirstEnabledMonth
+     */
+    public boolean isOpenOnFirstEnabledMonth() {
+        return openOnFirstEnabledMonth;
+    }
+
+    /**
+     * @param openOnFirstEnabledMonth
+     *            <code>true</code> to open the calendar on the month of the first enabled day from today when there
+     *            is no value (default to false). The page is sent before the calendar is opened, without navigation
+     *            roundtrips.
+     */
+    public void setOpenOnFirstEnabledMonth(boolean openOnFirstEnabledMonth) {
+        this.openOnFirstEnabledMonth = openOnFirstEnabledMonth;
+        markAsDirty();
+    }
+
+    /**
+     * @param style
+     *            the style
+     * @return the dates highlighted with the style, empty if none
+     */
+    public DateSet getHighlightedDates(String style) {
+        DateSet dates = highlightedDates.get(style);
+        return dates == null ? DateSet.EMPTY : dates;
+    }
+
+    /**
+     * Adds a style to the day cells of some dates, e.g. <code>holiday</code>. The styles are added in the order they
+     * were first set, after the default styles and before the style of the customizer.
+     * 
+     * @param highlightedDates
+     *            the highlighted dates, <code>null</code> to remove the style
+     * @param style
+     *            the style
+     */
+    public void setHighlightedDates(DateSet highlightedDates, String style) {
+        if (highlightedDates == null || highlightedDates.isEmpty()) {
+            this.highlightedDates.remove(style);
+        } else {
+            this.highlightedDates.put(style, highlightedDates);
+        }
+        refreshCalendar();
     }
 
     /**
@@ -1440,11 +2712,118 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
     }
 
     /**
+     * Sets the cellItemCustomizer. It replaces any {@link BatchCellItemCustomizer} previously set.
+     * 
      * @param cellItemCustomizer
      *            the cellItemCustomizer to set
      */
     public void setCellItemCustomizer(CellItemCustomizer cellItemCustomizer) {
         this.cellItemCustomizer = cellItemCustomizer;
+        this.batchCellItemCustomizer = CellItemCustomizerAdapter.toBatchCellItemCustomizer(cellItemCustomizer);
+        refreshCalendar();
+    }
+
+    /**
+     * @return the batchCellItemCustomizer, which is the bridged {@link CellItemCustomizer} if one is set
+     */
+    public BatchCellItemCustomizer getBatchCellItemCustomizer() {
+        return batchCellItemCustomizer;
+    }
+
+    /**
+     * Sets the batchCellItemCustomizer. It replaces any {@link CellItemCustomizer} previously set.
+     * 
+     * @param batchCellItemCustomizer
+     *            the batchCellItemCustomizer to set
+     */
+    public void setBatchCellItemCustomizer(BatchCellItemCustomizer batchCellItemCustomizer) {
+        this.batchCellItemCustomizer = batchCellItemCustomizer;
+        if (batchCellItemCustomizer instanceof CellItemCustomizer) {
+            this.cellItemCustomizer = (CellItemCustomizer) batchCellItemCustomizer;
+        } else {
+            this.cellItemCustomizer = null;
+        }
+        refreshCalendar();
+    }
+
+    /**
+     * Rebuilds the calendar items on next response. Calendar pages are cached, so this must be called when the data
+     * used by the customizer has changed (e.g. absences loaded for another month).
+     */
+    public void refreshCalendar() {
+        weekendDaysMask = -1;
+        invalidateCalendarPageEngine();
+        customizerVersion++;
+        calendarPageCache.clear();
+        markAsDirty();
+    }
+
+    /**
+     * @return the maximum number of calendar pages kept by this field
+     */
+    public int getCalendarPageCacheSize() {
+        return calendarPageCache.getMaxSize();
+    }
+
+    /**
+     * Sets the maximum number of calendar pages kept by this field, so that navigating back and forth between months
+     * or reopening the calendar does not rebuild them. Default is {@value #DEFAULT_CALENDAR_PAGE_CACHE_SIZE}.
+     * 
+     * @param calendarPageCacheSize
+     *            the maximum number of pages, the last built page is always kept
+     */
+    public void setCalendarPageCacheSize(int calendarPageCacheSize) {
+        calendarPageCache.setMaxSize(calendarPageCacheSize);
+    }
+
+    /**
+     * @return the number of calendar pages pushed in advance on each side of the displayed page
+     */
+    public int getCalendarPrefetchDepth() {
+        return calendarPrefetchDepth;
+    }
+
+    /**
+     * Sets the number of calendar pages pushed in advance on each side of the displayed page, so that the previous and
+     * next controls display them without waiting for the server. The pages are still built on server-side with the
+     * customizer if any, and the page cache should be large enough to hold them. Twice as many pages are pushed in the
+     * direction of the last clicks when the user keeps clicking the same control.<br>
+     * Default is {@value #DEFAULT_CALENDAR_PREFETCH_DEPTH}, <code>0</code> disables prefetching.
+     * 
+     * @param calendarPrefetchDepth
+     *            the number of pages on each side
+     * @see #setCalendarPageCacheSize(int)
+     */
+    public void setCalendarPrefetchDepth(int calendarPrefetchDepth) {
+        this.calendarPrefetchDepth = calendarPrefetchDepth;
+        sentCalendarPageKey = null;
+        markAsDirty();
+    }
+
+    /**
+     * @return the calendarItemsExecutor
+     */
+    public Executor getCalendarItemsExecutor() {
+        return calendarItemsExecutor;
+    }
+
+    /**
+     * Sets the executor used to build the calendar items outside of the session lock. When set, the calendar opens
+     * immediately with a loading indicator and the items are sent once the customizer has been evaluated. Results of a
+     * page the user already navigated away from are dropped.<br>
+     * The UI should have server push enabled (see {@link com.vaadin.annotations.Push}), else the items are only
+     * displayed on the next server roundtrip.<br>
+     * As the {@link BatchCellItemCustomizer} is then called from the executor threads, it must not access session data
+     * without locking, nor call the {@link TuningDateField} it receives. A {@link CellItemCustomizer} is always called
+     * synchronously, as it usually reads the field.
+     * The executor is not serialized with the field and has to be set again after deserialization.
+     * 
+     * @param calendarItemsExecutor
+     *            the executor, <code>null</code> to build calendar items synchronously (default)
+     */
+    public void setCalendarItemsExecutor(Executor calendarItemsExecutor) {
+        this.calendarItemsExecutor = calendarItemsExecutor;
+        markAsDirty();
     }
 
     /**
@@ -1469,6 +2848,7 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
 
     public void setPreviousMonthDisabled(boolean previousMonthDisabled) {
         this.previousMonthDisabled = previousMonthDisabled;
+        invalidateCalendarPageEngine();
     }
 
     public boolean isNextMonthDisabled() {
@@ -1477,6 +2857,7 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
 
     public void setNextMonthDisabled(boolean nextMonthDisabled) {
         this.nextMonthDisabled = nextMonthDisabled;
+        invalidateCalendarPageEngine();
     }
 
     @Override
@@ -1515,6 +2896,7 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
      */
     public void setDisplayFixedNumberOfDayRows(boolean displayFixedNumberOfDayRows) {
         this.displayFixedNumberOfDayRows = displayFixedNumberOfDayRows;
+        invalidateCalendarPageEngine();
     }
 
     public boolean isOpenCalendarOnFocusEnabled() {
@@ -1525,6 +2907,28 @@ public class TuningDateField extends AbstractField<LocalDate> implements BlurNot
         this.openCalendarOnFocusEnabled = openCalendarOnFocusEnabled;
     }
 
+    /**
+     * @return <code>true</code> if the widget displays the clicked day before the server answers
+     */
+    public boolean isOptimisticSelectionEnabled() {
+        return optimisticSelectionEnabled;
+    }
+
+    /**
+     * Set to <code>true</code> to let the widget close the calendar and display the clicked day as soon as it is
+     * clicked, instead of waiting for the server. The text is formatted by the widget when the date pattern allows it
+     * (see {@link #setDateTimeFormatterPattern(String)}), else it is displayed on server response.<br>
+     * The server still has the last word : if the day is rejected or the value is changed by a listener, the text
+     * displayed is replaced by the value text.
+     * 
+     * @param optimisticSelectionEnabled
+     *            <code>true</code> to display the clicked day without waiting for the server
+     */
+    public void setOptimisticSelectionEnabled(boolean optimisticSelectionEnabled) {
+        this.optimisticSelectionEnabled = optimisticSelectionEnabled;
+        markAsDirty();
+    }
+
     public String getInvalidValueErrorMessage() {
         return invalidValueErrorMessage;
     }
@@ -25,6 +25,7 @@ import org.vaadin.addons.tuningdatefield.TuningDateField;
  * 
  * @author Frederic.Dreyfus
  */
+@FunctionalInterface
 public interface CalendarOpenListener extends Serializable {
 
     /**
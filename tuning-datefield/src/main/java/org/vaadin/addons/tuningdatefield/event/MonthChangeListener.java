@@ -26,6 +26,7 @@ import org.vaadin.addons.tuningdatefield.TuningDateField;
  * 
  * @author Frederic.Dreyfus
  */
+@FunctionalInterface
 public interface MonthChangeListener extends Serializable {
 
     /**
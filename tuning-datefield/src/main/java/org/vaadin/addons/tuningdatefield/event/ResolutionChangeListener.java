@@ -26,6 +26,7 @@ import org.vaadin.addons.tuningdatefield.event.ResolutionChangeEvent.Resolution;
  * 
  * @author Frederic.Dreyfus
  */
+@FunctionalInterface
 public interface ResolutionChangeListener extends Serializable {
 
     /**
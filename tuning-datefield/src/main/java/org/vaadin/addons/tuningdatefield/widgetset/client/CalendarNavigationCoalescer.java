@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2013 Frederic Dreyfus
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vaadin.addons.tuningdatefield.widgetset.client;
+
+import com.google.gwt.user.client.Timer;
+
+/**
+ * Collapses the previous/next control clicks into {@link TuningDateFieldRpc#navigateCalendar(int, int)} calls.<br>
+ * The first click is sent right away, the clicks following it within {@link #DELAY_MILLIS} are sent as a single call
+ * once the delay is elapsed, so that quick clicks only make the server handle the final page.
+ * 
+ * @author Frederic.Dreyfus
+ * 
+ */
+class CalendarNavigationCoalescer extends Timer {
+
+    static final int DELAY_MILLIS = 200;
+
+    private final TuningDateFieldRpc rpc;
+
+    // Internal use : the clicks waiting for the end of the delay
+    private int offset;
+    private int clickCount;
+
+    CalendarNavigationCoalescer(TuningDateFieldRpc rpc) {
+        this.rpc = rpc;
+    }
+
+    /**
+     * Sends or delays a click.
+     * 
+     * @param direction
+     *            <code>-1</code> for the previous control, <code>1</code> for the next control
+     */
+    void navigate(int direction) {
+        if (isRunning()) {
+            offset += direction;
+            clickCount++;
+        } else {
+            rpc.navigateCalendar(direction, 1);
+            schedule(DELAY_MILLIS);
+        }
+    }
+
+    /**
+     * Sends the delayed clicks right away. Must be called before any other call which depends on the displayed page.
+     */
+    void flush() {
+        if (isRunning()) {
+            cancel();
+            sendDelayedClicks();
+        }
+    }
+
+    @Override
+    public void run() {
+        if (sendDelayedClicks()) {
+            // Keeps collapsing the clicks while the user is clicking
+            schedule(DELAY_MILLIS);
+        }
+    }
+
+    private boolean sendDelayedClicks() {
+        if (clickCount == 0) {
+            return false;
+        }
+        rpc.navigateCalendar(offset, clickCount);
+        offset = 0;
+        clickCount = 0;
+        return true;
+    }
+
+}
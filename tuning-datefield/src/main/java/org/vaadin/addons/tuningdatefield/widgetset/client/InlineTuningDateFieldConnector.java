@@ -19,6 +19,8 @@ package org.vaadin.addons.tuningdatefield.widgetset.client;
 import org.vaadin.addons.tuningdatefield.widgetset.client.ui.calendar.TuningDateFieldCalendarWidget;
 import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.CalendarItemClickEvent;
 import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.CalendarItemClickHandler;
+import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.JumpControlClickEvent;
+import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.JumpControlClickHandler;
 import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.NextControlClickEvent;
 import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.NextControlClickHandler;
 import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.PreviousControlClickEvent;
@@ -38,19 +40,28 @@ import com.vaadin.shared.ui.Connect;
 public class InlineTuningDateFieldConnector extends AbstractFieldConnector {
     private static final long serialVersionUID = 5137839525617663928L;
 
+    // Internal use : collapses the quick previous/next control clicks
+    private CalendarNavigationCoalescer calendarNavigationCoalescer;
+
     @Override
     protected void init() {
         super.init();
 
         final InlineTuningDateFieldRpc rpc = getRpcProxy(InlineTuningDateFieldRpc.class);
+        calendarNavigationCoalescer = new CalendarNavigationCoalescer(rpc);
 
         getWidget().addCalendarItemClickHandler(new CalendarItemClickHandler() {
 
             @Override
             public void onCalendarItemClick(CalendarItemClickEvent event) {
-                MouseEventDetails mouseDetails = MouseEventDetailsBuilder.buildMouseEventDetails(event.getClickEvent()
-                        .getNativeEvent(), getWidget().getElement());
-                rpc.calendarItemClicked(event.getItemIndex(), event.getRelativeDateIndex(), mouseDetails);
+                MouseEventDetails mouseDetails = null;
+                if (getState().isMouseDetailsSentOnCalendarClick()) {
+                    mouseDetails = MouseEventDetailsBuilder.buildMouseEventDetails(event.getClickEvent()
+                            .getNativeEvent(), getWidget().getElement());
+                }
+                // The clicked item belongs to the page of all the previous clicks
+                calendarNavigationCoalescer.flush();
+                rpc.calendarCellClicked(getWidget().getCellEpochDay(event.getItemIndex()), mouseDetails);
             }
         });
 
@@ -58,7 +69,10 @@ public class InlineTuningDateFieldConnector extends AbstractFieldConnector {
 
             @Override
             public void onPreviousControlClick(PreviousControlClickEvent event) {
-                rpc.previousControlClicked();
+                if (getWidget().navigate(-1)) {
+                    getWidget().redraw(true);
+                }
+                calendarNavigationCoalescer.navigate(-1);
             }
         });
 
@@ -66,7 +80,10 @@ public class InlineTuningDateFieldConnector extends AbstractFieldConnector {
 
             @Override
             public void onNextControlClick(NextControlClickEvent event) {
-                rpc.nextControlClicked();
+                if (getWidget().navigate(1)) {
+                    getWidget().redraw(true);
+                }
+                calendarNavigationCoalescer.navigate(1);
             }
         });
 
@@ -74,30 +91,53 @@ public class InlineTuningDateFieldConnector extends AbstractFieldConnector {
 
             @Override
             public void onResolutionControlClick(ResolutionControlClickEvent event) {
+                calendarNavigationCoalescer.flush();
                 rpc.resolutionControlClicked();
             }
         });
 
+        getWidget().addJumpControlClickHandler(new JumpControlClickHandler() {
+
+            @Override
+            public void onJumpControlClick(JumpControlClickEvent event) {
+                calendarNavigationCoalescer.flush();
+                rpc.jumpControlClicked();
+            }
+        });
+
     }
 
     @Override
     public void onStateChanged(StateChangeEvent stateChangeEvent) {
 
-        getWidget().setCalendarResolutionText(getState().getCalendarResolutionText());
-        getWidget().setWeekHeaderNames(getState().getWeekHeaderNames());
+        getWidget().setAdjacentCalendarPages(getState().getAdjacentCalendarPages(),
+                getState().getCalendarNavigationCount());
+        // The page displayed in advance is kept until the server has handled all the previous/next clicks
+        if (!getWidget().isNavigationPending()) {
+            getWidget().setCalendarResolutionText(getState().getCalendarResolutionText());
+            getWidget().setWeekHeaderNames(getState().getWeekHeaderNames());
 
-        getWidget().setControlsEnabled(getState().isControlsEnabled());
+            getWidget().setControlsEnabled(getState().isControlsEnabled());
+            getWidget().setJumpControlVisible(getState().isJumpControlVisible());
 
-        getWidget().setCalendarResolution(getState().getCalendarResolution());
+            getWidget().setCalendarResolution(getState().getCalendarResolution());
 
-        getWidget().setCalendarItems(getState().getCalendarItems());
+            getWidget().setCalendarGrid(getState().getCalendarGrid(), getState().getCalendarGridVersion(),
+                    getState().getCalendarPageDelta(), getState().getShortMonthNames());
 
-        getWidget().redraw(true);
+            getWidget().redraw(true);
+        }
 
         super.onStateChanged(stateChangeEvent);
 
     }
 
+    @Override
+    public void onUnregister() {
+        calendarNavigationCoalescer.cancel();
+        super.onUnregister();
+    }
+
     @Override
     protected Widget createWidget() {
         return GWT.create(TuningDateFieldCalendarWidget.class);
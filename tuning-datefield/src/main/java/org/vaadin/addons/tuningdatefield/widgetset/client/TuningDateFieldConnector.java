@@ -17,6 +17,7 @@
 package org.vaadin.addons.tuningdatefield.widgetset.client;
 
 import org.vaadin.addons.tuningdatefield.widgetset.client.ui.TuningDateFieldWidget;
+import org.vaadin.addons.tuningdatefield.widgetset.client.ui.calendar.CalendarResolution;
 import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.CalendarClosedEvent;
 import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.CalendarClosedHandler;
 import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.CalendarItemClickEvent;
@@ -25,6 +26,10 @@ import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.CalendarOpen
 import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.CalendarOpenHandler;
 import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.DateTextChangeEvent;
 import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.DateTextChangeHandler;
+import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.DateTextParsedEvent;
+import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.DateTextParsedHandler;
+import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.JumpControlClickEvent;
+import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.JumpControlClickHandler;
 import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.NextControlClickEvent;
 import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.NextControlClickHandler;
 import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.PreviousControlClickEvent;
@@ -45,11 +50,15 @@ public class TuningDateFieldConnector extends AbstractFieldConnector {
 
     private static final long serialVersionUID = 5137839525617663928L;
 
+    // Internal use : collapses the quick previous/next control clicks
+    private CalendarNavigationCoalescer calendarNavigationCoalescer;
+
     @Override
     protected void init() {
         super.init();
 
         final TuningDateFieldRpc rpc = getRpcProxy(TuningDateFieldRpc.class);
+        calendarNavigationCoalescer = new CalendarNavigationCoalescer(rpc);
 
         getWidget().addDateTextChangedHandler(new DateTextChangeHandler() {
 
@@ -59,6 +68,14 @@ public class TuningDateFieldConnector extends AbstractFieldConnector {
             }
         });
 
+        getWidget().addDateTextParsedHandler(new DateTextParsedHandler() {
+
+            @Override
+            public void onDateTextParsed(DateTextParsedEvent event) {
+                rpc.dateTextParsed(event.getEpochDay());
+            }
+        });
+
         getWidget().addCalendarOpenHandler(new CalendarOpenHandler() {
 
             @Override
@@ -72,6 +89,7 @@ public class TuningDateFieldConnector extends AbstractFieldConnector {
 
             @Override
             public void onCalendarClosed(CalendarClosedEvent event) {
+                calendarNavigationCoalescer.flush();
                 rpc.onCalendarClosed();
             }
         });
@@ -80,9 +98,19 @@ public class TuningDateFieldConnector extends AbstractFieldConnector {
 
             @Override
             public void onCalendarItemClick(CalendarItemClickEvent event) {
-                MouseEventDetails mouseDetails = MouseEventDetailsBuilder.buildMouseEventDetails(event.getClickEvent()
-                        .getNativeEvent(), getWidget().getElement());
-                rpc.calendarItemClicked(event.getItemIndex(), event.getRelativeDateIndex(), mouseDetails);
+                MouseEventDetails mouseDetails = null;
+                if (getState().isMouseDetailsSentOnCalendarClick()) {
+                    mouseDetails = MouseEventDetailsBuilder.buildMouseEventDetails(event.getClickEvent()
+                            .getNativeEvent(), getWidget().getElement());
+                }
+                // The clicked item belongs to the page of all the previous clicks
+                calendarNavigationCoalescer.flush();
+                int cellEpochDay = getWidget().getCalendar().getCellEpochDay(event.getItemIndex());
+                rpc.calendarCellClicked(cellEpochDay, mouseDetails);
+                if (getState().isOptimisticSelectionEnabled()
+                        && getWidget().getCalendar().getCalendarResolution() == CalendarResolution.DAY) {
+                    getWidget().selectOptimistically(cellEpochDay);
+                }
             }
         });
 
@@ -90,7 +118,10 @@ public class TuningDateFieldConnector extends AbstractFieldConnector {
 
             @Override
             public void onPreviousControlClick(PreviousControlClickEvent event) {
-                rpc.previousControlClicked();
+                if (getWidget().getCalendar().navigate(-1)) {
+                    getWidget().redrawCalendar();
+                }
+                calendarNavigationCoalescer.navigate(-1);
             }
         });
 
@@ -98,7 +129,10 @@ public class TuningDateFieldConnector extends AbstractFieldConnector {
 
             @Override
             public void onNextControlClick(NextControlClickEvent event) {
-                rpc.nextControlClicked();
+                if (getWidget().getCalendar().navigate(1)) {
+                    getWidget().redrawCalendar();
+                }
+                calendarNavigationCoalescer.navigate(1);
             }
         });
 
@@ -106,10 +140,20 @@ public class TuningDateFieldConnector extends AbstractFieldConnector {
 
             @Override
             public void onResolutionControlClick(ResolutionControlClickEvent event) {
+                calendarNavigationCoalescer.flush();
                 rpc.resolutionControlClicked();
             }
         });
 
+        getWidget().getCalendar().addJumpControlClickHandler(new JumpControlClickHandler() {
+
+            @Override
+            public void onJumpControlClick(JumpControlClickEvent event) {
+                calendarNavigationCoalescer.flush();
+                rpc.jumpControlClicked();
+            }
+        });
+
     }
 
     @Override
@@ -120,25 +164,45 @@ public class TuningDateFieldConnector extends AbstractFieldConnector {
         getWidget().setDateTextReadOnly(getState().readOnly || getState().isDateTextReadOnly());
         getWidget().getCalendarToggle().setVisible(!getState().readOnly);
 
+        getWidget().setDateTextFormat(getState().getDateTextFormat());
         getWidget().setDisplayedDateText(getState().getDisplayedDateText());
         getWidget().setCalendarOpen(getState().isCalendarOpen());
         getWidget().setOpenCalendarOnFocusEnabled(getState().isOpenCalendarOnFocusEnabled());
-        if (getState().isCalendarOpen()) {
-            getWidget().getCalendar().setCalendarResolutionText(getState().getCalendarResolutionText());
-            getWidget().getCalendar().setWeekHeaderNames(getState().getWeekHeaderNames());
-
-            getWidget().getCalendar().setControlsEnabled(getState().isControlsEnabled());
-
-            getWidget().getCalendar().setCalendarResolution(getState().getCalendarResolution());
-
-            getWidget().getCalendar().setCalendarItems(getState().getCalendarItems());
-
-            getWidget().redrawCalendar();
+        getWidget().getCalendar().setAdjacentCalendarPages(getState().getAdjacentCalendarPages(),
+                getState().getCalendarNavigationCount());
+        // The page displayed in advance is kept until the server has handled all the previous/next clicks
+        if (!getWidget().getCalendar().isNavigationPending()) {
+            if (getState().isCalendarOpen()) {
+                getWidget().getCalendar().setCalendarGrid(getState().getCalendarGrid(),
+                        getState().getCalendarGridVersion(), getState().getCalendarPageDelta(),
+                        getState().getShortMonthNames());
+                getWidget().getCalendar().setCalendarResolutionText(getState().getCalendarResolutionText());
+                getWidget().getCalendar().setWeekHeaderNames(getState().getWeekHeaderNames());
+
+                getWidget().getCalendar().setControlsEnabled(getState().isControlsEnabled());
+                getWidget().getCalendar().setJumpControlVisible(getState().isJumpControlVisible());
+
+                getWidget().getCalendar().setCalendarResolution(getState().getCalendarResolution());
+
+                getWidget().redrawCalendar();
+            } else {
+                // The displayed page is kept until the server answers the open event
+                getWidget().getCalendar().setOpenCalendarPage(getState().getOpenCalendarPage());
+                getWidget().getCalendar().setWeekHeaderNames(getState().getWeekHeaderNames());
+                getWidget().getCalendar().setControlsEnabled(getState().isControlsEnabled());
+                getWidget().getCalendar().setJumpControlVisible(getState().isJumpControlVisible());
+            }
         }
 
         super.onStateChanged(stateChangeEvent);
     }
 
+    @Override
+    public void onUnregister() {
+        calendarNavigationCoalescer.cancel();
+        super.onUnregister();
+    }
+
     @Override
     protected Widget createWidget() {
         return GWT.create(TuningDateFieldWidget.class);
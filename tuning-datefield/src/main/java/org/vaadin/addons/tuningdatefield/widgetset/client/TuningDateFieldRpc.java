@@ -22,16 +22,14 @@ import com.vaadin.shared.communication.ServerRpc;
 public interface TuningDateFieldRpc extends ServerRpc {
 
     /**
-     * Called when a user clicked on a given cell item in the calendar.
+     * Called when a user clicked on a given cell in the calendar.
      * 
-     * @param relativeDateIndex
-     *            (dayOfMonth, monthOfYear or year depending on the resolution) the day of relativeDateIndex
-     * @param itemIndex
-     *            the itemIndex clicked
+     * @param cellEpochDay
+     *            the date of the cell as an epoch day (the first day of the month or year in month or year resolution)
      * @param mouseDetails
-     *            the mouse event details on click
+     *            the mouse event details on click, <code>null</code> if no day click listener needs them
      */
-    public void calendarItemClicked(Integer itemIndex, Integer relativeDateIndex, MouseEventDetails mouseDetails);
+    public void calendarCellClicked(int cellEpochDay, MouseEventDetails mouseDetails);
 
     /**
      * Called when the date text is changed by the user
@@ -41,6 +39,14 @@ public interface TuningDateFieldRpc extends ServerRpc {
      */
     public void dateTextChanged(String dateText);
 
+    /**
+     * Called when the date text changed by the user has been parsed by the widget
+     * 
+     * @param epochDay
+     *            the date as an epoch day
+     */
+    public void dateTextParsed(int epochDay);
+
     /**
      * Called when the calendar is open
      */
@@ -52,18 +58,24 @@ public interface TuningDateFieldRpc extends ServerRpc {
     public void onCalendarClosed();
 
     /**
-     * Called when a user clicked on the previousMonth control in the dayPicker calendar.
+     * Called when a user clicked on the previous or next control in the calendar. The clicks done within a short
+     * delay are sent as a single call.
+     * 
+     * @param offset
+     *            the number of next pages, previous pages if negative
+     * @param clickCount
+     *            the number of previous and next clicks
      */
-    public void previousControlClicked();
+    public void navigateCalendar(int offset, int clickCount);
 
     /**
-     * Called when a user clicked on the nextMonth control in the dayPicker calendar.
+     * Called when a user clicked on the monthPicker control in the dayPicker calendar.
      */
-    public void nextControlClicked();
+    public void resolutionControlClicked();
 
     /**
-     * Called when a user clicked on the monthPicker control in the dayPicker calendar.
+     * Called when a user clicked on the jump control in the dayPicker calendar.
      */
-    public void resolutionControlClicked();
+    public void jumpControlClicked();
 
 }
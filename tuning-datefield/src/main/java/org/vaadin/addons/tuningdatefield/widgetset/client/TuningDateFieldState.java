@@ -16,7 +16,10 @@
 
 package org.vaadin.addons.tuningdatefield.widgetset.client;
 
-import org.vaadin.addons.tuningdatefield.widgetset.client.ui.calendar.CalendarItem;
+import org.vaadin.addons.tuningdatefield.widgetset.client.ui.DateTextFormat;
+import org.vaadin.addons.tuningdatefield.widgetset.client.ui.calendar.AdjacentCalendarPage;
+import org.vaadin.addons.tuningdatefield.widgetset.client.ui.calendar.CalendarGrid;
+import org.vaadin.addons.tuningdatefield.widgetset.client.ui.calendar.CalendarPageDelta;
 import org.vaadin.addons.tuningdatefield.widgetset.client.ui.calendar.CalendarResolution;
 
 import com.vaadin.shared.AbstractFieldState;
@@ -32,6 +35,9 @@ public class TuningDateFieldState extends AbstractFieldState {
 
     private boolean dateTextReadOnly;
 
+    // Allows the widget to parse the date text, null if it cannot
+    private DateTextFormat dateTextFormat;
+
     private int forceUpdateTextBoxIndex;
 
     // //////////////////////
@@ -45,7 +51,28 @@ public class TuningDateFieldState extends AbstractFieldState {
 
     private boolean controlsEnabled;
 
-    private CalendarItem[] calendarItems;
+    // The jump control to the next available date is displayed in day resolution
+    private boolean jumpControlVisible;
+
+    // The calendar computes the default page from the grid
+    private CalendarGrid calendarGrid;
+
+    private int calendarGridVersion;
+
+    // The cells which differ from the default page
+    private CalendarPageDelta calendarPageDelta;
+
+    // The pages around the displayed one, displayed without waiting for the server
+    private AdjacentCalendarPage[] adjacentCalendarPages;
+
+    // The page displayed on open, only sent while the calendar is closed
+    private AdjacentCalendarPage openCalendarPage;
+
+    // The number of previous/next control clicks handled by the server
+    private int calendarNavigationCount;
+
+    // Only for month calendar
+    private String[] shortMonthNames;
 
     // Only for day calendar
     private String[] weekHeaderNames;
@@ -53,6 +80,12 @@ public class TuningDateFieldState extends AbstractFieldState {
     // Allow to open calendar on text field focus
     private boolean openCalendarOnFocusEnabled;
 
+    // The widget displays the clicked day and closes the calendar without waiting for the server
+    private boolean optimisticSelectionEnabled;
+
+    // The mouse details are only sent on calendar clicks when a day click listener is registered
+    private boolean mouseDetailsSentOnCalendarClick;
+
     public TuningDateFieldState() {
 
     }
@@ -85,6 +118,20 @@ public class TuningDateFieldState extends AbstractFieldState {
         this.dateTextReadOnly = dateTextReadOnly;
     }
 
+    /**
+     * @return the dateTextFormat
+     */
+    public DateTextFormat getDateTextFormat() {
+        return dateTextFormat;
+    }
+
+    /**
+     * @param dateTextFormat the dateTextFormat to set
+     */
+    public void setDateTextFormat(DateTextFormat dateTextFormat) {
+        this.dateTextFormat = dateTextFormat;
+    }
+
     /**
      * @return the calendarOpen
      */
@@ -142,17 +189,101 @@ public class TuningDateFieldState extends AbstractFieldState {
     }
 
     /**
-     * @return the calendarItems
+     * @return the jumpControlVisible
+     */
+    public boolean isJumpControlVisible() {
+        return jumpControlVisible;
+    }
+
+    /**
+     * @param jumpControlVisible the jumpControlVisible to set
+     */
+    public void setJumpControlVisible(boolean jumpControlVisible) {
+        this.jumpControlVisible = jumpControlVisible;
+    }
+
+    /**
+     * @return the calendarGrid
+     */
+    public CalendarGrid getCalendarGrid() {
+        return calendarGrid;
+    }
+
+    /**
+     * @param calendarGrid the calendarGrid to set
+     */
+    public void setCalendarGrid(CalendarGrid calendarGrid) {
+        this.calendarGrid = calendarGrid;
+    }
+
+    /**
+     * @return the calendarGridVersion
+     */
+    public int getCalendarGridVersion() {
+        return calendarGridVersion;
+    }
+
+    /**
+     * @param calendarGridVersion the calendarGridVersion to set
+     */
+    public void setCalendarGridVersion(int calendarGridVersion) {
+        this.calendarGridVersion = calendarGridVersion;
+    }
+
+    /**
+     * @return the calendarPageDelta
+     */
+    public CalendarPageDelta getCalendarPageDelta() {
+        return calendarPageDelta;
+    }
+
+    /**
+     * @param calendarPageDelta the calendarPageDelta to set
+     */
+    public void setCalendarPageDelta(CalendarPageDelta calendarPageDelta) {
+        this.calendarPageDelta = calendarPageDelta;
+    }
+
+    /**
+     * @return the adjacentCalendarPages
+     */
+    public AdjacentCalendarPage[] getAdjacentCalendarPages() {
+        return adjacentCalendarPages;
+    }
+
+    /**
+     * @param adjacentCalendarPages the adjacentCalendarPages to set
      */
-    public CalendarItem[] getCalendarItems() {
-        return calendarItems;
+    public void setAdjacentCalendarPages(AdjacentCalendarPage[] adjacentCalendarPages) {
+        this.adjacentCalendarPages = adjacentCalendarPages;
     }
 
     /**
-     * @param calendarItems the calendarItems to set
+     * @return the calendarNavigationCount
      */
-    public void setCalendarItems(CalendarItem[] calendarItems) {
-        this.calendarItems = calendarItems;
+    public int getCalendarNavigationCount() {
+        return calendarNavigationCount;
+    }
+
+    /**
+     * @param calendarNavigationCount the calendarNavigationCount to set
+     */
+    public void setCalendarNavigationCount(int calendarNavigationCount) {
+        this.calendarNavigationCount = calendarNavigationCount;
+    }
+
+    /**
+     * @return the shortMonthNames
+     */
+    public String[] getShortMonthNames() {
+        return shortMonthNames;
+    }
+
+    /**
+     * @param shortMonthNames the shortMonthNames to set
+     */
+    public void setShortMonthNames(String[] shortMonthNames) {
+        this.shortMonthNames = shortMonthNames;
     }
 
     /**
@@ -177,6 +308,30 @@ public class TuningDateFieldState extends AbstractFieldState {
         this.openCalendarOnFocusEnabled = openCalendarOnFocusEnabled;
     }
 
+    public AdjacentCalendarPage getOpenCalendarPage() {
+        return openCalendarPage;
+    }
+
+    public void setOpenCalendarPage(AdjacentCalendarPage openCalendarPage) {
+        this.openCalendarPage = openCalendarPage;
+    }
+
+    public boolean isOptimisticSelectionEnabled() {
+        return optimisticSelectionEnabled;
+    }
+
+    public void setOptimisticSelectionEnabled(boolean optimisticSelectionEnabled) {
+        this.optimisticSelectionEnabled = optimisticSelectionEnabled;
+    }
+
+    public boolean isMouseDetailsSentOnCalendarClick() {
+        return mouseDetailsSentOnCalendarClick;
+    }
+
+    public void setMouseDetailsSentOnCalendarClick(boolean mouseDetailsSentOnCalendarClick) {
+        this.mouseDetailsSentOnCalendarClick = mouseDetailsSentOnCalendarClick;
+    }
+
     public int getForceUpdateTextBoxIndex() {
         return forceUpdateTextBoxIndex;
     }
@@ -0,0 +1,437 @@
+/*
+ * Copyright (C) 2013 Frederic Dreyfus
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vaadin.addons.tuningdatefield.widgetset.client.ui;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.vaadin.addons.tuningdatefield.widgetset.client.ui.calendar.CalendarGrid;
+
+/**
+ * The date text pattern of the field, its month names and the date range, so that the date text is parsed, normalized
+ * and validated by the widget without a server round trip.<br>
+ * Only the subset of the <code>DateTimeFormatter</code> patterns which parses exactly like the server is supported :
+ * year (<code>y</code>, <code>u</code>), month (<code>M</code> to <code>MMMM</code>) and day of month (<code>d</code>,
+ * <code>dd</code>) fields separated by literals. The widget sends the raw text to the server when it cannot parse it,
+ * so the server still has the last word on unusual inputs.
+ *
+ * @author Frederic.Dreyfus
+ *
+ */
+public class DateTextFormat implements Serializable {
+
+    private static final long serialVersionUID = -3391828810522684717L;
+
+    private static final char LITERAL = '\'';
+
+    private String pattern;
+
+    /**
+     * The month names (January, February, ...) used by <code>MMMM</code>
+     */
+    private String[] monthNames;
+
+    /**
+     * The short month names (Jan, Feb, ...) used by <code>MMM</code>
+     */
+    private String[] shortMonthNames;
+
+    /**
+     * The date range as epoch days, both included
+     */
+    private int rangeStartEpochDay = Integer.MIN_VALUE;
+    private int rangeEndEpochDay = Integer.MAX_VALUE;
+
+    /**
+     * <code>true</code> if the server resolves the dates strictly, i.e. rejects the days after the end of the month
+     */
+    private boolean strict;
+
+    // Internal use : the compiled pattern, one field letter and width or one literal per token
+    private transient List<Object> tokens;
+
+    public DateTextFormat() {
+
+    }
+
+    /**
+     * Returns <code>true</code> if the pattern is supported.
+     *
+     * @param pattern
+     *            the <code>DateTimeFormatter</code> pattern
+     * @return <code>true</code> if the widget can parse and format the dates of this pattern
+     */
+    public static boolean isSupported(String pattern) {
+        return compile(pattern) != null;
+    }
+
+    /**
+     * Parses a date text.
+     *
+     * @param text
+     *            the text
+     * @return the date as an epoch day
+     * @throws IllegalArgumentException
+     *             if the text cannot be parsed
+     */
+    public int parse(String text) {
+        int year = 0;
+        int month = 0;
+        int dayOfMonth = 0;
+        int position = 0;
+        for (Object token : getTokens()) {
+            if (token instanceof String) {
+                String literal = (String) token;
+                if (!text.startsWith(literal, position)) {
+                    throw new IllegalArgumentException(text);
+                }
+                position += literal.length();
+                continue;
+            }
+            Field field = (Field) token;
+            if (field.letter == 'M' && field.width >= 3) {
+                String[] names = field.width == 3 ? shortMonthNames : monthNames;
+                int matchLength = 0;
+                for (int i = 0; i < 12; i++) {
+                    // The longest name wins, as on server-side
+                    if (names[i].length() > matchLength && text.startsWith(names[i], position)) {
+                        matchLength = names[i].length();
+                        month = i + 1;
+                    }
+                }
+                if (matchLength == 0) {
+                    throw new IllegalArgumentException(text);
+                }
+                position += matchLength;
+                continue;
+            }
+
+            int end = position;
+            while (end < text.length() && end - position < 9 && text.charAt(end) >= '0' && text.charAt(end) <= '9') {
+                end++;
+            }
+            int digits = end - position;
+            // Single letters accept any number of digits, years at least their width and others exactly their width
+            boolean validWidth = field.width == 1 || digits == field.width
+                    || (field.letter == 'y' && field.width != 2 && digits > field.width);
+            if (digits == 0 || !validWidth
+                    || (end < text.length() && text.charAt(end) >= '0' && text.charAt(end) <= '9')) {
+                throw new IllegalArgumentException(text);
+            }
+            int value = Integer.parseInt(text.substring(position, end));
+            position = end;
+            if (field.letter == 'M') {
+                month = value;
+            } else if (field.letter == 'd') {
+                dayOfMonth = value;
+            } else if (field.width == 2) {
+                year = 2000 + value;
+            } else {
+                year = value;
+            }
+        }
+        if (position != text.length() || year < 1 || year > 9999 || month < 1 || month > 12 || dayOfMonth < 1
+                || dayOfMonth > 31) {
+            throw new IllegalArgumentException(text);
+        }
+        int lengthOfMonth = CalendarGrid.lengthOfMonth(year, month);
+        if (strict && dayOfMonth > lengthOfMonth) {
+            throw new IllegalArgumentException(text);
+        }
+        // Same as the SMART resolver : 29-31 are changed to the last day of the month
+        dayOfMonth = Math.min(dayOfMonth, lengthOfMonth);
+        return CalendarGrid.toEpochDay(year, month, dayOfMonth);
+    }
+
+    /**
+     * Formats a date as the server would.
+     *
+     * @param year
+     *            the year (1-9999)
+     * @param month
+     *            the month (1-12)
+     * @param dayOfMonth
+     *            the day of month
+     * @return the date text
+     */
+    public String format(int year, int month, int dayOfMonth) {
+        StringBuilder text = new StringBuilder();
+        for (Object token : getTokens()) {
+            if (token instanceof String) {
+                text.append((String) token);
+                continue;
+            }
+            Field field = (Field) token;
+            if (field.letter == 'M') {
+                if (field.width == 4) {
+                    text.append(monthNames[month - 1]);
+                } else if (field.width == 3) {
+                    text.append(shortMonthNames[month - 1]);
+                } else {
+                    appendNumber(text, month, field.width);
+                }
+            } else if (field.letter == 'd') {
+                appendNumber(text, dayOfMonth, field.width);
+            } else if (field.width == 2) {
+                appendNumber(text, year % 100, 2);
+            } else {
+                appendNumber(text, year, field.width);
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Formats a date as the server would.
+     *
+     * @param epochDay
+     *            the date as an epoch day
+     * @return the date text
+     */
+    public String format(int epochDay) {
+        // Days since 0000-03-01, years starting on march
+        int days = epochDay + 719468;
+        int era = (days >= 0 ? days : days - 146096) / 146097;
+        int dayOfEra = days - era * 146097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int monthIndex = (5 * dayOfYear + 2) / 153;
+        int dayOfMonth = dayOfYear - (153 * monthIndex + 2) / 5 + 1;
+        int month = monthIndex < 10 ? monthIndex + 3 : monthIndex - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return format(year, month, dayOfMonth);
+    }
+
+    /**
+     * @return <code>true</code> if the date is in the date range
+     */
+    public boolean isInRange(int epochDay) {
+        return epochDay >= rangeStartEpochDay && epochDay <= rangeEndEpochDay;
+    }
+
+    private static void appendNumber(StringBuilder text, int value, int width) {
+        String digits = Integer.toString(value);
+        for (int i = digits.length(); i < width; i++) {
+            text.append('0');
+        }
+        text.append(digits);
+    }
+
+    private List<Object> getTokens() {
+        if (tokens == null) {
+            tokens = compile(pattern);
+            if (tokens == null) {
+                throw new IllegalStateException("Unsupported pattern " + pattern);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * @return the tokens of the pattern, <code>null</code> if not supported
+     */
+    private static List<Object> compile(String pattern) {
+        if (pattern == null) {
+            return null;
+        }
+        List<Object> tokens = new ArrayList<Object>();
+        boolean hasYear = false;
+        boolean hasMonth = false;
+        boolean hasDayOfMonth = false;
+        for (int i = 0; i < pattern.length();) {
+            char c = pattern.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+                int width = 1;
+                while (i + width < pattern.length() && pattern.charAt(i + width) == c) {
+                    width++;
+                }
+                i += width;
+                if (c == 'y' || c == 'u') {
+                    if (hasYear || width > 9) {
+                        return null;
+                    }
+                    hasYear = true;
+                    c = 'y';
+                } else if (c == 'M') {
+                    if (hasMonth || width > 4) {
+                        return null;
+                    }
+                    hasMonth = true;
+                } else if (c == 'd') {
+                    if (hasDayOfMonth || width > 2) {
+                        return null;
+                    }
+                    hasDayOfMonth = true;
+                } else {
+                    return null;
+                }
+                Field field = new Field(c, width);
+                if (field.isNumber() && !tokens.isEmpty() && tokens.get(tokens.size() - 1) instanceof Field
+                        && ((Field) tokens.get(tokens.size() - 1)).isNumber()) {
+                    // Adjacent numbers are parsed differently on server-side
+                    return null;
+                }
+                tokens.add(field);
+            } else if (c == LITERAL) {
+                // Quoted text, '' being a quote
+                int end = i + 1;
+                while (end < pattern.length()) {
+                    if (pattern.charAt(end) == LITERAL) {
+                        if (end + 1 < pattern.length() && pattern.charAt(end + 1) == LITERAL) {
+                            end++;
+                        } else {
+                            break;
+                        }
+                    }
+                    end++;
+                }
+                if (end >= pattern.length()) {
+                    return null;
+                }
+                String literal = pattern.substring(i + 1, end);
+                addLiteral(tokens, literal.isEmpty() ? "'" : literal.replace("''", "'"));
+                i = end + 1;
+            } else if (c == '[' || c == ']' || c == '{' || c == '}' || c == '#') {
+                // Optional sections and reserved characters
+                return null;
+            } else {
+                addLiteral(tokens, String.valueOf(c));
+                i++;
+            }
+        }
+        return hasYear && hasMonth && hasDayOfMonth ? tokens : null;
+    }
+
+    private static void addLiteral(List<Object> tokens, String literal) {
+        if (!tokens.isEmpty() && tokens.get(tokens.size() - 1) instanceof String) {
+            tokens.set(tokens.size() - 1, tokens.get(tokens.size() - 1) + literal);
+        } else {
+            tokens.add(literal);
+        }
+    }
+
+    /**
+     * A field of the pattern
+     */
+    private static final class Field {
+
+        private final char letter;
+        private final int width;
+
+        private Field(char letter, int width) {
+            this.letter = letter;
+            this.width = width;
+        }
+
+        private boolean isNumber() {
+            return letter != 'M' || width < 3;
+        }
+    }
+
+    /**
+     * @return the pattern
+     */
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * @param pattern
+     *            the pattern to set
+     */
+    public void setPattern(String pattern) {
+        this.pattern = pattern;
+        this.tokens = null;
+    }
+
+    /**
+     * @return the monthNames
+     */
+    public String[] getMonthNames() {
+        return monthNames;
+    }
+
+    /**
+     * @param monthNames
+     *            the monthNames to set
+     */
+    public void setMonthNames(String[] monthNames) {
+        this.monthNames = monthNames;
+    }
+
+    /**
+     * @return the shortMonthNames
+     */
+    public String[] getShortMonthNames() {
+        return shortMonthNames;
+    }
+
+    /**
+     * @param shortMonthNames
+     *            the shortMonthNames to set
+     */
+    public void setShortMonthNames(String[] shortMonthNames) {
+        this.shortMonthNames = shortMonthNames;
+    }
+
+    /**
+     * @return the rangeStartEpochDay
+     */
+    public int getRangeStartEpochDay() {
+        return rangeStartEpochDay;
+    }
+
+    /**
+     * @param rangeStartEpochDay
+     *            the rangeStartEpochDay to set
+     */
+    public void setRangeStartEpochDay(int rangeStartEpochDay) {
+        this.rangeStartEpochDay = rangeStartEpochDay;
+    }
+
+    /**
+     * @return the rangeEndEpochDay
+     */
+    public int getRangeEndEpochDay() {
+        return rangeEndEpochDay;
+    }
+
+    /**
+     * @param rangeEndEpochDay
+     *            the rangeEndEpochDay to set
+     */
+    public void setRangeEndEpochDay(int rangeEndEpochDay) {
+        this.rangeEndEpochDay = rangeEndEpochDay;
+    }
+
+    /**
+     * @return the strict
+     */
+    public boolean isStrict() {
+        return strict;
+    }
+
+    /**
+     * @param strict
+     *            <code>true</code> to reject the days after the end of the month, like the STRICT resolver
+     */
+    public void setStrict(boolean strict) {
+        this.strict = strict;
+    }
+
+}
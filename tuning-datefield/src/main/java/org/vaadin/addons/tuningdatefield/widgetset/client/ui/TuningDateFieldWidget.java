@@ -27,7 +27,11 @@ import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.CalendarOpen
 import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.CalendarOpenHandler;
 import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.DateTextChangeEvent;
 import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.DateTextChangeHandler;
+import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.DateTextParsedEvent;
+import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.DateTextParsedHandler;
 
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationCallback;
 import com.google.gwt.aria.client.Id;
 import com.google.gwt.aria.client.Roles;
 import com.google.gwt.core.client.GWT;
@@ -71,6 +75,11 @@ public class TuningDateFieldWidget extends FlowPanel implements Field, CloseHand
      */
     public static final String CLASSNAME = "v-datefield";
 
+    /**
+     * Same as Vaadin date fields when the date text cannot be parsed
+     */
+    public static final String PARSE_ERROR_CLASSNAME = CLASSNAME + "-parseerror";
+
     private final TextBox dateTextBox;
 
     private final Button calendarToggle = new Button();
@@ -84,11 +93,23 @@ public class TuningDateFieldWidget extends FlowPanel implements Field, CloseHand
 
     private boolean openCalendarOnFocusEnabled = false;
 
+    // Parses the date text without asking the server, null if the pattern is not supported
+    private DateTextFormat dateTextFormat;
+
     /**
      * True when the popup calendar is open, else false
      */
     private boolean calendarOpen = false;
 
+    // The size of the popup when it was last positioned
+    private int positionedPopupWidth = -1;
+    private int positionedPopupHeight = -1;
+
+    private boolean popupPositionUpdateScheduled;
+
+    // The style name the popup and calendar style names have been computed from
+    private String appliedStyleName;
+
     public TuningDateFieldWidget() {
         setStyleName(CLASSNAME);
         addStyleName("tuning-datefield");
@@ -153,7 +174,7 @@ public class TuningDateFieldWidget extends FlowPanel implements Field, CloseHand
         calendar.addCalendarAttachedHandler(new CalendarAttachedHandler() {
             @Override
             public void onCalendarAttached(CalendarAttachedEvent event) {
-                updatePopupPosition();
+                schedulePopupPositionUpdate();
             }
         });
 
@@ -174,19 +195,16 @@ public class TuningDateFieldWidget extends FlowPanel implements Field, CloseHand
 
     public void redrawCalendar() {
         updateStyleNames();
+        // The popup stays attached, it is repositioned on next frame if the calendar size changed
         calendar.redraw(calendarOpen);
-        // HACK : We need to hide/show so that the popup overlay is repainted
-        if (popup.isShowing()) {
-            popup.hide();
-            popup.show();
-        }
     }
 
     public void openCalendar() {
 
         if (!calendarOpen && !readOnly) {
             fireEvent(new CalendarOpenEvent());
-            calendar.redraw(calendarOpen);
+            // The page pushed for opening is drawn right away, else a loading indicator until the server answers
+            calendar.redraw(calendar.displayOpenCalendarPage());
             // clear previous values
             popup.setWidth("");
             popup.setHeight("");
@@ -197,53 +215,110 @@ public class TuningDateFieldWidget extends FlowPanel implements Field, CloseHand
     }
 
     public void updatePopupPosition() {
-
-        // This has been copied from Vaadin VPopupCalendar (shame on me...)
         popup.setPopupPositionAndShow(new PositionCallback() {
             @Override
             public void setPosition(int offsetWidth, int offsetHeight) {
-                final int w = offsetWidth;
-                final int h = offsetHeight;
-                final int browserWindowWidth = Window.getClientWidth() + Window.getScrollLeft();
-                final int browserWindowHeight = Window.getClientHeight() + Window.getScrollTop();
-                int t = calendarToggle.getAbsoluteTop();
-                int l = calendarToggle.getAbsoluteLeft();
-
-                // Add a little extra space to the right to avoid
-                // problems with IE7 scrollbars and to make it look
-                // nicer.
-                int extraSpace = 30;
-
-                boolean overflowRight = false;
-                if (l + +w + extraSpace > browserWindowWidth) {
-                    overflowRight = true;
-                    // Part of the popup is outside the browser window
-                    // (to the right)
-                    l = browserWindowWidth - w - extraSpace;
-                }
+                positionPopup(offsetWidth, offsetHeight);
+            }
+        });
+    }
 
-                if (t + h + calendarToggle.getOffsetHeight() + 30 > browserWindowHeight) {
-                    // Part of the popup is outside the browser window
-                    // (below)
-                    t = browserWindowHeight - h - calendarToggle.getOffsetHeight() - 30;
-                    if (!overflowRight) {
-                        // Show to the right of the popup button unless we
-                        // are in the lower right corner of the screen
-                        l += calendarToggle.getOffsetWidth();
+    /**
+     * Repositions the open popup on next animation frame if its size has changed, so that several redraws in a row
+     * only cost one layout.
+     */
+    private void schedulePopupPositionUpdate() {
+        if (popupPositionUpdateScheduled || !popup.isShowing()) {
+            // The popup is positioned when it is shown
+            return;
+        }
+        popupPositionUpdateScheduled = true;
+        AnimationScheduler.get().requestAnimationFrame(new AnimationCallback() {
+            @Override
+            public void execute(double timestamp) {
+                popupPositionUpdateScheduled = false;
+                if (popup.isShowing()) {
+                    int offsetWidth = popup.getOffsetWidth();
+                    int offsetHeight = popup.getOffsetHeight();
+                    if (offsetWidth != positionedPopupWidth || offsetHeight != positionedPopupHeight) {
+                        positionPopup(offsetWidth, offsetHeight);
                     }
                 }
+            }
+        }, popup.getElement());
+    }
 
-                popup.setPopupPosition(l, t + calendarToggle.getOffsetHeight() + 2);
+    private void positionPopup(int offsetWidth, int offsetHeight) {
+        // This has been copied from Vaadin VPopupCalendar (shame on me...)
+        // All the layout values are read before the popup is moved so that the browser computes the layout only once
+        final int w = offsetWidth;
+        final int h = offsetHeight;
+        final int browserWindowWidth = Window.getClientWidth() + Window.getScrollLeft();
+        final int browserWindowHeight = Window.getClientHeight() + Window.getScrollTop();
+        int t = calendarToggle.getAbsoluteTop();
+        int l = calendarToggle.getAbsoluteLeft();
+        final int toggleWidth = calendarToggle.getOffsetWidth();
+        final int toggleHeight = calendarToggle.getOffsetHeight();
+
+        // Add a little extra space to the right to avoid
+        // problems with IE7 scrollbars and to make it look
+        // nicer.
+        int extraSpace = 30;
+
+        boolean overflowRight = false;
+        if (l + +w + extraSpace > browserWindowWidth) {
+            overflowRight = true;
+            // Part of the popup is outside the browser window
+            // (to the right)
+            l = browserWindowWidth - w - extraSpace;
+        }
+
+        if (t + h + toggleHeight + 30 > browserWindowHeight) {
+            // Part of the popup is outside the browser window
+            // (below)
+            t = browserWindowHeight - h - toggleHeight - 30;
+            if (!overflowRight) {
+                // Show to the right of the popup button unless we
+                // are in the lower right corner of the screen
+                l += toggleWidth;
             }
-        });
+        }
+
+        // Also updates the overlay shadow to the new size
+        popup.setPopupPosition(l, t + toggleHeight + 2);
+        positionedPopupWidth = w;
+        positionedPopupHeight = h;
     }
 
     @Override
     public void onChange(ChangeEvent event) {
-        if (!dateTextBox.getText().equals("")) {
-            fireEvent(new DateTextChangeEvent(dateTextBox.getText()));
-        } else {
+        String dateText = dateTextBox.getText();
+        if (dateText.equals("")) {
+            setDateTextError(false);
             fireEvent(new DateTextChangeEvent(null));
+        } else if (dateTextFormat != null) {
+            int epochDay;
+            try {
+                epochDay = dateTextFormat.parse(dateText);
+            } catch (IllegalArgumentException e) {
+                // The server may still handle it, see TuningDateField#handleUnparsableDateString
+                setDateTextError(true);
+                fireEvent(new DateTextChangeEvent(dateText));
+                return;
+            }
+            dateTextBox.setText(dateTextFormat.format(epochDay));
+            setDateTextError(!dateTextFormat.isInRange(epochDay));
+            fireEvent(new DateTextParsedEvent(epochDay));
+        } else {
+            fireEvent(new DateTextChangeEvent(dateText));
+        }
+    }
+
+    private void setDateTextError(boolean dateTextError) {
+        if (dateTextError) {
+            addStyleName(PARSE_ERROR_CLASSNAME);
+        } else {
+            removeStyleName(PARSE_ERROR_CLASSNAME);
         }
     }
 
@@ -276,11 +351,38 @@ public class TuningDateFieldWidget extends FlowPanel implements Field, CloseHand
         }
     }
 
+    /**
+     * Displays a clicked day and closes the calendar without waiting for the server, which will send back the text
+     * of the value it actually selected.
+     * 
+     * @param epochDay
+     *            the clicked day
+     */
+    public void selectOptimistically(int epochDay) {
+        if (dateTextFormat != null) {
+            dateTextBox.setText(dateTextFormat.format(epochDay));
+            setDateTextError(false);
+        }
+        if (calendarOpen) {
+            // Not auto closed : the server closes the calendar on its side
+            popup.hide(false);
+            calendarOpen = false;
+        }
+    }
+
     public void setDisplayedDateText(String text) {
-        dateTextBox.setText(text);
+        if (!dateTextBox.getText().equals(text == null ? "" : text)) {
+            dateTextBox.setText(text);
+            // The server has replaced the text, it shows its own errors
+            setDateTextError(false);
+        }
     }
 
     protected void updateStyleNames() {
+        if (getStyleName() != null && getStyleName().equals(appliedStyleName)) {
+            // Nothing changed since last time
+            return;
+        }
         if (getStylePrimaryName() != null && calendarToggle != null) {
             addStyleName(getStylePrimaryName() + "-popupcalendar");
             calendarToggle.setStyleName(getStylePrimaryName() + "-button");
@@ -298,6 +400,7 @@ public class TuningDateFieldWidget extends FlowPanel implements Field, CloseHand
                     }
                 }
             }
+            appliedStyleName = getStyleName();
         }
     }
 
@@ -305,6 +408,10 @@ public class TuningDateFieldWidget extends FlowPanel implements Field, CloseHand
         return addHandler(dateTextChangeHandler, DateTextChangeEvent.getType());
     }
 
+    public HandlerRegistration addDateTextParsedHandler(DateTextParsedHandler dateTextParsedHandler) {
+        return addHandler(dateTextParsedHandler, DateTextParsedEvent.getType());
+    }
+
     public HandlerRegistration addCalendarOpenHandler(CalendarOpenHandler calendarOpenHandler) {
         return addHandler(calendarOpenHandler, CalendarOpenEvent.getType());
     }
@@ -418,6 +525,21 @@ public class TuningDateFieldWidget extends FlowPanel implements Field, CloseHand
         dateTextBox.setTabIndex(index);
     }
 
+    /**
+     * @return the dateTextFormat
+     */
+    public DateTextFormat getDateTextFormat() {
+        return dateTextFormat;
+    }
+
+    /**
+     * @param dateTextFormat
+     *            the dateTextFormat to set, <code>null</code> to let the server parse the date text
+     */
+    public void setDateTextFormat(DateTextFormat dateTextFormat) {
+        this.dateTextFormat = dateTextFormat;
+    }
+
     public boolean isOpenCalendarOnFocusEnabled() {
         return openCalendarOnFocusEnabled;
     }
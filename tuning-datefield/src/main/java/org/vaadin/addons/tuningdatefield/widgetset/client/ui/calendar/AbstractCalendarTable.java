@@ -17,22 +17,25 @@
 package org.vaadin.addons.tuningdatefield.widgetset.client.ui.calendar;
 
 import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.CalendarItemClickEvent;
+import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.JumpControlClickEvent;
 import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.NextControlClickEvent;
 import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.PreviousControlClickEvent;
 import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.ResolutionControlClickEvent;
 
+import com.google.gwt.dom.client.Element;
 import com.google.gwt.event.dom.client.ClickEvent;
 import com.google.gwt.event.dom.client.ClickHandler;
-import com.google.gwt.user.client.DOM;
 import com.google.gwt.user.client.ui.FlexTable;
 
 /**
  * A calendar table that holds cell items and controls.<br>
  * This table is ususally composed of :
  * <ol>
- * <li>A row for controls with 3 cells (previous, resolution and next control)</li>
+ * <li>A row for controls with 3 cells (previous, resolution and next control), and a jump control if visible</li>
  * <li>X rows for cellItems which can be days, months or years depending on the resolution</li>
  * </ol>
+ * The table is kept by the calendar and {@link #update(String, CalendarItem[], boolean)} only patches the text, class
+ * and title of the cells which changed since the last rendering.
  * 
  * @author Frederic.Dreyfus
  */
@@ -58,6 +61,17 @@ public abstract class AbstractCalendarTable extends FlexTable {
      */
     protected boolean controlsEnabled;
 
+    // Internal use : what is currently rendered in each cell item, so that only the changes are written to the DOM
+    private String[] renderedTexts = new String[0];
+    private String[] renderedClassNames = new String[0];
+    private String[] renderedTooltips = new String[0];
+
+    // Internal use : true if the jump control is rendered
+    private boolean renderedJumpControlVisible;
+
+    // Internal use : the cell item selected by a click until the next update, -1 if none
+    private int clickedItemIndex = -1;
+
     public AbstractCalendarTable(TuningDateFieldCalendarWidget tuningDateFieldCalendar, String resolutionControlText,
             CalendarItem[] calendarItems, boolean controlsEnabled) {
         super();
@@ -130,6 +144,20 @@ public abstract class AbstractCalendarTable extends FlexTable {
         return 2;
     }
 
+    /**
+     * @return the column of the jump control (usually 3)
+     */
+    protected int getJumpControlColumn() {
+        return 3;
+    }
+
+    /**
+     * @return true if the jump control to the next available date is rendered, false by default
+     */
+    protected boolean isJumpControlVisible() {
+        return false;
+    }
+
     private void init() {
 
         renderHeader();
@@ -138,22 +166,23 @@ public abstract class AbstractCalendarTable extends FlexTable {
 
         // There is only one clickHandler for the table which will dispatch the correct events
         addClickHandler(new ClickHandler() {
-            Cell selectedCell = null;
 
             @Override
             public void onClick(ClickEvent event) {
                 Cell clickedCell = getCellForEvent(event);
+                // A provisional page may be disabled by the decorations not received yet
+                if (clickedCell == null || tuningDateFieldCalendar.isProvisionalPageDisplayed()) {
+                    return;
+                }
                 if (clickedCell.getRowIndex() >= getFirstCellItemsRow()) { // click on cellItem
                     int itemIndex = getItemIndex(clickedCell.getRowIndex(), clickedCell.getCellIndex());
                     CalendarItem calendarItem = calendarItems[itemIndex];
                     if (calendarItem.isEnabled()) {
-                        if (selectedCell != null) {
-                            getFlexCellFormatter().removeStyleName(selectedCell.getRowIndex(),
-                                    selectedCell.getCellIndex(), "selected");
+                        if (clickedItemIndex >= 0) {
+                            setCellClassName(clickedItemIndex, getCellClassName(clickedItemIndex));
                         }
-                        selectedCell = clickedCell;
-                        getFlexCellFormatter().addStyleName(selectedCell.getRowIndex(), selectedCell.getCellIndex(),
-                                "selected");
+                        clickedItemIndex = itemIndex;
+                        setCellClassName(itemIndex, getCellClassName(itemIndex) + " selected");
                         cellItemClick(itemIndex, event);
                     }
                 } else if (clickedCell.getRowIndex() == getControlsRow()) {
@@ -163,6 +192,9 @@ public abstract class AbstractCalendarTable extends FlexTable {
                         nextControlClick();
                     } else if (clickedCell.getCellIndex() == getResolutionControlColumn()) {
                         resolutionControlClick();
+                    } else if (clickedCell.getCellIndex() == getJumpControlColumn() && renderedJumpControlVisible
+                            && controlsEnabled) {
+                        jumpControlClick();
                     }
                 }
 
@@ -170,49 +202,141 @@ public abstract class AbstractCalendarTable extends FlexTable {
         });
     }
 
-    private void renderCalendarItems() {
-        for (CalendarItem cellItem : calendarItems) {
-            int row = getRow(cellItem.getIndex());
-            int column = getColumn(cellItem.getIndex());
+    /**
+     * Updates the table with a new page. Only the cells and controls which changed are written to the DOM, rows are
+     * added or removed when the number of rows changes.
+     * 
+     * @param resolutionControlText
+     *            the text in the resolution control cell
+     * @param calendarItems
+     *            the cell items
+     * @param controlsEnabled
+     *            true if the controls are enabled
+     */
+    public void update(String resolutionControlText, CalendarItem[] calendarItems, boolean controlsEnabled) {
+        boolean controlsChanged = controlsEnabled != this.controlsEnabled
+                || isJumpControlVisible() != renderedJumpControlVisible
+                || !(resolutionControlText == null ? this.resolutionControlText == null : resolutionControlText
+                        .equals(this.resolutionControlText));
+        this.resolutionControlText = resolutionControlText;
+        this.calendarItems = calendarItems;
+        this.controlsEnabled = controlsEnabled;
+        clickedItemIndex = -1;
 
-            setHTML(row, column, cellItem.getText());
+        if (controlsChanged) {
+            renderControls();
+        }
+        renderCalendarItems();
+    }
 
-            StringBuilder styleNamesBuilder = new StringBuilder(getCellItemPrimaryStylename());
-            if (cellItem.isEnabled()) {
-                styleNamesBuilder.append(" enabled");
-            } else {
-                styleNamesBuilder.append(" disabled");
+    private void renderCalendarItems() {
+        int numberOfColumns = getNumberOfColumns();
+        int numberOfCellItemRows = calendarItems.length / numberOfColumns;
+        int previousNumberOfCellItemRows = renderedTexts.length / numberOfColumns;
+        int firstRow = getFirstCellItemsRow();
+
+        if (numberOfCellItemRows != previousNumberOfCellItemRows) {
+            while (getRowCount() > firstRow + numberOfCellItemRows) {
+                removeRow(getRowCount() - 1);
             }
+            renderedTexts = resize(renderedTexts, calendarItems.length);
+            renderedClassNames = resize(renderedClassNames, calendarItems.length);
+            renderedTooltips = resize(renderedTooltips, calendarItems.length);
+        }
 
-            if (cellItem.getStyle() != null && !cellItem.getStyle().isEmpty()) {
-                styleNamesBuilder.append(" ").append(cellItem.getStyle());
+        for (int itemIndex = 0; itemIndex < calendarItems.length; itemIndex++) {
+            CalendarItem cellItem = calendarItems[itemIndex];
+
+            String text = cellItem.getText();
+            if (itemIndex >= previousNumberOfCellItemRows * numberOfColumns) {
+                // New cell
+                setHTML(getRow(itemIndex), getColumn(itemIndex), text);
+                renderedTexts[itemIndex] = text;
+            } else if (!equals(text, renderedTexts[itemIndex])) {
+                getCellElement(itemIndex).setInnerHTML(text);
+                renderedTexts[itemIndex] = text;
             }
-            if (cellItem.getTooltip() != null && !cellItem.getTooltip().isEmpty()) {
-                DOM.setElementAttribute(getFlexCellFormatter().getElement(row, column), "title", cellItem.getTooltip());
+
+            String className = getCellClassName(itemIndex);
+            if (!className.equals(renderedClassNames[itemIndex])) {
+                setCellClassName(itemIndex, className);
             }
 
-            getFlexCellFormatter().addStyleName(row, column, styleNamesBuilder.toString());
+            String tooltip = cellItem.getTooltip();
+            if (tooltip != null && tooltip.isEmpty()) {
+                tooltip = null;
+            }
+            if (!equals(tooltip, renderedTooltips[itemIndex])) {
+                if (tooltip == null) {
+                    getCellElement(itemIndex).removeAttribute("title");
+                } else {
+                    getCellElement(itemIndex).setTitle(tooltip);
+                }
+                renderedTooltips[itemIndex] = tooltip;
+            }
         }
 
-        // For each row add stylename
-        int numberOfCellItemRows = calendarItems.length / getNumberOfColumns();
-        int firstRow = getFirstCellItemsRow();
-        int lastRow = getFirstCellItemsRow() + numberOfCellItemRows - 1;
-        for (int i = firstRow; i <= lastRow; i++) {
-            getRowFormatter().setStyleName(i, getRowPrimaryStylename());
-            getCellFormatter().addStyleName(i, 0, "first-column");
-            getCellFormatter().addStyleName(i, getNumberOfColumns() - 1, "last-column");
-            if (i == firstRow) {
-                getRowFormatter().addStyleName(i, "first-row");
-            }
-            if (i == lastRow) {
-                getRowFormatter().addStyleName(i, "last-row");
+        if (numberOfCellItemRows != previousNumberOfCellItemRows) {
+            // For each row add stylename
+            int lastRow = firstRow + numberOfCellItemRows - 1;
+            for (int i = firstRow; i <= lastRow; i++) {
+                StringBuilder rowStyleNames = new StringBuilder(getRowPrimaryStylename());
+                if (i == firstRow) {
+                    rowStyleNames.append(" first-row");
+                }
+                if (i == lastRow) {
+                    rowStyleNames.append(" last-row");
+                }
+                getRowFormatter().setStyleName(i, rowStyleNames.toString());
             }
         }
+    }
+
+    /**
+     * @return the class names of a cell item as rendered from its calendar item
+     */
+    private String getCellClassName(int itemIndex) {
+        CalendarItem cellItem = calendarItems[itemIndex];
+        StringBuilder styleNamesBuilder = new StringBuilder(getCellItemPrimaryStylename());
+        if (cellItem.isEnabled()) {
+            styleNamesBuilder.append(" enabled");
+        } else {
+            styleNamesBuilder.append(" disabled");
+        }
+
+        if (cellItem.getStyle() != null && !cellItem.getStyle().isEmpty()) {
+            styleNamesBuilder.append(" ").append(cellItem.getStyle());
+        }
+
+        int column = getColumn(itemIndex);
+        if (column == 0) {
+            styleNamesBuilder.append(" first-column");
+        }
+        if (column == getNumberOfColumns() - 1) {
+            styleNamesBuilder.append(" last-column");
+        }
+        return styleNamesBuilder.toString();
+    }
+
+    private void setCellClassName(int itemIndex, String className) {
+        getCellElement(itemIndex).setClassName(className);
+        renderedClassNames[itemIndex] = className;
+    }
+
+    private Element getCellElement(int itemIndex) {
+        return getCellFormatter().getElement(getRow(itemIndex), getColumn(itemIndex));
+    }
 
-        
-        
+    private static String[] resize(String[] array, int length) {
+        String[] resized = new String[length];
+        for (int i = 0; i < length && i < array.length; i++) {
+            resized[i] = array[i];
+        }
+        return resized;
+    }
 
+    private static boolean equals(String s1, String s2) {
+        return s1 == null ? s2 == null : s1.equals(s2);
     }
 
     protected void renderHeader() {
@@ -227,21 +351,22 @@ public abstract class AbstractCalendarTable extends FlexTable {
 
         renderNextControl();
 
+        renderJumpControl();
+
         getRowFormatter().setStyleName(getControlsRow(), "controls");
 
     }
 
+    // The style names are set as a whole as the controls are rendered again when they change
     protected void renderPreviousControl() {
         if (controlsEnabled) {
             setText(getControlsRow(), getPreviousControlColumn(), "<");
-            getFlexCellFormatter()
-                    .setStylePrimaryName(getControlsRow(), getPreviousControlColumn(), "previous-control");
-            getFlexCellFormatter().addStyleName(getControlsRow(), getPreviousControlColumn(), "enabled");
+            getFlexCellFormatter().setStyleName(getControlsRow(), getPreviousControlColumn(),
+                    "previous-control enabled");
         } else {
             setText(getControlsRow(), getPreviousControlColumn(), "");
-            getFlexCellFormatter()
-                    .setStylePrimaryName(getControlsRow(), getPreviousControlColumn(), "previous-control");
-            getFlexCellFormatter().addStyleName(getControlsRow(), getPreviousControlColumn(), "disabled");
+            getFlexCellFormatter().setStyleName(getControlsRow(), getPreviousControlColumn(),
+                    "previous-control disabled");
         }
 
     }
@@ -249,27 +374,40 @@ public abstract class AbstractCalendarTable extends FlexTable {
     protected void renderNextControl() {
         if (controlsEnabled) {
             setText(getControlsRow(), getNextControlColumn(), ">");
-            getFlexCellFormatter().setStylePrimaryName(getControlsRow(), getNextControlColumn(), "next-control");
-            getFlexCellFormatter().addStyleName(getControlsRow(), getNextControlColumn(), "enabled");
+            getFlexCellFormatter().setStyleName(getControlsRow(), getNextControlColumn(), "next-control enabled");
         } else {
             setText(getControlsRow(), getNextControlColumn(), "");
-            getFlexCellFormatter().setStylePrimaryName(getControlsRow(), getNextControlColumn(), "next-control");
-            getFlexCellFormatter().addStyleName(getControlsRow(), getNextControlColumn(), "disabled");
+            getFlexCellFormatter().setStyleName(getControlsRow(), getNextControlColumn(), "next-control disabled");
         }
 
     }
 
+    protected void renderJumpControl() {
+        renderedJumpControlVisible = isJumpControlVisible();
+        if (!renderedJumpControlVisible) {
+            if (getCellCount(getControlsRow()) > getJumpControlColumn()) {
+                removeCell(getControlsRow(), getJumpControlColumn());
+            }
+        } else if (controlsEnabled) {
+            setText(getControlsRow(), getJumpControlColumn(), "\u00bb");
+            getFlexCellFormatter().setStyleName(getControlsRow(), getJumpControlColumn(), "jump-control enabled");
+        } else {
+            setText(getControlsRow(), getJumpControlColumn(), "");
+            getFlexCellFormatter().setStyleName(getControlsRow(), getJumpControlColumn(), "jump-control disabled");
+        }
+    }
+
     protected void renderResolutionControl() {
         setText(getControlsRow(), getResolutionControlColumn(), resolutionControlText);
-        getFlexCellFormatter()
-                .setStylePrimaryName(getControlsRow(), getResolutionControlColumn(), "resolution-control");
         if (controlsEnabled) {
-            getFlexCellFormatter().addStyleName(getControlsRow(), getResolutionControlColumn(), "enabled");
+            getFlexCellFormatter().setStyleName(getControlsRow(), getResolutionControlColumn(),
+                    "resolution-control enabled");
         } else {
-            getFlexCellFormatter().addStyleName(getControlsRow(), getResolutionControlColumn(), "disabled");
+            getFlexCellFormatter().setStyleName(getControlsRow(), getResolutionControlColumn(),
+                    "resolution-control disabled");
         }
 
-        int colspan = getNumberOfColumns() - 2;
+        int colspan = getNumberOfColumns() - (isJumpControlVisible() ? 3 : 2);
         getFlexCellFormatter().setColSpan(getControlsRow(), getResolutionControlColumn(), colspan);
 
     }
@@ -327,4 +465,8 @@ public abstract class AbstractCalendarTable extends FlexTable {
         tuningDateFieldCalendar.fireEvent(new ResolutionControlClickEvent());
     }
 
+    public void jumpControlClick() {
+        tuningDateFieldCalendar.fireEvent(new JumpControlClickEvent());
+    }
+
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2013 Frederic Dreyfus
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vaadin.addons.tuningdatefield.widgetset.client.ui.calendar;
+
+import java.io.Serializable;
+
+/**
+ * A calendar page pushed in advance by the server so that the calendar displays it without waiting for the server
+ * round trip : the pages next to the displayed one, displayed as soon as the previous or next control is clicked, and
+ * the page displayed when the calendar is opened.
+ *
+ * @author Frederic.Dreyfus
+ *
+ */
+public class AdjacentCalendarPage implements Serializable {
+
+    private static final long serialVersionUID = 2947516035526440912L;
+
+    /**
+     * The number of next control clicks (previous control clicks if negative) from the displayed page to this page
+     */
+    private int offset;
+
+    private CalendarGrid calendarGrid;
+
+    /**
+     * The cells which differ from the default page of the grid, <code>null</code> if none
+     */
+    private CalendarPageDelta calendarPageDelta;
+
+    private String calendarResolutionText;
+
+    /**
+     * True when the page has not been built yet and only holds the default page of a customized calendar : its cells
+     * cannot be clicked until the server sends the decorations
+     */
+    private boolean provisional;
+
+    public AdjacentCalendarPage() {
+
+    }
+
+    public AdjacentCalendarPage(int offset, CalendarGrid calendarGrid, CalendarPageDelta calendarPageDelta,
+            String calendarResolutionText) {
+        this(offset, calendarGrid, calendarPageDelta, calendarResolutionText, false);
+    }
+
+    public AdjacentCalendarPage(int offset, CalendarGrid calendarGrid, CalendarPageDelta calendarPageDelta,
+            String calendarResolutionText, boolean provisional) {
+        this.offset = offset;
+        this.calendarGrid = calendarGrid;
+        this.calendarPageDelta = calendarPageDelta;
+        this.calendarResolutionText = calendarResolutionText;
+        this.provisional = provisional;
+    }
+
+    /**
+     * @return the offset
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * @param offset
+     *            the offset to set
+     */
+    public void setOffset(int offset) {
+        this.offset = offset;
+    }
+
+    /**
+     * @return the calendarGrid
+     */
+    public CalendarGrid getCalendarGrid() {
+        return calendarGrid;
+    }
+
+    /**
+     * @param calendarGrid
+     *            the calendarGrid to set
+     */
+    public void setCalendarGrid(CalendarGrid calendarGrid) {
+        this.calendarGrid = calendarGrid;
+    }
+
+    /**
+     * @return the calendarPageDelta
+     */
+    public CalendarPageDelta getCalendarPageDelta() {
+        return calendarPageDelta;
+    }
+
+    /**
+     * @param calendarPageDelta
+     *            the calendarPageDelta to set
+     */
+    public void setCalendarPageDelta(CalendarPageDelta calendarPageDelta) {
+        this.calendarPageDelta = calendarPageDelta;
+    }
+
+    /**
+     * @return the calendarResolutionText
+     */
+    public String getCalendarResolutionText() {
+        return calendarResolutionText;
+    }
+
+    /**
+     * @param calendarResolutionText
+     *            the calendarResolutionText to set
+     */
+    public void setCalendarResolutionText(String calendarResolutionText) {
+        this.calendarResolutionText = calendarResolutionText;
+    }
+
+    /**
+     * @return the provisional
+     */
+    public boolean isProvisional() {
+        return provisional;
+    }
+
+    /**
+     * @param provisional
+     *            the provisional to set
+     */
+    public void setProvisional(boolean provisional) {
+        this.provisional = provisional;
+    }
+
+}
@@ -0,0 +1,578 @@
+/*
+ * Copyright (C) 2013 Frederic Dreyfus
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vaadin.addons.tuningdatefield.widgetset.client.ui.calendar;
+
+import java.io.Serializable;
+
+/**
+ * The parameters of a calendar page from which both the server and the calendar compute the default page : layout,
+ * day numbers, previous/next month cells, week-ends, today, selected and enabled cells.<br>
+ * Only the cells which differ from this default page (customized styles, tooltips, texts or disabled dates) are sent
+ * to the calendar, see {@link CalendarPageDelta}.<br>
+ * Dates are handled as plain integers (epoch days) so that the same code runs on both sides.
+ *
+ * @author Frederic.Dreyfus
+ *
+ */
+public class CalendarGrid implements Serializable {
+
+    private static final long serialVersionUID = 6342075593411706213L;
+
+    /**
+     * The number of days from year zero to 1970-01-01
+     */
+    private static final int DAYS_0000_TO_1970 = 719528;
+
+    private CalendarResolution calendarResolution;
+
+    /**
+     * The year displayed in {@link CalendarResolution#DAY} and {@link CalendarResolution#MONTH}, the first year
+     * displayed in {@link CalendarResolution#YEAR}
+     */
+    private int year;
+
+    /**
+     * The month displayed (1-12) in {@link CalendarResolution#DAY}
+     */
+    private int month;
+
+    /**
+     * The number of years displayed in {@link CalendarResolution#YEAR}
+     */
+    private int numberOfYears;
+
+    /**
+     * The first and last day of week (1=Monday,...,7=Sunday)
+     */
+    private int firstDayOfWeek;
+    private int lastDayOfWeek;
+
+    private boolean fixedNumberOfDayRows;
+
+    /**
+     * The days of week which are week-ends, bit <code>n</code> being set for the day of week <code>n+1</code>
+     */
+    private int weekendDaysMask;
+
+    private boolean weekendDisabled;
+    private boolean previousMonthDisabled;
+    private boolean nextMonthDisabled;
+
+    /**
+     * The date range as epoch days, both included
+     */
+    private int rangeStartEpochDay = Integer.MIN_VALUE;
+    private int rangeEndEpochDay = Integer.MAX_VALUE;
+
+    /**
+     * The selected date, <code>0</code> if none
+     */
+    private int selectedYear;
+    private int selectedMonth;
+    private int selectedDayOfMonth;
+
+    public CalendarGrid() {
+
+    }
+
+    /**
+     * Builds the default page.
+     *
+     * @param todayYear
+     *            the year of today
+     * @param todayMonth
+     *            the month of today (1-12)
+     * @param todayDayOfMonth
+     *            the day of month of today
+     * @return the default page
+     */
+    public CalendarPage buildPage(int todayYear, int todayMonth, int todayDayOfMonth) {
+        switch (calendarResolution) {
+        case MONTH:
+            return buildMonthPage(todayYear, todayMonth);
+        case YEAR:
+            return buildYearPage(todayYear);
+        default:
+            return buildDayPage(toEpochDay(todayYear, todayMonth, todayDayOfMonth));
+        }
+    }
+
+    /**
+     * Returns the date of a cell : the day in day resolution, the first day of the month in month resolution and the
+     * first day of the year in year resolution.
+     * 
+     * @param itemIndex
+     *            the index of the cell in the page
+     * @return the epoch day of the cell
+     */
+    public int getCellEpochDay(int itemIndex) {
+        switch (calendarResolution) {
+        case MONTH:
+            return toEpochDay(year, itemIndex + 1, 1);
+        case YEAR:
+            return toEpochDay(year + itemIndex, 1, 1);
+        default:
+            int firstDayOfMonth = toEpochDay(year, month, 1);
+            return firstDayOfMonth - getLeadingDays(firstDayOfMonth) + itemIndex;
+        }
+    }
+
+    /**
+     * @return the number of days of the previous month displayed before the first day of the month
+     */
+    private int getLeadingDays(int firstDayOfMonth) {
+        return (getDayOfWeek(firstDayOfMonth) - firstDayOfWeek + 7) % 7;
+    }
+
+    private CalendarPage buildDayPage(int todayEpochDay) {
+        int firstDayOfMonth = toEpochDay(year, month, 1);
+        int monthLength = lengthOfMonth(year, month);
+        int previousMonthLength = month == 1 ? 31 : lengthOfMonth(year, month - 1);
+
+        int firstDayOfMonthDayOfWeek = getDayOfWeek(firstDayOfMonth);
+        int leadingDays = getLeadingDays(firstDayOfMonth);
+        int lastDayOfMonthDayOfWeek = (firstDayOfMonthDayOfWeek + monthLength - 2) % 7 + 1;
+        int trailingDays = (lastDayOfWeek - lastDayOfMonthDayOfWeek + 7) % 7;
+        if (fixedNumberOfDayRows) {
+            // Always display 6 day rows
+            int numberOfRows = (leadingDays + monthLength + trailingDays) / 7;
+            if (numberOfRows < 5) {
+                trailingDays += 14;
+            } else if (numberOfRows < 6) {
+                trailingDays += 7;
+            }
+        }
+
+        int numberOfDays = leadingDays + monthLength + trailingDays;
+        int calendarFirstDay = firstDayOfMonth - leadingDays;
+        int selectedEpochDay = selectedYear == 0 ? Integer.MIN_VALUE : toEpochDay(selectedYear, selectedMonth,
+                selectedDayOfMonth);
+
+        int[] relativeDateIndexes = new int[numberOfDays];
+        int[] flags = new int[numberOfDays];
+        for (int i = 0; i < numberOfDays; i++) {
+            int epochDay = calendarFirstDay + i;
+            boolean weekend = (weekendDaysMask & (1 << ((firstDayOfWeek - 1 + i) % 7))) != 0;
+            int cellFlags = weekend ? CalendarPage.WEEKEND : 0;
+            if (i < leadingDays) {
+                relativeDateIndexes[i] = -(previousMonthLength - leadingDays + i + 1);
+                cellFlags |= CalendarPage.PREVIOUS_MONTH;
+                if (!previousMonthDisabled) {
+                    cellFlags |= CalendarPage.ENABLED;
+                }
+            } else if (i < leadingDays + monthLength) {
+                relativeDateIndexes[i] = i - leadingDays + 1;
+                cellFlags |= CalendarPage.CURRENT_MONTH;
+                if (epochDay >= rangeStartEpochDay && epochDay <= rangeEndEpochDay && !(weekend && weekendDisabled)) {
+                    cellFlags |= CalendarPage.ENABLED;
+                }
+            } else {
+                relativeDateIndexes[i] = -(i - leadingDays - monthLength + 1);
+                cellFlags |= CalendarPage.NEXT_MONTH;
+                if (!nextMonthDisabled) {
+                    cellFlags |= CalendarPage.ENABLED;
+                }
+            }
+            if (epochDay == todayEpochDay) {
+                cellFlags |= CalendarPage.TODAY;
+            }
+            if (epochDay == selectedEpochDay) {
+                cellFlags |= CalendarPage.SELECTED;
+            }
+            flags[i] = cellFlags;
+        }
+        return newPage(relativeDateIndexes, flags);
+    }
+
+    private CalendarPage buildMonthPage(int todayYear, int todayMonth) {
+        int[] relativeDateIndexes = new int[12];
+        int[] flags = new int[12];
+        for (int i = 0; i < 12; i++) {
+            int monthOfYear = i + 1;
+            relativeDateIndexes[i] = monthOfYear;
+            int cellFlags = CalendarPage.ENABLED;
+            if (year == todayYear && monthOfYear == todayMonth) {
+                cellFlags |= CalendarPage.TODAY;
+            }
+            if (year == selectedYear && monthOfYear == selectedMonth) {
+                cellFlags |= CalendarPage.SELECTED;
+            }
+            flags[i] = cellFlags;
+        }
+        return newPage(relativeDateIndexes, flags);
+    }
+
+    private CalendarPage buildYearPage(int todayYear) {
+        int[] relativeDateIndexes = new int[numberOfYears];
+        int[] flags = new int[numberOfYears];
+        for (int i = 0; i < numberOfYears; i++) {
+            int cellYear = year + i;
+            relativeDateIndexes[i] = cellYear;
+            int cellFlags = CalendarPage.ENABLED;
+            if (cellYear == todayYear) {
+                cellFlags |= CalendarPage.TODAY;
+            }
+            if (cellYear == selectedYear) {
+                cellFlags |= CalendarPage.SELECTED;
+            }
+            flags[i] = cellFlags;
+        }
+        return newPage(relativeDateIndexes, flags);
+    }
+
+    private CalendarPage newPage(int[] relativeDateIndexes, int[] flags) {
+        CalendarPage page = new CalendarPage();
+        page.setCalendarResolution(calendarResolution);
+        page.setRelativeDateIndexes(relativeDateIndexes);
+        page.setFlags(flags);
+        return page;
+    }
+
+    /**
+     * Returns the number of days since 1970-01-01 (same as <code>LocalDate.toEpochDay()</code>).
+     *
+     * @param year
+     *            the year
+     * @param month
+     *            the month (1-12)
+     * @param dayOfMonth
+     *            the day of month
+     * @return the epoch day
+     */
+    public static int toEpochDay(int year, int month, int dayOfMonth) {
+        int total = 365 * year;
+        if (year >= 0) {
+            total += (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        } else {
+            total -= year / -4 - year / -100 + year / -400;
+        }
+        total += (367 * month - 362) / 12;
+        total += dayOfMonth - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * @return the day of week of the epoch day (1=Monday,...,7=Sunday)
+     */
+    public static int getDayOfWeek(int epochDay) {
+        return ((epochDay + 3) % 7 + 7) % 7 + 1;
+    }
+
+    public static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    /**
+     * @return the length of the month (1-12)
+     */
+    public static int lengthOfMonth(int year, int month) {
+        switch (month) {
+        case 2:
+            return isLeapYear(year) ? 29 : 28;
+        case 4:
+        case 6:
+        case 9:
+        case 11:
+            return 30;
+        default:
+            return 31;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        int result = calendarResolution == null ? 0 : calendarResolution.hashCode();
+        result = 31 * result + year;
+        result = 31 * result + month;
+        result = 31 * result + numberOfYears;
+        result = 31 * result + firstDayOfWeek;
+        result = 31 * result + lastDayOfWeek;
+        result = 31 * result + weekendDaysMask;
+        result = 31 * result + rangeStartEpochDay;
+        result = 31 * result + rangeEndEpochDay;
+        result = 31 * result + selectedYear;
+        result = 31 * result + selectedMonth;
+        result = 31 * result + selectedDayOfMonth;
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof CalendarGrid)) {
+            return false;
+        }
+        CalendarGrid other = (CalendarGrid) obj;
+        return calendarResolution == other.calendarResolution && year == other.year && month == other.month
+                && numberOfYears == other.numberOfYears && firstDayOfWeek == other.firstDayOfWeek
+                && lastDayOfWeek == other.lastDayOfWeek && fixedNumberOfDayRows == other.fixedNumberOfDayRows
+                && weekendDaysMask == other.weekendDaysMask && weekendDisabled == other.weekendDisabled
+                && previousMonthDisabled == other.previousMonthDisabled
+                && nextMonthDisabled == other.nextMonthDisabled && rangeStartEpochDay == other.rangeStartEpochDay
+                && rangeEndEpochDay == other.rangeEndEpochDay && selectedYear == other.selectedYear
+                && selectedMonth == other.selectedMonth && selectedDayOfMonth == other.selectedDayOfMonth;
+    }
+
+    /**
+     * @return the calendarResolution
+     */
+    public CalendarResolution getCalendarResolution() {
+        return calendarResolution;
+    }
+
+    /**
+     * @param calendarResolution
+     *            the calendarResolution to set
+     */
+    public void setCalendarResolution(CalendarResolution calendarResolution) {
+        this.calendarResolution = calendarResolution;
+    }
+
+    /**
+     * @return the year
+     */
+    public int getYear() {
+        return year;
+    }
+
+    /**
+     * @param year
+     *            the year to set
+     */
+    public void setYear(int year) {
+        this.year = year;
+    }
+
+    /**
+     * @return the month
+     */
+    public int getMonth() {
+        return month;
+    }
+
+    /**
+     * @param month
+     *            the month to set
+     */
+    public void setMonth(int month) {
+        this.month = month;
+    }
+
+    /**
+     * @return the numberOfYears
+     */
+    public int getNumberOfYears() {
+        return numberOfYears;
+    }
+
+    /**
+     * @param numberOfYears
+     *            the numberOfYears to set
+     */
+    public void setNumberOfYears(int numberOfYears) {
+        this.numberOfYears = numberOfYears;
+    }
+
+    /**
+     * @return the firstDayOfWeek
+     */
+    public int getFirstDayOfWeek() {
+        return firstDayOfWeek;
+    }
+
+    /**
+     * @param firstDayOfWeek
+     *            the firstDayOfWeek to set
+     */
+    public void setFirstDayOfWeek(int firstDayOfWeek) {
+        this.firstDayOfWeek = firstDayOfWeek;
+    }
+
+    /**
+     * @return the lastDayOfWeek
+     */
+    public int getLastDayOfWeek() {
+        return lastDayOfWeek;
+    }
+
+    /**
+     * @param lastDayOfWeek
+     *            the lastDayOfWeek to set
+     */
+    public void setLastDayOfWeek(int lastDayOfWeek) {
+        this.lastDayOfWeek = lastDayOfWeek;
+    }
+
+    /**
+     * @return the fixedNumberOfDayRows
+     */
+    public boolean isFixedNumberOfDayRows() {
+        return fixedNumberOfDayRows;
+    }
+
+    /**
+     * @param fixedNumberOfDayRows
+     *            the fixedNumberOfDayRows to set
+     */
+    public void setFixedNumberOfDayRows(boolean fixedNumberOfDayRows) {
+        this.fixedNumberOfDayRows = fixedNumberOfDayRows;
+    }
+
+    /**
+     * @return the weekendDaysMask
+     */
+    public int getWeekendDaysMask() {
+        return weekendDaysMask;
+    }
+
+    /**
+     * @param weekendDaysMask
+     *            the weekendDaysMask to set
+     */
+    public void setWeekendDaysMask(int weekendDaysMask) {
+        this.weekendDaysMask = weekendDaysMask;
+    }
+
+    /**
+     * @return the weekendDisabled
+     */
+    public boolean isWeekendDisabled() {
+        return weekendDisabled;
+    }
+
+    /**
+     * @param weekendDisabled
+     *            the weekendDisabled to set
+     */
+    public void setWeekendDisabled(boolean weekendDisabled) {
+        this.weekendDisabled = weekendDisabled;
+    }
+
+    /**
+     * @return the previousMonthDisabled
+     */
+    public boolean isPreviousMonthDisabled() {
+        return previousMonthDisabled;
+    }
+
+    /**
+     * @param previousMonthDisabled
+     *            the previousMonthDisabled to set
+     */
+    public void setPreviousMonthDisabled(boolean previousMonthDisabled) {
+        this.previousMonthDisabled = previousMonthDisabled;
+    }
+
+    /**
+     * @return the nextMonthDisabled
+     */
+    public boolean isNextMonthDisabled() {
+        return nextMonthDisabled;
+    }
+
+    /**
+     * @param nextMonthDisabled
+     *            the nextMonthDisabled to set
+     */
+    public void setNextMonthDisabled(boolean nextMonthDisabled) {
+        this.nextMonthDisabled = nextMonthDisabled;
+    }
+
+    /**
+     * @return the rangeStartEpochDay
+     */
+    public int getRangeStartEpochDay() {
+        return rangeStartEpochDay;
+    }
+
+    /**
+     * @param rangeStartEpochDay
+     *            the rangeStartEpochDay to set
+     */
+    public void setRangeStartEpochDay(int rangeStartEpochDay) {
+        this.rangeStartEpochDay = rangeStartEpochDay;
+    }
+
+    /**
+     * @return the rangeEndEpochDay
+     */
+    public int getRangeEndEpochDay() {
+        return rangeEndEpochDay;
+    }
+
+    /**
+     * @param rangeEndEpochDay
+     *            the rangeEndEpochDay to set
+     */
+    public void setRangeEndEpochDay(int rangeEndEpochDay) {
+        this.rangeEndEpochDay = rangeEndEpochDay;
+    }
+
+    /**
+     * @return the selectedYear
+     */
+    public int getSelectedYear() {
+        return selectedYear;
+    }
+
+    /**
+     * @param selectedYear
+     *            the selectedYear to set
+     */
+    public void setSelectedYear(int selectedYear) {
+        this.selectedYear = selectedYear;
+    }
+
+    /**
+     * @return the selectedMonth
+     */
+    public int getSelectedMonth() {
+        return selectedMonth;
+    }
+
+    /**
+     * @param selectedMonth
+     *            the selectedMonth to set
+     */
+    public void setSelectedMonth(int selectedMonth) {
+        this.selectedMonth = selectedMonth;
+    }
+
+    /**
+     * @return the selectedDayOfMonth
+     */
+    public int getSelectedDayOfMonth() {
+        return selectedDayOfMonth;
+    }
+
+    /**
+     * @param selectedDayOfMonth
+     *            the selectedDayOfMonth to set
+     */
+    public void setSelectedDayOfMonth(int selectedDayOfMonth) {
+        this.selectedDayOfMonth = selectedDayOfMonth;
+    }
+
+}
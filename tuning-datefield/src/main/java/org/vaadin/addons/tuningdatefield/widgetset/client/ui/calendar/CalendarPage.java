@@ -0,0 +1,633 @@
+/*
+ * Copyright (C) 2013 Frederic Dreyfus
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vaadin.addons.tuningdatefield.widgetset.client.ui.calendar;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The compact form of the {@link CalendarItem}s of a calendar page which is sent from the server to the calendar.<br>
+ * Instead of one object per cell, the page holds parallel arrays :
+ * <ol>
+ * <li>the relative date index of each cell</li>
+ * <li>a bitmask of the standard styles and enabled state of each cell</li>
+ * <li>the index of the custom style and tooltip of each cell in dictionaries sent once per page</li>
+ * <li>the texts which differ from the default text (day of month, short month name or year)</li>
+ * </ol>
+ *
+ * @author Frederic.Dreyfus
+ *
+ */
+public class CalendarPage implements Serializable {
+
+    private static final long serialVersionUID = 2616356254451733941L;
+
+    /**
+     * today, current month or current year depending on the resolution
+     */
+    public static final int TODAY = 1;
+    public static final int SELECTED = 2;
+    public static final int PREVIOUS_MONTH = 4;
+    public static final int CURRENT_MONTH = 8;
+    public static final int NEXT_MONTH = 16;
+    public static final int WEEKEND = 32;
+    public static final int ENABLED = 64;
+
+    private CalendarResolution calendarResolution;
+
+    /**
+     * The relative date index of each cell (see {@link CalendarItem#getRelativeDateIndex()})
+     */
+    private int[] relativeDateIndexes;
+
+    /**
+     * The standard styles and enabled state of each cell
+     */
+    private int[] flags;
+
+    /**
+     * The custom styles of the page
+     */
+    private String[] styles;
+
+    /**
+     * The index of the custom style of each cell in {@link #styles}, -1 for none. <code>null</code> if there is no
+     * custom style at all.
+     */
+    private int[] styleIndexes;
+
+    /**
+     * The tooltips of the page
+     */
+    private String[] tooltips;
+
+    /**
+     * The index of the tooltip of each cell in {@link #tooltips}, -1 for none. <code>null</code> if there is no
+     * tooltip at all.
+     */
+    private int[] tooltipIndexes;
+
+    /**
+     * The index of the cells whose text is not the default one
+     */
+    private int[] textItemIndexes;
+
+    /**
+     * The texts of the cells in {@link #textItemIndexes}
+     */
+    private String[] texts;
+
+    public CalendarPage() {
+
+    }
+
+    /**
+     * Encodes the calendar items.
+     *
+     * @param calendarResolution
+     *            the calendar resolution
+     * @param calendarItems
+     *            the calendar items
+     * @param shortMonthNames
+     *            the short month names used as default texts of the month calendar
+     * @return the calendar page
+     */
+    public static CalendarPage encode(CalendarResolution calendarResolution, CalendarItem[] calendarItems,
+            String[] shortMonthNames) {
+        CalendarPage page = new CalendarPage();
+        page.calendarResolution = calendarResolution;
+
+        int numberOfItems = calendarItems.length;
+        page.relativeDateIndexes = new int[numberOfItems];
+        page.flags = new int[numberOfItems];
+
+        Map<String, Integer> styleDictionary = null;
+        Map<String, Integer> tooltipDictionary = null;
+        List<Integer> textItemIndexes = null;
+        List<String> texts = null;
+        for (int i = 0; i < numberOfItems; i++) {
+            CalendarItem calendarItem = calendarItems[i];
+            int relativeDateIndex = calendarItem.getRelativeDateIndex();
+            page.relativeDateIndexes[i] = relativeDateIndex;
+
+            int flags = calendarItem.isEnabled() ? ENABLED : 0;
+            String customStyle = null;
+            String style = calendarItem.getStyle();
+            if (style != null) {
+                StringBuilder customStyleBuilder = null;
+                int start = 0;
+                while (start < style.length()) {
+                    int end = style.indexOf(' ', start);
+                    if (end < 0) {
+                        end = style.length();
+                    }
+                    if (end > start) {
+                        String styleName = style.substring(start, end);
+                        int flag = getFlag(calendarResolution, styleName);
+                        if (flag != 0) {
+                            flags |= flag;
+                        } else if (customStyleBuilder == null) {
+                            customStyleBuilder = new StringBuilder(styleName);
+                        } else {
+                            customStyleBuilder.append(' ').append(styleName);
+                        }
+                    }
+                    start = end + 1;
+                }
+                if (customStyleBuilder != null) {
+                    customStyle = customStyleBuilder.toString();
+                }
+            }
+            page.flags[i] = flags;
+
+            if (customStyle != null) {
+                if (styleDictionary == null) {
+                    styleDictionary = new HashMap<String, Integer>();
+                    page.styleIndexes = newIndexes(numberOfItems);
+                }
+                page.styleIndexes[i] = getDictionaryIndex(styleDictionary, customStyle);
+            }
+
+            String tooltip = calendarItem.getTooltip();
+            if (tooltip != null && !tooltip.isEmpty()) {
+                if (tooltipDictionary == null) {
+                    tooltipDictionary = new HashMap<String, Integer>();
+                    page.tooltipIndexes = newIndexes(numberOfItems);
+                }
+                page.tooltipIndexes[i] = getDictionaryIndex(tooltipDictionary, tooltip);
+            }
+
+            String text = calendarItem.getText();
+            if (text != null && !text.equals(getDefaultText(calendarResolution, relativeDateIndex, shortMonthNames))) {
+                if (texts == null) {
+                    textItemIndexes = new ArrayList<Integer>();
+                    texts = new ArrayList<String>();
+                }
+                textItemIndexes.add(i);
+                texts.add(text);
+            }
+        }
+
+        page.styles = toDictionaryArray(styleDictionary);
+        page.tooltips = toDictionaryArray(tooltipDictionary);
+        page.setTextOverrides(textItemIndexes, texts);
+        return page;
+    }
+
+    /**
+     * Decodes the calendar items of the page.
+     *
+     * @param shortMonthNames
+     *            the short month names used as default texts of the month calendar
+     * @return the calendar items
+     */
+    public CalendarItem[] decode(String[] shortMonthNames) {
+        CalendarItem[] calendarItems = new CalendarItem[relativeDateIndexes.length];
+        String[] textOverrides = getTextOverrides();
+        for (int i = 0; i < calendarItems.length; i++) {
+            calendarItems[i] = decodeItem(i, i, flags[i] & TODAY, textOverrides[i], shortMonthNames);
+        }
+        return calendarItems;
+    }
+
+    /**
+     * Decodes the calendar item of a cell of the page.
+     *
+     * @param cell
+     *            the cell in this page
+     * @param itemIndex
+     *            the index of the decoded item
+     * @param todayFlag
+     *            the {@link #TODAY} flag of the cell
+     * @param text
+     *            the text of the cell, <code>null</code> for default
+     * @param shortMonthNames
+     *            the short month names used as default texts of the month calendar
+     * @return the calendar item
+     */
+    private CalendarItem decodeItem(int cell, int itemIndex, int todayFlag, String text, String[] shortMonthNames) {
+        int cellFlags = (flags[cell] & ~TODAY) | todayFlag;
+        CalendarItem calendarItem = new CalendarItem();
+        calendarItem.setIndex(itemIndex);
+        calendarItem.setRelativeDateIndex(relativeDateIndexes[cell]);
+        calendarItem.setEnabled((cellFlags & ENABLED) != 0);
+        if (text == null) {
+            text = getDefaultText(calendarResolution, relativeDateIndexes[cell], shortMonthNames);
+        }
+        calendarItem.setText(text);
+        calendarItem.setStyle(getStyle(calendarResolution, cellFlags, getCustomStyle(cell)));
+        calendarItem.setTooltip(getTooltip(cell));
+        return calendarItem;
+    }
+
+    /**
+     * Restores the items of the cells which were changed by the previous delta, then applies the changes of the new
+     * delta. Only the changed {@link CalendarItem}s are replaced.<br>
+     * The {@link #TODAY} flag always comes from this page, as it is computed with the date of the calendar.
+     *
+     * @param calendarItems
+     *            the calendar items decoded from this page
+     * @param previousDelta
+     *            the delta already applied to the items, <code>null</code> if none
+     * @param delta
+     *            the new delta, cumulative from this page, <code>null</code> if none
+     * @param shortMonthNames
+     *            the short month names used as default texts of the month calendar
+     */
+    public void applyDelta(CalendarItem[] calendarItems, CalendarPageDelta previousDelta, CalendarPageDelta delta,
+            String[] shortMonthNames) {
+        if (previousDelta != null) {
+            String[] textOverrides = getTextOverrides();
+            for (int itemIndex : previousDelta.getItemIndexes()) {
+                calendarItems[itemIndex] = decodeItem(itemIndex, itemIndex, flags[itemIndex] & TODAY,
+                        textOverrides[itemIndex], shortMonthNames);
+            }
+        }
+        if (delta != null) {
+            CalendarPage cells = delta.getCells();
+            String[] textOverrides = cells.getTextOverrides();
+            int[] itemIndexes = delta.getItemIndexes();
+            for (int i = 0; i < itemIndexes.length; i++) {
+                int itemIndex = itemIndexes[i];
+                calendarItems[itemIndex] = cells.decodeItem(i, itemIndex, flags[itemIndex] & TODAY,
+                        textOverrides[i], shortMonthNames);
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the cells which differ in the other page of the same size.
+     *
+     * @param other
+     *            the other page
+     * @return the index of the cells which differ
+     */
+    public int[] getChangedItemIndexes(CalendarPage other) {
+        String[] textOverrides = getTextOverrides();
+        String[] otherTextOverrides = other.getTextOverrides();
+        int[] changedItemIndexes = new int[size()];
+        int numberOfChanges = 0;
+        for (int i = 0; i < changedItemIndexes.length; i++) {
+            if (relativeDateIndexes[i] != other.relativeDateIndexes[i] || flags[i] != other.flags[i]
+                    || !equals(getCustomStyle(i), other.getCustomStyle(i))
+                    || !equals(getTooltip(i), other.getTooltip(i))
+                    || !equals(textOverrides[i], otherTextOverrides[i])) {
+                changedItemIndexes[numberOfChanges++] = i;
+            }
+        }
+        int[] result = new int[numberOfChanges];
+        System.arraycopy(changedItemIndexes, 0, result, 0, numberOfChanges);
+        return result;
+    }
+
+    /**
+     * Returns a page made of some cells of this page, in the given order.
+     *
+     * @param itemIndexes
+     *            the index of the cells
+     * @return the page of the cells
+     */
+    public CalendarPage subPage(int[] itemIndexes) {
+        CalendarPage page = new CalendarPage();
+        page.calendarResolution = calendarResolution;
+        page.relativeDateIndexes = new int[itemIndexes.length];
+        page.flags = new int[itemIndexes.length];
+
+        Map<String, Integer> styleDictionary = null;
+        Map<String, Integer> tooltipDictionary = null;
+        List<Integer> textItemIndexes = null;
+        List<String> texts = null;
+        String[] textOverrides = getTextOverrides();
+        for (int i = 0; i < itemIndexes.length; i++) {
+            int cell = itemIndexes[i];
+            page.relativeDateIndexes[i] = relativeDateIndexes[cell];
+            page.flags[i] = flags[cell];
+
+            String customStyle = getCustomStyle(cell);
+            if (customStyle != null) {
+                if (styleDictionary == null) {
+                    styleDictionary = new HashMap<String, Integer>();
+                    page.styleIndexes = newIndexes(itemIndexes.length);
+                }
+                page.styleIndexes[i] = getDictionaryIndex(styleDictionary, customStyle);
+            }
+            String tooltip = getTooltip(cell);
+            if (tooltip != null) {
+                if (tooltipDictionary == null) {
+                    tooltipDictionary = new HashMap<String, Integer>();
+                    page.tooltipIndexes = newIndexes(itemIndexes.length);
+                }
+                page.tooltipIndexes[i] = getDictionaryIndex(tooltipDictionary, tooltip);
+            }
+            if (textOverrides[cell] != null) {
+                if (texts == null) {
+                    textItemIndexes = new ArrayList<Integer>();
+                    texts = new ArrayList<String>();
+                }
+                textItemIndexes.add(i);
+                texts.add(textOverrides[cell]);
+            }
+        }
+
+        page.styles = toDictionaryArray(styleDictionary);
+        page.tooltips = toDictionaryArray(tooltipDictionary);
+        page.setTextOverrides(textItemIndexes, texts);
+        return page;
+    }
+
+    private String getCustomStyle(int cell) {
+        return styleIndexes == null || styleIndexes[cell] < 0 ? null : styles[styleIndexes[cell]];
+    }
+
+    private String getTooltip(int cell) {
+        return tooltipIndexes == null || tooltipIndexes[cell] < 0 ? null : tooltips[tooltipIndexes[cell]];
+    }
+
+    /**
+     * @return the text of each cell, <code>null</code> for default
+     */
+    private String[] getTextOverrides() {
+        String[] textOverrides = new String[size()];
+        if (textItemIndexes != null) {
+            for (int i = 0; i < textItemIndexes.length; i++) {
+                textOverrides[textItemIndexes[i]] = texts[i];
+            }
+        }
+        return textOverrides;
+    }
+
+    private void setTextOverrides(List<Integer> textItemIndexes, List<String> texts) {
+        if (texts != null) {
+            this.textItemIndexes = new int[textItemIndexes.size()];
+            for (int i = 0; i < this.textItemIndexes.length; i++) {
+                this.textItemIndexes[i] = textItemIndexes.get(i);
+            }
+            this.texts = texts.toArray(new String[texts.size()]);
+        }
+    }
+
+    private static boolean equals(String s1, String s2) {
+        return s1 == null ? s2 == null : s1.equals(s2);
+    }
+
+    /**
+     * Returns the flag of a standard style name, 0 if the style name is a custom one.
+     */
+    private static int getFlag(CalendarResolution calendarResolution, String styleName) {
+        if (styleName.equals("selected")) {
+            return SELECTED;
+        }
+        switch (calendarResolution) {
+        case MONTH:
+            return styleName.equals("currentmonth") ? TODAY : 0;
+        case YEAR:
+            return styleName.equals("currentyear") ? TODAY : 0;
+        default:
+            if (styleName.equals("today")) {
+                return TODAY;
+            } else if (styleName.equals("previousmonth")) {
+                return PREVIOUS_MONTH;
+            } else if (styleName.equals("currentmonth")) {
+                return CURRENT_MONTH;
+            } else if (styleName.equals("nextmonth")) {
+                return NEXT_MONTH;
+            } else if (styleName.equals("weekend")) {
+                return WEEKEND;
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Returns the style of a cell, standard styles in the order they are set by the server followed by the custom
+     * style.
+     */
+    private static String getStyle(CalendarResolution calendarResolution, int flags, String customStyle) {
+        StringBuilder style = new StringBuilder();
+        if ((flags & TODAY) != 0) {
+            if (calendarResolution == CalendarResolution.MONTH) {
+                style.append("currentmonth ");
+            } else if (calendarResolution == CalendarResolution.YEAR) {
+                style.append("currentyear ");
+            } else {
+                style.append("today ");
+            }
+        }
+        if ((flags & SELECTED) != 0) {
+            style.append("selected ");
+        }
+        if ((flags & PREVIOUS_MONTH) != 0) {
+            style.append("previousmonth ");
+        }
+        if ((flags & CURRENT_MONTH) != 0) {
+            style.append("currentmonth ");
+        }
+        if ((flags & NEXT_MONTH) != 0) {
+            style.append("nextmonth ");
+        }
+        if ((flags & WEEKEND) != 0) {
+            style.append("weekend ");
+        }
+        if (customStyle != null) {
+            style.append(customStyle).append(' ');
+        }
+        return style.length() == 0 ? null : style.toString();
+    }
+
+    private static String getDefaultText(CalendarResolution calendarResolution, int relativeDateIndex,
+            String[] shortMonthNames) {
+        if (calendarResolution == CalendarResolution.MONTH && shortMonthNames != null && relativeDateIndex >= 1
+                && relativeDateIndex <= shortMonthNames.length) {
+            return shortMonthNames[relativeDateIndex - 1];
+        }
+        return Integer.toString(Math.abs(relativeDateIndex));
+    }
+
+    private static int[] newIndexes(int numberOfItems) {
+        int[] indexes = new int[numberOfItems];
+        for (int i = 0; i < numberOfItems; i++) {
+            indexes[i] = -1;
+        }
+        return indexes;
+    }
+
+    private static int getDictionaryIndex(Map<String, Integer> dictionary, String value) {
+        Integer index = dictionary.get(value);
+        if (index == null) {
+            index = dictionary.size();
+            dictionary.put(value, index);
+        }
+        return index;
+    }
+
+    private static String[] toDictionaryArray(Map<String, Integer> dictionary) {
+        if (dictionary == null) {
+            return null;
+        }
+        String[] values = new String[dictionary.size()];
+        for (Map.Entry<String, Integer> entry : dictionary.entrySet()) {
+            values[entry.getValue()] = entry.getKey();
+        }
+        return values;
+    }
+
+    /**
+     * @return the number of cells of the page
+     */
+    public int size() {
+        return relativeDateIndexes == null ? 0 : relativeDateIndexes.length;
+    }
+
+    /**
+     * @return the calendarResolution
+     */
+    public CalendarResolution getCalendarResolution() {
+        return calendarResolution;
+    }
+
+    /**
+     * @param calendarResolution
+     *            the calendarResolution to set
+     */
+    public void setCalendarResolution(CalendarResolution calendarResolution) {
+        this.calendarResolution = calendarResolution;
+    }
+
+    /**
+     * @return the relativeDateIndexes
+     */
+    public int[] getRelativeDateIndexes() {
+        return relativeDateIndexes;
+    }
+
+    /**
+     * @param relativeDateIndexes
+     *            the relativeDateIndexes to set
+     */
+    public void setRelativeDateIndexes(int[] relativeDateIndexes) {
+        this.relativeDateIndexes = relativeDateIndexes;
+    }
+
+    /**
+     * @return the flags
+     */
+    public int[] getFlags() {
+        return flags;
+    }
+
+    /**
+     * @param flags
+     *            the flags to set
+     */
+    public void setFlags(int[] flags) {
+        this.flags = flags;
+    }
+
+    /**
+     * @return the styles
+     */
+    public String[] getStyles() {
+        return styles;
+    }
+
+    /**
+     * @param styles
+     *            the styles to set
+     */
+    public void setStyles(String[] styles) {
+        this.styles = styles;
+    }
+
+    /**
+     * @return the styleIndexes
+     */
+    public int[] getStyleIndexes() {
+        return styleIndexes;
+    }
+
+    /**
+     * @param styleIndexes
+     *            the styleIndexes to set
+     */
+    public void setStyleIndexes(int[] styleIndexes) {
+        this.styleIndexes = styleIndexes;
+    }
+
+    /**
+     * @return the tooltips
+     */
+    public String[] getTooltips() {
+        return tooltips;
+    }
+
+    /**
+     * @param tooltips
+     *            the tooltips to set
+     */
+    public void setTooltips(String[] tooltips) {
+        this.tooltips = tooltips;
+    }
+
+    /**
+     * @return the tooltipIndexes
+     */
+    public int[] getTooltipIndexes() {
+        return tooltipIndexes;
+    }
+
+    /**
+     * @param tooltipIndexes
+     *            the tooltipIndexes to set
+     */
+    public void setTooltipIndexes(int[] tooltipIndexes) {
+        this.tooltipIndexes = tooltipIndexes;
+    }
+
+    /**
+     * @return the textItemIndexes
+     */
+    public int[] getTextItemIndexes() {
+        return textItemIndexes;
+    }
+
+    /**
+     * @param textItemIndexes
+     *            the textItemIndexes to set
+     */
+    public void setTextItemIndexes(int[] textItemIndexes) {
+        this.textItemIndexes = textItemIndexes;
+    }
+
+    /**
+     * @return the texts
+     */
+    public String[] getTexts() {
+        return texts;
+    }
+
+    /**
+     * @param texts
+     *            the texts to set
+     */
+    public void setTexts(String[] texts) {
+        this.texts = texts;
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2013 Frederic Dreyfus
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vaadin.addons.tuningdatefield.widgetset.client.ui.calendar;
+
+import java.io.Serializable;
+
+/**
+ * The cells of a calendar page which differ from the default page computed by the calendar from the
+ * {@link CalendarGrid} (e.g. customized styles, tooltips, texts or disabled dates).<br>
+ * The delta always holds all the differences with the default page of the grid of version {@link #baseVersion}.
+ *
+ * @author Frederic.Dreyfus
+ *
+ */
+public class CalendarPageDelta implements Serializable {
+
+    private static final long serialVersionUID = -4710216622431938465L;
+
+    /**
+     * The version of the grid this delta applies to
+     */
+    private int baseVersion;
+
+    /**
+     * The index of the changed cells in the default page
+     */
+    private int[] itemIndexes;
+
+    /**
+     * The new content of the changed cells, in the same order as {@link #itemIndexes}
+     */
+    private CalendarPage cells;
+
+    public CalendarPageDelta() {
+
+    }
+
+    public CalendarPageDelta(int baseVersion, int[] itemIndexes, CalendarPage cells) {
+        this.baseVersion = baseVersion;
+        this.itemIndexes = itemIndexes;
+        this.cells = cells;
+    }
+
+    /**
+     * @return the baseVersion
+     */
+    public int getBaseVersion() {
+        return baseVersion;
+    }
+
+    /**
+     * @param baseVersion
+     *            the baseVersion to set
+     */
+    public void setBaseVersion(int baseVersion) {
+        this.baseVersion = baseVersion;
+    }
+
+    /**
+     * @return the itemIndexes
+     */
+    public int[] getItemIndexes() {
+        return itemIndexes;
+    }
+
+    /**
+     * @param itemIndexes
+     *            the itemIndexes to set
+     */
+    public void setItemIndexes(int[] itemIndexes) {
+        this.itemIndexes = itemIndexes;
+    }
+
+    /**
+     * @return the cells
+     */
+    public CalendarPage getCells() {
+        return cells;
+    }
+
+    /**
+     * @param cells
+     *            the cells to set
+     */
+    public void setCells(CalendarPage cells) {
+        this.cells = cells;
+    }
+
+}
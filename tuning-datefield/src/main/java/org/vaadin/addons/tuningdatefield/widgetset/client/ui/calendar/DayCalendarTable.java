@@ -24,6 +24,9 @@ public class DayCalendarTable extends AbstractCalendarTable {
 
     private static final int WEEKDAY_NAMES_ROW = 1;
 
+    // The week header names currently rendered
+    private String[] renderedWeekHeaderNames;
+
     public DayCalendarTable(TuningDateFieldCalendarWidget tuningDateFieldCalendar, String resolutionControlText, CalendarItem[] calendarItems,
             boolean controlsEnabled) {
         super(tuningDateFieldCalendar, resolutionControlText, calendarItems, controlsEnabled);
@@ -38,6 +41,11 @@ public class DayCalendarTable extends AbstractCalendarTable {
         return 7;
     }
 
+    @Override
+    protected boolean isJumpControlVisible() {
+        return tuningDateFieldCalendar.isJumpControlVisible();
+    }
+
     @Override
     protected String getCellItemPrimaryStylename() {
         return "day";
@@ -54,10 +62,20 @@ public class DayCalendarTable extends AbstractCalendarTable {
         renderWeekHeaderNames();
     }
 
+    @Override
+    public void update(String resolutionControlText, CalendarItem[] calendarItems, boolean controlsEnabled) {
+        // The names only change with the locale
+        if (tuningDateFieldCalendar.getWeekHeaderNames() != renderedWeekHeaderNames) {
+            renderWeekHeaderNames();
+        }
+        super.update(resolutionControlText, calendarItems, controlsEnabled);
+    }
+
     private void renderWeekHeaderNames() {
+        renderedWeekHeaderNames = tuningDateFieldCalendar.getWeekHeaderNames();
         getRowFormatter().setStylePrimaryName(WEEKDAY_NAMES_ROW, "daynames");
         for (int i = 0; i < getNumberOfColumns(); i++) {
-            setText(WEEKDAY_NAMES_ROW, i, tuningDateFieldCalendar.getWeekHeaderNames()[i]);
+            setText(WEEKDAY_NAMES_ROW, i, renderedWeekHeaderNames[i]);
             getCellFormatter().setAlignment(WEEKDAY_NAMES_ROW, i, HasHorizontalAlignment.ALIGN_CENTER,
                     HasVerticalAlignment.ALIGN_MIDDLE);
         }
@@ -16,11 +16,17 @@
 
 package org.vaadin.addons.tuningdatefield.widgetset.client.ui.calendar;
 
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
 import org.vaadin.addons.tuningdatefield.widgetset.client.ui.TuningDateFieldBundle;
 import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.CalendarAttachedEvent;
 import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.CalendarAttachedHandler;
 import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.CalendarItemClickEvent;
 import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.CalendarItemClickHandler;
+import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.JumpControlClickEvent;
+import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.JumpControlClickHandler;
 import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.NextControlClickEvent;
 import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.NextControlClickHandler;
 import org.vaadin.addons.tuningdatefield.widgetset.client.ui.events.PreviousControlClickEvent;
@@ -48,17 +54,45 @@ public class TuningDateFieldCalendarWidget extends SimplePanel {
 
     private boolean controlsEnabled;
 
+    // The jump control to the next available date, only in day resolution
+    private boolean jumpControlVisible;
+
     // For Day calendar resolutions
     private String[] weekHeaderNames;
 
     private CalendarItem[] calendarItems;
 
+    // The grid and delta the calendar items are decoded from
+    private CalendarGrid calendarGrid;
+    private int calendarGridVersion;
+    private CalendarPageDelta calendarPageDelta;
+    private CalendarPage defaultCalendarPage;
+    private String[] shortMonthNames;
+
+    // The pages around the page displayed by the server
+    private AdjacentCalendarPage[] adjacentCalendarPages;
+
+    // The page displayed on open before the server answers
+    private AdjacentCalendarPage openCalendarPage;
+
+    // True while the displayed page lacks its decorations, see AdjacentCalendarPage#isProvisional()
+    private boolean provisionalPageDisplayed;
+
+    // The directions of the previous/next control clicks not handled by the server yet
+    private final List<Integer> pendingNavigations = new ArrayList<Integer>();
+    private int handledNavigationCount = -1;
+
     private FocusOutListener focusOutListener;
     private SubmitListener submitListener;
 
     private Widget loadingWidget;
     private Widget currentCalendarTable;
 
+    // The tables are kept and updated in place, see AbstractCalendarTable#update
+    private DayCalendarTable dayCalendarTable;
+    private MonthCalendarTable monthCalendarTable;
+    private YearCalendarTable yearCalendarTable;
+
     public TuningDateFieldCalendarWidget() {
         setStyleName(CLASSNAME);
         TuningDateFieldBundle tuningDateFieldBundle = GWT.create(TuningDateFieldBundle.class);
@@ -66,30 +100,201 @@ public class TuningDateFieldCalendarWidget extends SimplePanel {
     }
 
     public void redraw(boolean calendarOpen) {
-        if (currentCalendarTable != null) {
-            remove(currentCalendarTable);
-        }
-        setWidget(loadingWidget);
-        if (calendarOpen) {
+        // Calendar items may not be available yet when they are built asynchronously on server-side
+        if (calendarOpen && calendarItems != null) {
+            AbstractCalendarTable calendarTable;
             switch (calendarResolution) {
             case MONTH:
-                currentCalendarTable = new MonthCalendarTable(this, calendarResolutionText, calendarItems,
-                        controlsEnabled);
+                if (monthCalendarTable == null) {
+                    monthCalendarTable = new MonthCalendarTable(this, calendarResolutionText, calendarItems,
+                            controlsEnabled);
+                } else {
+                    monthCalendarTable.update(calendarResolutionText, calendarItems, controlsEnabled);
+                }
+                calendarTable = monthCalendarTable;
                 break;
             case YEAR:
-                currentCalendarTable = new YearCalendarTable(this, calendarResolutionText, calendarItems,
-                        controlsEnabled);
+                if (yearCalendarTable == null) {
+                    yearCalendarTable = new YearCalendarTable(this, calendarResolutionText, calendarItems,
+                            controlsEnabled);
+                } else {
+                    yearCalendarTable.update(calendarResolutionText, calendarItems, controlsEnabled);
+                }
+                calendarTable = yearCalendarTable;
                 break;
             default:
-                currentCalendarTable = new DayCalendarTable(this, calendarResolutionText, calendarItems,
-                        controlsEnabled);
+                if (dayCalendarTable == null) {
+                    dayCalendarTable = new DayCalendarTable(this, calendarResolutionText, calendarItems,
+                            controlsEnabled);
+                } else {
+                    dayCalendarTable.update(calendarResolutionText, calendarItems, controlsEnabled);
+                }
+                calendarTable = dayCalendarTable;
                 break;
             }
-            setWidget(currentCalendarTable);
+            if (currentCalendarTable != calendarTable) {
+                currentCalendarTable = calendarTable;
+                setWidget(currentCalendarTable);
+            }
             // We notify the calendar is attached so that we update
             // the popup position
             fireEvent(new CalendarAttachedEvent());
+        } else if (getWidget() != loadingWidget) {
+            currentCalendarTable = null;
+            setWidget(loadingWidget);
+        }
+    }
+
+    /**
+     * Updates the calendar items from the grid and the differences sent by the server. The default page is computed
+     * only when the grid has changed, otherwise only the cells of the delta are updated.
+     * 
+     * @param calendarGrid
+     *            the calendar grid, <code>null</code> while the page is being built
+     * @param calendarGridVersion
+     *            the version of the grid
+     * @param calendarPageDelta
+     *            the cells which differ from the default page, <code>null</code> if none
+     * @param shortMonthNames
+     *            the short month names used as default texts of the month calendar
+     */
+    public void setCalendarGrid(CalendarGrid calendarGrid, int calendarGridVersion,
+            CalendarPageDelta calendarPageDelta, String[] shortMonthNames) {
+        if (calendarPageDelta != null && calendarPageDelta.getBaseVersion() != calendarGridVersion) {
+            // Should never happen as the delta is always sent along with its grid
+            calendarPageDelta = null;
+        }
+        if (calendarGrid == null && provisionalPageDisplayed) {
+            // The page is being built on server-side, the provisional page is the same page without decorations
+            return;
+        }
+        if (calendarGrid == null) {
+            calendarItems = null;
+            defaultCalendarPage = null;
+        } else if (calendarGrid != this.calendarGrid || calendarGridVersion != this.calendarGridVersion
+                || calendarItems == null) {
+            buildCalendarItems(calendarGrid, calendarPageDelta, shortMonthNames);
+        } else if (calendarPageDelta != this.calendarPageDelta) {
+            defaultCalendarPage.applyDelta(calendarItems, this.calendarPageDelta, calendarPageDelta,
+                    shortMonthNames);
+        }
+        this.calendarGrid = calendarGrid;
+        this.calendarGridVersion = calendarGridVersion;
+        this.calendarPageDelta = calendarPageDelta;
+        this.shortMonthNames = shortMonthNames;
+        provisionalPageDisplayed = false;
+    }
+
+    @SuppressWarnings("deprecation")
+    private void buildCalendarItems(CalendarGrid calendarGrid, CalendarPageDelta calendarPageDelta,
+            String[] shortMonthNames) {
+        // Today is the date of the browser
+        Date today = new Date();
+        defaultCalendarPage = calendarGrid.buildPage(today.getYear() + 1900, today.getMonth() + 1, today.getDate());
+        calendarItems = defaultCalendarPage.decode(shortMonthNames);
+        defaultCalendarPage.applyDelta(calendarItems, null, calendarPageDelta, shortMonthNames);
+    }
+
+    /**
+     * Updates the pages pushed in advance by the server and forgets the previous/next control clicks it has handled.
+     * 
+     * @param adjacentCalendarPages
+     *            the pages around the page displayed by the server, <code>null</code> if none
+     * @param handledNavigationCount
+     *            the number of previous/next control clicks handled by the server
+     */
+    public void setAdjacentCalendarPages(AdjacentCalendarPage[] adjacentCalendarPages, int handledNavigationCount) {
+        this.adjacentCalendarPages = adjacentCalendarPages;
+        if (this.handledNavigationCount >= 0) {
+            for (int i = this.handledNavigationCount; i < handledNavigationCount && !pendingNavigations.isEmpty(); i++) {
+                pendingNavigations.remove(0);
+            }
+        }
+        this.handledNavigationCount = handledNavigationCount;
+    }
+
+    /**
+     * Records a previous or next control click which is about to be sent to the server and displays the target page
+     * right away if the server pushed it in advance. The page is then kept until the server has handled the click.
+     * 
+     * @param direction
+     *            <code>-1</code> for the previous control, <code>1</code> for the next control
+     * @return <code>true</code> if the target page is displayed and the calendar must be redrawn
+     */
+    public boolean navigate(int direction) {
+        pendingNavigations.add(direction);
+        if (!controlsEnabled || adjacentCalendarPages == null) {
+            return false;
+        }
+        int offset = 0;
+        for (int pendingDirection : pendingNavigations) {
+            offset += pendingDirection;
+        }
+        for (AdjacentCalendarPage adjacentCalendarPage : adjacentCalendarPages) {
+            if (adjacentCalendarPage.getOffset() == offset) {
+                displayPage(adjacentCalendarPage);
+                return true;
+            }
         }
+        return false;
+    }
+
+    /**
+     * Displays the page pushed by the server for the next opening, so that the calendar is drawn without waiting for
+     * the server. The page the server builds on open replaces it when it arrives.
+     * 
+     * @return <code>true</code> if the page is displayed and the calendar must be redrawn
+     */
+    public boolean displayOpenCalendarPage() {
+        if (openCalendarPage == null) {
+            return false;
+        }
+        // The adjacent pages of the last opening are relative to another page
+        adjacentCalendarPages = null;
+        displayPage(openCalendarPage);
+        return true;
+    }
+
+    private void displayPage(AdjacentCalendarPage page) {
+        CalendarGrid grid = page.getCalendarGrid();
+        buildCalendarItems(grid, page.getCalendarPageDelta(), shortMonthNames);
+        calendarGrid = grid;
+        calendarPageDelta = page.getCalendarPageDelta();
+        calendarResolution = grid.getCalendarResolution();
+        calendarResolutionText = page.getCalendarResolutionText();
+        provisionalPageDisplayed = page.isProvisional();
+    }
+
+    /**
+     * @param openCalendarPage
+     *            the page displayed on next opening, <code>null</code> if none
+     */
+    public void setOpenCalendarPage(AdjacentCalendarPage openCalendarPage) {
+        this.openCalendarPage = openCalendarPage;
+    }
+
+    /**
+     * @return <code>true</code> while the displayed page lacks its decorations, it cannot be clicked
+     */
+    public boolean isProvisionalPageDisplayed() {
+        return provisionalPageDisplayed;
+    }
+
+    /**
+     * @param itemIndex
+     *            the index of a cell of the displayed page
+     * @return the date of the cell as an epoch day
+     * @see CalendarGrid#getCellEpochDay(int)
+     */
+    public int getCellEpochDay(int itemIndex) {
+        return calendarGrid.getCellEpochDay(itemIndex);
+    }
+
+    /**
+     * @return <code>true</code> while some previous/next control clicks have not been handled by the server
+     */
+    public boolean isNavigationPending() {
+        return !pendingNavigations.isEmpty();
     }
 
     public HandlerRegistration addCalendarItemClickHandler(CalendarItemClickHandler calendarItemClickHandler) {
@@ -104,6 +309,10 @@ public class TuningDateFieldCalendarWidget extends SimplePanel {
         return addHandler(nextControlClickHandler, NextControlClickEvent.getType());
     }
 
+    public HandlerRegistration addJumpControlClickHandler(JumpControlClickHandler jumpControlClickHandler) {
+        return addHandler(jumpControlClickHandler, JumpControlClickEvent.getType());
+    }
+
     public HandlerRegistration addResolutionControlClickHandler(
             ResolutionControlClickHandler resolutionControlClickHandler) {
         return addHandler(resolutionControlClickHandler, ResolutionControlClickEvent.getType());
@@ -188,6 +397,21 @@ public class TuningDateFieldCalendarWidget extends SimplePanel {
         this.controlsEnabled = controlsEnabled;
     }
 
+    /**
+     * @return the jumpControlVisible
+     */
+    public boolean isJumpControlVisible() {
+        return jumpControlVisible;
+    }
+
+    /**
+     * @param jumpControlVisible
+     *            the jumpControlVisible to set
+     */
+    public void setJumpControlVisible(boolean jumpControlVisible) {
+        this.jumpControlVisible = jumpControlVisible;
+    }
+
     /**
      * @return the weekHeaderNames
      */
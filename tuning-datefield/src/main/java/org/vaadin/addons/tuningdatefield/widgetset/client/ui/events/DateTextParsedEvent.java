@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2013 Frederic Dreyfus
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.vaadin.addons.tuningdatefield.widgetset.client.ui.events;
+
+import com.google.gwt.event.shared.GwtEvent;
+
+public class DateTextParsedEvent extends GwtEvent<DateTextParsedHandler> {
+
+    private static Type<DateTextParsedHandler> TYPE;
+
+    private int epochDay;
+
+    public DateTextParsedEvent(int epochDay) {
+        this.epochDay = epochDay;
+    }
+
+    @Override
+    public Type<DateTextParsedHandler> getAssociatedType() {
+        return getType();
+    }
+
+    public static Type<DateTextParsedHandler> getType() {
+        if (TYPE == null) {
+            TYPE = new Type<DateTextParsedHandler>();
+        }
+        return TYPE;
+    }
+
+    @Override
+    protected void dispatch(DateTextParsedHandler handler) {
+        handler.onDateTextParsed(this);
+    }
+
+    /**
+     * @return the date parsed by the widget, as an epoch day
+     */
+    public int getEpochDay() {
+        return epochDay;
+    }
+
+}